@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+#
+# Builds an AppCDS archive of the classes loaded during startup (JDK 13 or later), run by `mvn -Pcds package`.
+#
+#   scripts/appcds.sh [jar] [output dir] [application arguments...]
+#   java @target/cds/run.args
+#
+# The fat jar cannot be archived as is, its nested jars are read by Spring Boot's own class loader, so it is
+# unpacked into plain jars on a flat class path. A training run then starts the application with the usual
+# configuration (the database must be reachable), exits as soon as it is ready and dumps the archive.
+# run.args holds the class path and archive flags the application must be started with to use it.
+# JWT_ARGS signs with a generated key unless set to the key store of the deployment, e.g.
+# JWT_ARGS="--oc.app.jwtKeyStore=file:jwt.p12 ..." (see README).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=$(realpath "${1:-target/yoga-app-0.0.1-SNAPSHOT.jar}")
+OUT=${2:-target/cds}
+JAVA=${JAVA:-java}
+JWT_ARGS=${JWT_ARGS:---oc.app.jwtGenerateKeys=true}
+shift $(( $# > 2 ? 2 : $# ))
+
+rm -rf "$OUT"
+mkdir -p "$OUT/unpacked" "$OUT/lib"
+OUT=$(realpath "$OUT")
+
+(cd "$OUT/unpacked" && unzip -q "$JAR")
+MAIN_CLASS=$(sed -n 's/^Start-Class: *//p' "$OUT/unpacked/META-INF/MANIFEST.MF" | tr -d '\r')
+
+# Application classes in a jar of their own, CDS only archives classes loaded from jars.
+jar cf "$OUT/lib/application.jar" -C "$OUT/unpacked/BOOT-INF/classes" .
+CLASSPATH="$OUT/lib/application.jar"
+# classpath.idx keeps the dependency order of the fat jar, the archive is only valid for that exact class path.
+for lib in $(sed -n 's/^- "BOOT-INF\/lib\/\(.*\)"$/\1/p' "$OUT/unpacked/BOOT-INF/classpath.idx"); do
+  mv "$OUT/unpacked/BOOT-INF/lib/$lib" "$OUT/lib/"
+  CLASSPATH="$CLASSPATH:$OUT/lib/$lib"
+done
+rm -rf "$OUT/unpacked"
+
+"$JAVA" -XX:ArchiveClassesAtExit="$OUT/yoga-app.jsa" -cp "$CLASSPATH" "$MAIN_CLASS" \
+  --oc.app.startup.exitWhenReady=true $JWT_ARGS "$@"
+
+printf -- '-XX:SharedArchiveFile=%s\n-cp %s\n%s\n' "$OUT/yoga-app.jsa" "$CLASSPATH" "$MAIN_CLASS" > "$OUT/run.args"
+echo "AppCDS archive written to $OUT, start with: $JAVA @$OUT/run.args"
@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+#
+# Takes a warmed-up checkpoint of the application on a CRaC-enabled JDK (e.g. Azul Zulu with CRaC).
+#
+#   scripts/crac-checkpoint.sh [jar] [checkpoint dir] [application arguments...]
+#   java -XX:CRaCRestoreFrom=target/crac
+#
+# The application starts with the crac profile, warms itself up, closes its sockets and connection pools
+# and is checkpointed to the directory, then the process exits. Restoring reopens them. The database and
+# configuration must be reachable with the same settings from the restored process. The checkpoint holds
+# the JWT signing keys in clear, protect it like the key store. JWT_ARGS signs with a generated key unless set
+# to the key store of the deployment, e.g. JWT_ARGS="--oc.app.jwtKeyStore=file:jwt.p12 ..." (see README).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${1:-target/yoga-app-0.0.1-SNAPSHOT.jar}
+DIR=${2:-target/crac}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-}
+JWT_ARGS=${JWT_ARGS:---oc.app.jwtGenerateKeys=true}
+shift $(( $# > 2 ? 2 : $# ))
+
+rm -rf "$DIR"
+mkdir -p "$DIR"
+
+# Exit code 137: the JVM kills itself once the checkpoint has been written.
+"$JAVA" -XX:CRaCCheckpointTo="$DIR" $JAVA_OPTS -jar "$JAR" \
+  --spring.profiles.active=crac --oc.app.crac.checkpointAfterWarmUp=true $JWT_ARGS "$@" || [ $? -eq 137 ]
+
+echo "Checkpoint written to $DIR, restore with: $JAVA -XX:CRaCRestoreFrom=$DIR"
@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+#
+# Payload size and response time of GET /api/session encoded as JSON, CBOR and Smile, against a running
+# application. The session list is served from the cache after the first request, so the time measured is
+# mostly serialization and transfer.
+#
+#   scripts/encoding-benchmark.sh 200 2000
+#
+# seeds up to 2000 sessions (taught by TEACHER_ID, one a day from 2030-01-01 so that none overlaps another)
+# then times 200 requests per encoding. The EMAIL/PASSWORD account must exist.
+set -euo pipefail
+
+REQUESTS=${1:-100}
+SESSIONS=${2:-1000}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+EMAIL=${EMAIL:-yoga@studio.com}
+PASSWORD=${PASSWORD:-test!1234}
+TEACHER_ID=${TEACHER_ID:-1}
+
+TOKEN=$(curl -sf -H 'Content-Type: application/json' -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" \
+  "$BASE_URL/api/auth/login" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+
+existing=$(curl -sf -H "Authorization: Bearer $TOKEN" "$BASE_URL/api/session?view=summary" | tr -cd '{' | wc -c)
+description=$(printf 'Slow flow with long holds and breathing work. %.0s' $(seq 40))
+for i in $(seq $((existing + 1)) "$SESSIONS"); do
+  curl -sf -o /dev/null -H "Authorization: Bearer $TOKEN" -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Session $i\",\"date\":\"$(date -d "2030-01-01 +$i days" +%Y-%m-%d)T10:00:00\",\"teacher_id\":$TEACHER_ID,\"description\":\"$description\"}" \
+    "$BASE_URL/api/session"
+done
+
+# bench <label> <accept> [query]
+bench() {
+  local label=$1 accept=$2 query=${3:-} body total
+  body=$(mktemp)
+  curl -sf -o "$body" -H "Authorization: Bearer $TOKEN" -H "Accept: $accept" "$BASE_URL/api/session$query"
+  total=$(for _ in $(seq "$REQUESTS"); do
+    curl -sf -o /dev/null -w '%{time_total}\n' -H "Authorization: Bearer $TOKEN" -H "Accept: $accept" \
+      "$BASE_URL/api/session$query"
+  done | awk '{ s += $1 } END { printf "%.2f", s * 1000 / NR }')
+  printf '%-14s %10s %10s %10s\n' "$label" "$(wc -c <"$body")" "$(gzip -c "$body" | wc -c)" "$total"
+  rm -f "$body"
+}
+
+echo "GET /api/session, $SESSIONS sessions, mean of $REQUESTS requests"
+printf '%-14s %10s %10s %10s\n' "" "bytes" "gzipped" "mean ms"
+bench json application/json
+bench cbor application/cbor
+bench smile application/x-jackson-smile
+bench json-summary application/json '?view=summary'
+bench cbor-summary application/cbor '?view=summary'
@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+#
+# Time from process start to the first successful POST /api/auth/login, for the default startup, the lazy
+# profile, the AppCDS archive built by scripts/appcds.sh, and both combined.
+#
+#   mvn -Pcds package && scripts/login-benchmark.sh 10
+#
+# The database configured for the application must hold the EMAIL/PASSWORD account. JWT_ARGS signs with a
+# generated key unless set to a key store, e.g. JWT_ARGS="--oc.app.jwtKeyStore=file:jwt.p12 ..." (see README).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+JAR=${JAR:-target/yoga-app-0.0.1-SNAPSHOT.jar}
+CDS_ARGS=${CDS_ARGS:-target/cds/run.args}
+JAVA=${JAVA:-java}
+JWT_ARGS=${JWT_ARGS:---oc.app.jwtGenerateKeys=true}
+EMAIL=${EMAIL:-yoga@studio.com}
+PASSWORD=${PASSWORD:-test!1234}
+TIMEOUT_S=${TIMEOUT_S:-120}
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# run_once <command...>: prints the milliseconds until the first login succeeded
+run_once() {
+  local log pid start code
+  log=$(mktemp)
+  start=$(now_ms)
+  "$@" --server.port="$PORT" $JWT_ARGS >"$log" 2>&1 &
+  pid=$!
+
+  code=000
+  until [ "$code" = "200" ]; do
+    if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+      kill "$pid" 2>/dev/null || true
+      echo "no successful login (last status $code), see $log" >&2
+      return 1
+    fi
+    code=$(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' \
+      -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" "http://localhost:$PORT/api/auth/login" || true)
+    [ "$code" = "200" ] || sleep 0.01
+  done
+  echo $(( $(now_ms) - start ))
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+}
+
+# bench <label> <command...>
+bench() {
+  local label=$1; shift
+  local times
+  times=$(for _ in $(seq "$RUNS"); do run_once "$@"; done | sort -n)
+  printf '%-10s %8s %8s %8s\n' "$label" "$(echo "$times" | head -1)" \
+    "$(echo "$times" | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }')" \
+    "$(echo "$times" | tail -1)"
+}
+
+echo "Cold start to first login, $RUNS runs"
+printf '%-10s %8s %8s %8s\n' "" "min ms" "median" "max ms"
+bench default "$JAVA" -jar "$JAR"
+bench lazy "$JAVA" -jar "$JAR" --spring.profiles.include=lazy
+if [ -f "$CDS_ARGS" ]; then
+  bench cds "$JAVA" @"$CDS_ARGS"
+  bench cds+lazy "$JAVA" @"$CDS_ARGS" --spring.profiles.include=lazy
+else
+  echo "skipping AppCDS, $CDS_ARGS not found (mvn -Pcds package)" >&2
+fi
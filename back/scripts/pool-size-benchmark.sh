@@ -0,0 +1,110 @@
+#!/usr/bin/env bash
+#
+# Throughput and latency of a mixed login/list/participate workload for several connection pool sizes. For
+# each size the jar is started with a fixed pool of that many connections, then CLIENTS concurrent clients
+# loop for DURATION_S seconds over: POST /api/auth/login, GET /api/session, then joining and leaving
+# SESSION_ID through POST and DELETE /api/session/{id}/participate/{userId}.
+#
+#   mvn -DskipTests package && scripts/pool-size-benchmark.sh "5 10 20 40" 50
+#
+# Each client registers its own bench-<n>@studio.com account on the first run. The rate limits and bulkheads
+# are raised so that the pool is the only bound; hikaricp.connections.pending on /actuator/metrics shows how
+# long requests queue for a connection at a given size. JWT_ARGS signs with a generated key unless set to a
+# key store, e.g. JWT_ARGS="--oc.app.jwtKeyStore=file:jwt.p12 ..." (see README).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+POOL_SIZES=${1:-"5 10 20 40"}
+CLIENTS=${2:-50}
+DURATION_S=${DURATION_S:-60}
+PORT=${PORT:-8080}
+JAR=${JAR:-target/yoga-app-0.0.1-SNAPSHOT.jar}
+JAVA=${JAVA:-java}
+JWT_ARGS=${JWT_ARGS:---oc.app.jwtGenerateKeys=true}
+SESSION_ID=${SESSION_ID:-1}
+PASSWORD=${PASSWORD:-bench!1234}
+TIMEOUT_S=${TIMEOUT_S:-120}
+BASE_URL="http://localhost:$PORT"
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# timed <label> <curl args...>: appends "<label> <status> <ms>" to $OUT, prints the response body
+timed() {
+  local label=$1 response; shift
+  response=$(curl -s -w '\n%{http_code} %{time_total}' "$@" || echo $'\n000 0')
+  echo "$label $(echo "$response" | tail -1 | awk '{ printf "%s %.1f", $1, $2 * 1000 }')" >>"$OUT"
+  echo "$response" | sed '$d'
+}
+
+# client <n>: runs the workload until $END_MS
+client() {
+  local email="bench-$1@studio.com" login token id
+  curl -s -o /dev/null -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$email\",\"firstName\":\"Bench\",\"lastName\":\"Client\",\"password\":\"$PASSWORD\"}" \
+    "$BASE_URL/api/auth/register" || true
+
+  while [ "$(now_ms)" -lt "$END_MS" ]; do
+    login=$(timed login -H 'Content-Type: application/json' \
+      -d "{\"email\":\"$email\",\"password\":\"$PASSWORD\"}" "$BASE_URL/api/auth/login")
+    token=$(echo "$login" | sed -nE 's/.*"token":"([^"]+)".*/\1/p')
+    id=$(echo "$login" | sed -nE 's/.*"id":([0-9]+).*/\1/p')
+    [ -n "$token" ] || continue
+
+    timed list -o /dev/null -H "Authorization: Bearer $token" "$BASE_URL/api/session" >/dev/null
+    timed participate -X POST -H "Authorization: Bearer $token" \
+      "$BASE_URL/api/session/$SESSION_ID/participate/$id" >/dev/null
+    timed leave -X DELETE -H "Authorization: Bearer $token" \
+      "$BASE_URL/api/session/$SESSION_ID/participate/$id" >/dev/null
+  done
+}
+
+# bench <pool size>
+bench() {
+  local size=$1 log pid start code
+  log=$(mktemp)
+  OUT=$(mktemp)
+  "$JAVA" -jar "$JAR" --server.port="$PORT" $JWT_ARGS \
+    --spring.datasource.hikari.maximum-pool-size="$size" --spring.datasource.hikari.minimum-idle="$size" \
+    --oc.app.rateLimit.ipCapacity=1000000000 --oc.app.rateLimit.emailCapacity=1000000000 \
+    --oc.app.bulkhead.auth.maxConcurrent=100000 --oc.app.bulkhead.sessionReads.maxConcurrent=100000 \
+    --oc.app.bulkhead.bookingWrites.maxConcurrent=100000 >"$log" 2>&1 &
+  pid=$!
+
+  start=$(now_ms)
+  code=000
+  until [ "$code" = "200" ]; do
+    if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+      kill "$pid" 2>/dev/null || true
+      echo "pool $size: application not ready, see $log" >&2
+      return 1
+    fi
+    code=$(curl -s -o /dev/null -w '%{http_code}' "$BASE_URL/actuator/health/readiness" || true)
+    [ "$code" = "200" ] || sleep 0.5
+  done
+
+  END_MS=$(( $(now_ms) + DURATION_S * 1000 ))
+  for n in $(seq "$CLIENTS"); do
+    client "$n" &
+  done
+  wait $(jobs -p | grep -v "^$pid\$")
+
+  sort -k3 -n "$OUT" | awk -v size="$size" -v duration="$DURATION_S" '
+    { t[NR] = $3; if ($2 !~ /^2/) errors++ }
+    END {
+      printf "%-6s %10d %10.1f %8.1f %8.1f %8.1f %8d\n", size, NR, NR / duration,
+        t[int(NR * 0.5) + 1], t[int(NR * 0.99) + 1], t[NR], errors
+    }'
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log" "$OUT"
+}
+
+echo "Mixed login/list/participate workload, $CLIENTS clients, ${DURATION_S}s per pool size"
+printf '%-6s %10s %10s %8s %8s %8s %8s\n' "pool" "requests" "req/s" "p50 ms" "p99 ms" "max ms" "errors"
+for size in $POOL_SIZES; do
+  bench "$size"
+done
@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+#
+# Latency of GET /api/session/search against a running application backed by MySQL, with SESSIONS grown to
+# SESSIONS rows. The missing rows are inserted directly in MySQL, BATCH at a time, with names and
+# descriptions drawn from a small yoga vocabulary so that the FULLTEXT index has realistic term frequencies.
+#
+#   scripts/search-benchmark.sh 200 1000000
+#
+# times 200 searches per query. MYSQL is the client command for the application database; the EMAIL/PASSWORD
+# account must exist and TEACHER_ID must name a teacher.
+set -euo pipefail
+
+REQUESTS=${1:-100}
+SESSIONS=${2:-1000000}
+BATCH=${BATCH:-100000}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+MYSQL=${MYSQL:-mysql -uchatop -pPassword123 knesh}
+EMAIL=${EMAIL:-yoga@studio.com}
+PASSWORD=${PASSWORD:-test!1234}
+TEACHER_ID=${TEACHER_ID:-1}
+QUERIES=${QUERIES:-"vinyasa|breathing flow|yin restorative|power core strength|zzzunknown"}
+
+word() {
+  echo "ELT(1 + FLOOR(RAND() * 12), 'vinyasa', 'hatha', 'yin', 'flow', 'breathing', 'restorative', 'power',
+    'core', 'strength', 'balance', 'meditation', 'stretch')"
+}
+
+existing=$($MYSQL -N -e 'SELECT COUNT(*) FROM SESSIONS')
+while [ "$existing" -lt "$SESSIONS" ]; do
+  rows=$(( SESSIONS - existing < BATCH ? SESSIONS - existing : BATCH ))
+  $MYSQL -e "
+    SET SESSION cte_max_recursion_depth = $rows;
+    INSERT INTO SESSIONS (name, description, date, teacher_id)
+    WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < $rows)
+    SELECT CONCAT(label, ' ', n) AS name, description, date, $TEACHER_ID
+    FROM (
+      SELECT n,
+        CONCAT(UPPER($(word)), ' class') AS label,
+        CONCAT_WS(' ', $(word), $(word), $(word), 'session with', $(word), 'and', $(word), 'work,',
+          REPEAT('slow movement and long holds ', 1 + FLOOR(RAND() * 60))) AS description,
+        TIMESTAMPADD(HOUR, FLOOR(RAND() * 24 * 365), '2030-01-01') AS date
+      FROM seq
+    ) generated"
+  existing=$(( existing + rows ))
+  echo "SESSIONS: $existing rows" >&2
+done
+
+TOKEN=$(curl -sf -H 'Content-Type: application/json' -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" \
+  "$BASE_URL/api/auth/login" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+
+# bench <query>
+bench() {
+  local query=$1 encoded results
+  encoded=$(printf '%s' "$query" | sed 's/ /%20/g')
+  results=$(curl -sf -H "Authorization: Bearer $TOKEN" "$BASE_URL/api/session/search?q=$encoded" | tr -cd '{' | wc -c)
+  for _ in $(seq "$REQUESTS"); do
+    curl -sf -o /dev/null -w '%{time_total}\n' -H "Authorization: Bearer $TOKEN" \
+      "$BASE_URL/api/session/search?q=$encoded"
+  done | sort -n | awk -v query="$query" -v results="$results" '
+    { t[NR] = $1 * 1000; s += t[NR] }
+    END { printf "%-22s %8d %8.1f %8.1f %8.1f\n", query, results, s / NR, t[int(NR * 0.5) + 1], t[int(NR * 0.99) + 1] }'
+}
+
+echo "GET /api/session/search over $SESSIONS sessions, $REQUESTS requests per query"
+printf '%-22s %8s %8s %8s %8s\n' "q" "results" "mean ms" "p50 ms" "p99 ms"
+IFS='|' read -ra queries <<<"$QUERIES"
+for query in "${queries[@]}"; do
+  bench "$query"
+done
@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+#
+# Compares the startup time and memory of the JVM jar and the native executable.
+#
+#   mvn -DskipTests package && cp target/yoga-app-0.0.1-SNAPSHOT.jar target/yoga-app-jvm.jar
+#   mvn -Pnative -DskipTests package
+#   scripts/startup-benchmark.sh 10
+#
+# Both are started RUNS times against the database configured by the usual spring.datasource.* environment
+# variables or by APP_ARGS. Each run records the time until the first HTTP response, the startup time Spring
+# reports, and the resident set size once a login request has been served. Linux only (reads /proc).
+# JWT_ARGS signs with a generated key unless set to a key store, e.g.
+# JWT_ARGS="--oc.app.jwtKeyStore=file:jwt.p12 ..." (see README).
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+JAR=${JAR:-target/yoga-app-jvm.jar}
+NATIVE=${NATIVE:-target/yoga-app}
+JAVA_OPTS=${JAVA_OPTS:-}
+APP_ARGS=${APP_ARGS:-}
+JWT_ARGS=${JWT_ARGS:---oc.app.jwtGenerateKeys=true}
+TIMEOUT_S=${TIMEOUT_S:-120}
+
+cd "$(dirname "$0")/.."
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "-"; else if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# run_once <label> <command...>: prints "ready_ms reported_s rss_kb peak_rss_kb"
+run_once() {
+  local log pid start ready code
+  log=$(mktemp)
+  start=$(now_ms)
+  "$@" --server.port="$PORT" $JWT_ARGS $APP_ARGS >"$log" 2>&1 &
+  pid=$!
+
+  code=000
+  while [ "$code" = "000" ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "process exited during startup, see $log" >&2
+      return 1
+    fi
+    if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+      kill "$pid"; echo "no response after ${TIMEOUT_S}s, see $log" >&2
+      return 1
+    fi
+    sleep 0.01
+    code=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health" || true)
+  done
+  ready=$(( $(now_ms) - start ))
+
+  curl -s -o /dev/null -H 'Content-Type: application/json' \
+    -d '{"email":"benchmark@yoga.app","password":"benchmark"}' "http://localhost:$PORT/api/auth/login" || true
+
+  local reported rss hwm
+  reported=$(grep -o 'Started [A-Za-z]* in [0-9.]* seconds' "$log" | awk '{ print $4 }')
+  rss=$(awk '/^VmRSS:/ { print $2 }' "/proc/$pid/status")
+  hwm=$(awk '/^VmHWM:/ { print $2 }' "/proc/$pid/status")
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  echo "$ready ${reported:--} $rss $hwm"
+}
+
+# bench <label> <command...>
+bench() {
+  local label=$1; shift
+  local results
+  results=$(mktemp)
+  for _ in $(seq "$RUNS"); do
+    run_once "$@" >>"$results"
+  done
+  printf '%-8s %12s %14s %10s %14s\n' "$label" \
+    "$(awk '{ print $1 }' "$results" | median)" \
+    "$(awk '$2 != "-" { print $2 * 1000 }' "$results" | median)" \
+    "$(awk '{ print int($3 / 1024) }' "$results" | median)" \
+    "$(awk '{ print int($4 / 1024) }' "$results" | median)"
+  rm -f "$results"
+}
+
+echo "Median of $RUNS runs"
+printf '%-8s %12s %14s %10s %14s\n' "" "ready (ms)" "reported (ms)" "RSS (MB)" "peak RSS (MB)"
+if [ -f "$JAR" ]; then
+  bench jvm java $JAVA_OPTS -jar "$JAR"
+else
+  echo "skipping jvm, $JAR not found" >&2
+fi
+if [ -x "$NATIVE" ]; then
+  bench native "$NATIVE"
+else
+  echo "skipping native, $NATIVE not found" >&2
+fi
@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+#
+# Measures how long a new node takes to serve requests at steady-state latency, starting the jar cold and
+# restoring it from a checkpoint taken by scripts/crac-checkpoint.sh.
+#
+#   scripts/warm-start-benchmark.sh [requests]
+#
+# Once the node answers, authenticated GET /api/session requests are sent back to back and grouped in
+# windows of WINDOW requests. The node is at steady state from the first window whose p99 is within
+# TOLERANCE of the p99 of the last windows. Linux, CRaC-enabled JDK, database reachable. JWT_ARGS signs the
+# cold start with a generated key unless set to a key store, e.g.
+# JWT_ARGS="--oc.app.jwtKeyStore=file:jwt.p12 ..." (see README).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+REQUESTS=${1:-5000}
+WINDOW=${WINDOW:-250}
+TOLERANCE=${TOLERANCE:-1.10}
+PORT=${PORT:-8080}
+JAR=${JAR:-target/yoga-app-0.0.1-SNAPSHOT.jar}
+CHECKPOINT=${CHECKPOINT:-target/crac}
+JAVA=${JAVA:-java}
+JWT_ARGS=${JWT_ARGS:---oc.app.jwtGenerateKeys=true}
+EMAIL=${EMAIL:-yoga@studio.com}
+PASSWORD=${PASSWORD:-test!1234}
+BASE="http://localhost:$PORT"
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# measure <label> <command...>
+measure() {
+  local label=$1; shift
+  local log latencies start first token pid
+  log=$(mktemp)
+  latencies=$(mktemp)
+
+  start=$(now_ms)
+  "$@" >"$log" 2>&1 &
+  pid=$!
+  until curl -s -o /dev/null "$BASE/api/auth/login"; do
+    kill -0 "$pid" 2>/dev/null || { echo "$label exited, see $log" >&2; return 1; }
+    sleep 0.01
+  done
+  first=$(( $(now_ms) - start ))
+
+  token=$(curl -s -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" "$BASE/api/auth/login" \
+    | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+  [ -n "$token" ] || { echo "login as $EMAIL failed" >&2; kill "$pid"; return 1; }
+
+  for _ in $(seq "$REQUESTS"); do
+    curl -s -o /dev/null -w '%{time_total}\n' -H "Authorization: Bearer $token" "$BASE/api/session" >>"$latencies"
+  done
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+
+  awk -v window="$WINDOW" -v tolerance="$TOLERANCE" -v label="$label" -v first="$first" '
+    function p99(from, to,   n, i, j, t, s) {
+      n = 0
+      for (i = from; i < to; i++) s[++n] = v[i]
+      for (i = 2; i <= n; i++) { t = s[i]; for (j = i - 1; j > 0 && s[j] > t; j--) s[j + 1] = s[j]; s[j + 1] = t }
+      return s[int(n * 0.99 + 0.5) > 0 ? int(n * 0.99 + 0.5) : 1]
+    }
+    { v[NR - 1] = $1 * 1000; elapsed[NR - 1] = (NR > 1 ? elapsed[NR - 2] : 0) + $1 * 1000 }
+    END {
+      windows = int(NR / window)
+      tail = windows >= 4 ? 3 : 1
+      steady = 0
+      for (w = windows - tail; w < windows; w++) steady += p99(w * window, (w + 1) * window)
+      steady /= tail
+      for (w = 0; w < windows; w++) {
+        if (p99(w * window, (w + 1) * window) <= steady * tolerance) break
+      }
+      printf "%-8s %16d %14.1f %14.2f %22.0f\n", label, first, p99(0, window), steady, first + (w > 0 ? elapsed[w * window - 1] : 0)
+    }' "$latencies"
+  rm -f "$log" "$latencies"
+}
+
+echo "$REQUESTS requests, windows of $WINDOW"
+printf '%-8s %16s %14s %14s %22s\n' "" "first resp (ms)" "first p99 (ms)" "steady p99 (ms)" "steady p99 after (ms)"
+measure cold "$JAVA" -jar "$JAR" --server.port="$PORT" $JWT_ARGS
+if [ -d "$CHECKPOINT" ]; then
+  measure restore "$JAVA" -XX:CRaCRestoreFrom="$CHECKPOINT"
+else
+  echo "skipping restore, no checkpoint in $CHECKPOINT (run scripts/crac-checkpoint.sh)" >&2
+fi
@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The cache interceptor runs outside the transaction interceptor, so a cache hit
+ * never opens a transaction nor borrows a connection.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Evicts entries from the local caches and broadcasts the eviction to the other nodes.
+ * <p>
+ * When called inside a transaction the eviction is deferred until the commit, so no node can
+ * reload the old state between the eviction and the write becoming visible.
+ */
+@Component
+@Log4j2
+public class CacheCoordinator {
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus bus;
+
+    private volatile String nodeId;
+
+    public CacheCoordinator(CacheManager cacheManager,
+                            CacheInvalidationBus bus,
+                            @Value("${oc.app.cache.nodeId}") String nodeId) {
+        this.cacheManager = cacheManager;
+        this.bus = bus;
+        this.nodeId = nodeId;
+        this.bus.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * Gives this node a new random id, for a process restored from a checkpoint shared with other nodes.
+     */
+    public void renewNodeId() {
+        this.nodeId = UUID.randomUUID().toString();
+    }
+
+    public void evict(String cacheName, Serializable key) {
+        afterCommit(new CacheInvalidation(this.nodeId, cacheName, key));
+    }
+
+    public void clear(String cacheName) {
+        afterCommit(new CacheInvalidation(this.nodeId, cacheName, null));
+    }
+
+    private void afterCommit(CacheInvalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            broadcast(invalidation);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                broadcast(invalidation);
+            }
+        });
+    }
+
+    private void broadcast(CacheInvalidation invalidation) {
+        apply(invalidation);
+        try {
+            this.bus.publish(invalidation);
+        } catch (RuntimeException e) {
+            log.error("Cannot broadcast {}", invalidation, e);
+        }
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (CacheNames.isChannel(invalidation.getCacheName())) {
+            return;
+        }
+        if (!this.nodeId.equals(invalidation.getOriginNodeId())) {
+            apply(invalidation);
+        }
+    }
+
+    private void apply(CacheInvalidation invalidation) {
+        Cache cache = this.cacheManager.getCache(invalidation.getCacheName());
+        if (cache == null) {
+            return;
+        }
+
+        if (invalidation.getKey() == null) {
+            cache.clear();
+        } else {
+            cache.evict(invalidation.getKey());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.cache;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * Message broadcast on the {@link CacheInvalidationBus}. A {@code null} key clears the whole cache.
+ */
+@Value
+public class CacheInvalidation implements Serializable {
+    String originNodeId;
+
+    String cacheName;
+
+    Serializable key;
+}
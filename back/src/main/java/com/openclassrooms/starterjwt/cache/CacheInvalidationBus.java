@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport carrying cache evictions between the nodes of the cluster.
+ * <p>
+ * {@link LocalCacheInvalidationBus} is used by default; declare a {@code @Primary} implementation
+ * backed by a shared broker (Redis pub/sub, JMS topic, ...) when running several nodes.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
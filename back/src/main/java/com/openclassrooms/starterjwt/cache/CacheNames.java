@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.cache;
+
+public final class CacheNames {
+    public static final String TEACHERS = "teachers";
+    public static final String TEACHER = "teacher";
+    public static final String USER = "user";
+    public static final String SESSIONS = "sessions";
+    public static final String SESSION = "session";
+    public static final String SESSION_SUMMARIES = "sessionSummaries";
+    public static final String USER_DETAILS = "userDetails";
+
+    /**
+     * Not a cache: the bus channel carrying access token revocations between the nodes.
+     */
+    public static final String TOKEN_REVOCATIONS = "tokenRevocations";
+
+    /**
+     * Not a cache: the bus channel carrying participation changes between the nodes.
+     */
+    public static final String PARTICIPATIONS = "participations";
+
+    /**
+     * Not a cache: the bus channel carrying the ids of the sessions created, moved or deleted.
+     */
+    public static final String CALENDAR = "calendar";
+
+    private CacheNames() {
+    }
+
+    /**
+     * Whether {@code name} is one of the bus channels rather than a cache.
+     */
+    public static boolean isChannel(String name) {
+        return TOKEN_REVOCATIONS.equals(name) || PARTICIPATIONS.equals(name) || CALENDAR.equals(name);
+    }
+}
@@ -0,0 +1,153 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.datasource.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Keeps a copy of every value put in the cache it decorates, which outlives its expiry and its evictions,
+ * and answers the misses with that copy while the database circuit breaker refuses calls.
+ * <p>
+ * An eviction usually only means the entry changed; the copy stays until a newer value is put or
+ * {@link #invalidate()} drops everything. With {@code forgetEvicted}, for entries an eviction may revoke, such
+ * as the details of a deleted user, evicting or clearing drops the copy as well.
+ */
+public class StaleCache implements Cache {
+    private final Cache delegate;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> lastKnown;
+
+    private final Counter staleHits;
+
+    private final boolean forgetEvicted;
+
+    public StaleCache(Cache delegate, CircuitBreaker circuitBreaker, long maximumSize, Counter staleHits) {
+        this(delegate, circuitBreaker, maximumSize, staleHits, false);
+    }
+
+    public StaleCache(Cache delegate, CircuitBreaker circuitBreaker, long maximumSize, Counter staleHits,
+                      boolean forgetEvicted) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.lastKnown = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.staleHits = staleHits;
+        this.forgetEvicted = forgetEvicted;
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = this.delegate.get(key);
+        if (value != null) {
+            return value;
+        }
+        Object stale = this.stale(key);
+        return stale == null ? null : new SimpleValueWrapper(stale);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        T value = this.delegate.get(key, type);
+        if (value != null) {
+            return value;
+        }
+        Object stale = this.stale(key);
+        return type == null || type.isInstance(stale) ? (T) stale : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        try {
+            return this.delegate.get(key, () -> {
+                T value = valueLoader.call();
+                this.remember(key, value);
+                return value;
+            });
+        } catch (ValueRetrievalException e) {
+            Object stale = this.stale(key);
+            if (stale == null) {
+                throw e;
+            }
+            return (T) stale;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        this.delegate.put(key, value);
+        this.remember(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = this.delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            this.remember(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.delegate.evict(key);
+        if (this.forgetEvicted) {
+            this.lastKnown.invalidate(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        if (this.forgetEvicted) {
+            this.lastKnown.invalidate(key);
+        }
+        return this.delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        this.delegate.clear();
+        if (this.forgetEvicted) {
+            this.lastKnown.invalidateAll();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        this.lastKnown.invalidateAll();
+        return this.delegate.invalidate();
+    }
+
+    private void remember(Object key, Object value) {
+        if (value != null) {
+            this.lastKnown.put(key, value);
+        }
+    }
+
+    private Object stale(Object key) {
+        if (this.circuitBreaker.isCallPermitted()) {
+            return null;
+        }
+        Object stale = this.lastKnown.getIfPresent(key);
+        if (stale != null) {
+            this.staleHits.increment();
+        }
+        return stale;
+    }
+}
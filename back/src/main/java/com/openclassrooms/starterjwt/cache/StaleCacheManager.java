@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.openclassrooms.starterjwt.datasource.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decorates the named caches of a cache manager with a {@link StaleCache}, counting the stale answers as
+ * {@code yoga.cache.stale} per cache. The other caches are returned as they are. The caches named in
+ * {@code forgetEvictedNames} drop their last known copy of an evicted entry.
+ */
+public class StaleCacheManager implements CacheManager {
+    static final String METRIC = "yoga.cache.stale";
+
+    private final CacheManager delegate;
+
+    private final Set<String> staleCacheNames;
+
+    private final Set<String> forgetEvictedNames;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final long maximumSize;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, StaleCache> caches = new ConcurrentHashMap<>();
+
+    public StaleCacheManager(CacheManager delegate, Set<String> staleCacheNames, Set<String> forgetEvictedNames,
+                             CircuitBreaker circuitBreaker, long maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.staleCacheNames = staleCacheNames;
+        this.forgetEvictedNames = forgetEvictedNames;
+        this.circuitBreaker = circuitBreaker;
+        this.maximumSize = maximumSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = this.delegate.getCache(name);
+        if (cache == null || !this.staleCacheNames.contains(name)) {
+            return cache;
+        }
+        return this.caches.computeIfAbsent(name, key -> new StaleCache(cache, this.circuitBreaker, this.maximumSize,
+                Counter.builder(METRIC).tag("cache", name).register(this.meterRegistry),
+                this.forgetEvictedNames.contains(name)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.openclassrooms.starterjwt.datasource.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Wraps the cache manager in a {@link StaleCacheManager}, so teachers, sessions and the user details the
+ * requests are authenticated with are still served from their last known state while the database is out.
+ */
+@Component
+public class StaleCachePostProcessor implements BeanPostProcessor {
+    static final Set<String> STALE_CACHES = new HashSet<>(Arrays.asList(
+            CacheNames.TEACHERS, CacheNames.TEACHER,
+            CacheNames.SESSIONS, CacheNames.SESSION, CacheNames.SESSION_SUMMARIES,
+            CacheNames.USER_DETAILS));
+
+    /**
+     * Evicted when a user is deleted: the stale copy must not keep authenticating the deleted account.
+     */
+    static final Set<String> FORGET_EVICTED_CACHES = Collections.singleton(CacheNames.USER_DETAILS);
+
+    private final ObjectProvider<CircuitBreaker> circuitBreaker;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final long maximumSize;
+
+    public StaleCachePostProcessor(ObjectProvider<CircuitBreaker> circuitBreaker,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${oc.app.cache.staleMaximumSize}") long maximumSize) {
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof CacheManager && "cacheManager".equals(beanName)) {
+            return new StaleCacheManager((CacheManager) bean, STALE_CACHES, FORGET_EVICTED_CACHES,
+                    this.circuitBreaker.getObject(), this.maximumSize, this.meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
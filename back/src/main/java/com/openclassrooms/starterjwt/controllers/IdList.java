@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses the {@code ids} parameter of the multi-get endpoints, e.g. {@code ?ids=1,2,3}.
+ */
+final class IdList {
+    static final int MAX_IDS = 100;
+
+    private IdList() {
+    }
+
+    /**
+     * The distinct ids, in request order. The cap applies to the ids as sent, duplicates included, so that a
+     * long list is rejected before any of it is parsed.
+     *
+     * @throws IllegalArgumentException if an id is not a number, or if there are none or more than {@link #MAX_IDS}
+     */
+    static List<Long> parse(List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_IDS + " ids expected, got " + ids.size());
+        }
+        Set<Long> parsed = new LinkedHashSet<>();
+        for (String id : ids) {
+            parsed.add(Long.valueOf(id.trim()));
+        }
+        return new ArrayList<>(parsed);
+    }
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtSigningKeys;
+
+/**
+ * Publishes the public signing keys so gateways and other services can verify access tokens themselves.
+ */
+@RestController
+public class JwksController {
+    private static final long MAX_AGE_MINUTES = 5;
+
+    private final JwtSigningKeys signingKeys;
+
+    JwksController(JwtSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE_MINUTES, TimeUnit.MINUTES).cachePublic())
+                .body(this.signingKeys.publicJwks());
+    }
+}
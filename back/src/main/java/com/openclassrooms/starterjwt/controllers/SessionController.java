@@ -2,34 +2,65 @@ package com.openclassrooms.starterjwt.controllers;
 
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.services.ParticipationStatus;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.SessionView;
+import com.openclassrooms.starterjwt.stream.SeatAvailabilityBroadcaster;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_CALENDAR_DAYS = 92;
+
+    /**
+     * ISO date-times without milliseconds, which {@link DateTimeFormat.ISO#DATE_TIME} requires for a {@link Date}.
+     */
+    private static final String ISO_SECONDS = "yyyy-MM-dd'T'HH:mm:ssXXX";
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final SeatAvailabilityBroadcaster seatAvailabilityBroadcaster;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             SeatAvailabilityBroadcaster seatAvailabilityBroadcaster) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.seatAvailabilityBroadcaster = seatAvailabilityBroadcaster;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id,
+                                      @RequestParam(value = "view", defaultValue = "full") String view) {
         try {
+            if (parseView(view) == SessionView.SUMMARY) {
+                SessionSummaryDto summary = this.sessionService.getSummaryById(Long.valueOf(id));
+
+                return summary == null ? ResponseEntity.notFound().build() : ResponseEntity.ok().body(summary);
+            }
+
             Session session = this.sessionService.getById(Long.valueOf(id));
 
             if (session == null) {
@@ -37,18 +68,92 @@ public class SessionController {
             }
 
             return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable("id") String id) {
+        try {
+            Session session = this.sessionService.getById(Long.valueOf(id));
+
+            if (session == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            SseEmitter emitter = this.seatAvailabilityBroadcaster.subscribe(session);
+            if (emitter == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+
+            return ResponseEntity.ok().body(emitter);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAll() {
+        SseEmitter emitter = this.seatAvailabilityBroadcaster.subscribeAll();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        return ResponseEntity.ok().body(emitter);
+    }
+
+    /**
+     * All sessions; {@code view=summary} drops the description, participant ids and audit timestamps.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(@RequestParam(value = "view", defaultValue = "full") String view) {
+        SessionView sessionView;
+        try {
+            sessionView = parseView(view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (sessionView == SessionView.SUMMARY) {
+            return ResponseEntity.ok().body(this.sessionService.findAllSummaries());
+        }
+
         List<Session> sessions = this.sessionService.findAll();
 
         return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
     }
 
+    /**
+     * Summaries of the sessions starting in {@code [from, to)}, earliest first; {@code teacherId} narrows
+     * it to one teacher's agenda. The range spans {@value #MAX_CALENDAR_DAYS} days at most.
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<?> calendar(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME,
+                                              fallbackPatterns = ISO_SECONDS) Date from,
+                                      @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME,
+                                              fallbackPatterns = ISO_SECONDS) Date to,
+                                      @RequestParam(value = "teacherId", required = false) Long teacherId) {
+        if (!from.before(to) || to.getTime() - from.getTime() > TimeUnit.DAYS.toMillis(MAX_CALENDAR_DAYS)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().body(this.sessionService.findBetween(from, to, teacherId));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (!StringUtils.hasText(query) || query.length() > MAX_QUERY_LENGTH
+                || limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Session> sessions = this.sessionService.search(query, limit);
+
+        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    }
+
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
         log.info(sessionDto);
@@ -89,7 +194,11 @@ public class SessionController {
     @PostMapping("{id}/participate/{userId}")
     public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+            ParticipationStatus status = this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+
+            if (status == ParticipationStatus.WAITLISTED) {
+                return ResponseEntity.accepted().build();
+            }
 
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
@@ -97,6 +206,22 @@ public class SessionController {
         }
     }
 
+    /**
+     * 200 when the user attends the session, 404 otherwise.
+     */
+    @GetMapping("{id}/participate/{userId}")
+    public ResponseEntity<?> isParticipating(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            if (this.sessionService.isParticipating(Long.parseLong(id), Long.parseLong(userId))) {
+                return ResponseEntity.ok().build();
+            }
+
+            return ResponseEntity.notFound().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("{id}/participate/{userId}")
     public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
@@ -107,4 +232,8 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    private static SessionView parseView(String view) {
+        return SessionView.valueOf(view.toUpperCase(Locale.ROOT));
+    }
 }
@@ -36,6 +36,20 @@ public class TeacherController {
         }
     }
 
+    /**
+     * The teachers whose id is listed in {@code ids}, in request order; unknown ids are left out.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> findAllById(@RequestParam("ids") List<String> ids) {
+        try {
+            List<Teacher> teachers = this.teacherService.findAllById(IdList.parse(ids));
+
+            return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping()
     public ResponseEntity<?> findAll() {
         List<Teacher> teachers = this.teacherService.findAll();
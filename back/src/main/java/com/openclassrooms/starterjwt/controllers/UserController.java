@@ -1,28 +1,43 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
+import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.SessionPeriod;
+import com.openclassrooms.starterjwt.services.SessionService;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserMapper userMapper;
     private final UserService userService;
+    private final SessionMapper sessionMapper;
+    private final SessionService sessionService;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             SessionService sessionService,
+                             SessionMapper sessionMapper) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.sessionMapper = sessionMapper;
+        this.sessionService = sessionService;
     }
 
     @GetMapping("/{id}")
@@ -40,6 +55,52 @@ public class UserController {
         }
     }
 
+    /**
+     * The users whose id is listed in {@code ids}, in request order; unknown ids are left out.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> findAllById(@RequestParam("ids") List<String> ids) {
+        try {
+            List<User> users = this.userService.findAllById(IdList.parse(ids));
+
+            return ResponseEntity.ok().body(this.userMapper.toDto(users));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/sessions")
+    public ResponseEntity<?> findSessions(@PathVariable("id") String id,
+                                          @RequestParam(value = "when", defaultValue = "upcoming") String when,
+                                          @RequestParam(value = "page", defaultValue = "0") int page,
+                                          @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            SessionPeriod period = SessionPeriod.valueOf(when.toUpperCase(Locale.ROOT));
+
+            if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            Page<Session> sessions = this.sessionService.findByUser(Long.valueOf(id), period, page, size);
+
+            return ResponseEntity.ok().body(sessions.map(this.sessionMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Ids of every session the user attends, past and upcoming.
+     */
+    @GetMapping("/{id}/sessions/ids")
+    public ResponseEntity<?> findSessionIds(@PathVariable("id") String id) {
+        try {
+            return ResponseEntity.ok().body(this.sessionService.findSessionIdsByUser(Long.valueOf(id)));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
@@ -0,0 +1,41 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.openclassrooms.starterjwt.cache.CacheCoordinator;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Empties the caches before the checkpoint, since an image may be restored long after the data it
+ * cached has changed, and gives the restored node its own cache node id: every node restored from
+ * the same image would otherwise share one and ignore each other's invalidations.
+ */
+public class CacheCheckpointParticipant implements CheckpointParticipant {
+    private final CacheManager cacheManager;
+
+    private final CacheCoordinator cacheCoordinator;
+
+    public CacheCheckpointParticipant(CacheManager cacheManager, CacheCoordinator cacheCoordinator) {
+        this.cacheManager = cacheManager;
+        this.cacheCoordinator = cacheCoordinator;
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        for (String name : this.cacheManager.getCacheNames()) {
+            Cache cache = this.cacheManager.getCache(name);
+            if (cache != null) {
+                cache.invalidate();
+            }
+        }
+    }
+
+    @Override
+    public void afterRestore() {
+        this.cacheCoordinator.renewNodeId();
+    }
+
+    @Override
+    public String toString() {
+        return "caches";
+    }
+}
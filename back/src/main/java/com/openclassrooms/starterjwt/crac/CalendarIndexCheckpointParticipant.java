@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.openclassrooms.starterjwt.services.CalendarIndex;
+
+/**
+ * Empties the calendar index before the checkpoint, since an image may be restored long after the sessions
+ * have changed, and reloads it in the background after the restore. Calendar views query the database in
+ * between.
+ */
+public class CalendarIndexCheckpointParticipant implements CheckpointParticipant {
+    private final CalendarIndex calendarIndex;
+
+    public CalendarIndexCheckpointParticipant(CalendarIndex calendarIndex) {
+        this.calendarIndex = calendarIndex;
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        this.calendarIndex.suspend();
+    }
+
+    @Override
+    public void afterRestore() {
+        this.calendarIndex.resume();
+    }
+
+    @Override
+    public String toString() {
+        return "calendar index";
+    }
+}
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.crac;
+
+/**
+ * A resource that cannot be carried across a checkpoint as is: open sockets, pooled connections,
+ * data that would be stale by the time the image is restored.
+ * <p>
+ * Participants are called in {@link org.springframework.core.annotation.Order order} before the checkpoint
+ * and in reverse order after the restore.
+ */
+public interface CheckpointParticipant {
+
+    void beforeCheckpoint() throws Exception;
+
+    void afterRestore() throws Exception;
+}
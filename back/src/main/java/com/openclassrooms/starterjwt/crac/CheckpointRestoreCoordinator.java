@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.crac;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Warms the application up once it is ready, then registers the {@link CheckpointParticipant}s with the
+ * CRaC runtime. The checkpoint is either taken right away ({@code oc.app.crac.checkpointAfterWarmUp}) or
+ * later with {@code jcmd <pid> JDK.checkpoint}.
+ */
+@Log4j2
+public class CheckpointRestoreCoordinator {
+    private final List<CheckpointParticipant> participants;
+
+    private final WarmUp warmUp;
+
+    private final boolean checkpointAfterWarmUp;
+
+    /** Referenced here so the CRaC context cannot let it be collected. */
+    private Object resource;
+
+    public CheckpointRestoreCoordinator(List<CheckpointParticipant> participants,
+                                        WarmUp warmUp,
+                                        boolean checkpointAfterWarmUp) {
+        this.participants = participants;
+        this.warmUp = warmUp;
+        this.checkpointAfterWarmUp = checkpointAfterWarmUp;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        this.warmUp.run();
+
+        if (!Crac.isAvailable()) {
+            log.warn("This JDK does not support checkpoint/restore, running without checkpoint hooks");
+            return;
+        }
+        try {
+            this.resource = Crac.register(new CheckpointParticipant() {
+                @Override
+                public void beforeCheckpoint() throws Exception {
+                    CheckpointRestoreCoordinator.this.beforeCheckpoint();
+                }
+
+                @Override
+                public void afterRestore() throws Exception {
+                    CheckpointRestoreCoordinator.this.afterRestore();
+                }
+            });
+        } catch (ReflectiveOperationException e) {
+            log.error("Cannot register the checkpoint hooks", e);
+            return;
+        }
+
+        if (!this.checkpointAfterWarmUp) {
+            log.info("Ready for checkpoint");
+            return;
+        }
+        try {
+            Crac.checkpointRestore();
+        } catch (Exception e) {
+            log.error("Checkpoint failed, carrying on without it", e);
+        }
+    }
+
+    /**
+     * Runs the participants in order. If one fails, the ones already run are restored and the checkpoint
+     * is aborted, leaving the application as it was.
+     */
+    void beforeCheckpoint() throws Exception {
+        List<CheckpointParticipant> done = new ArrayList<>();
+        for (CheckpointParticipant participant : this.participants) {
+            try {
+                participant.beforeCheckpoint();
+                done.add(0, participant);
+            } catch (Exception e) {
+                log.error("Cannot prepare {} for the checkpoint", participant, e);
+                restore(done);
+                throw e;
+            }
+        }
+        log.info("Taking checkpoint");
+    }
+
+    void afterRestore() throws Exception {
+        List<CheckpointParticipant> reversed = new ArrayList<>(this.participants);
+        Collections.reverse(reversed);
+        Exception failure = restore(reversed);
+        if (failure != null) {
+            throw failure;
+        }
+        log.info("Restored from checkpoint");
+    }
+
+    /**
+     * Restores every participant even when one of them fails, and returns the first failure.
+     */
+    private Exception restore(List<CheckpointParticipant> participants) {
+        Exception failure = null;
+        for (CheckpointParticipant participant : participants) {
+            try {
+                participant.afterRestore();
+            } catch (Exception e) {
+                log.error("Cannot restore {}", participant, e);
+                failure = failure == null ? e : failure;
+            }
+        }
+        return failure;
+    }
+}
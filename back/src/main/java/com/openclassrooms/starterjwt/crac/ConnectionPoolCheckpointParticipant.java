@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.log4j.Log4j2;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Closes every pooled connection before the checkpoint and lets the pools refill after the restore.
+ * <p>
+ * The pools are the Hikari data source beans, the primary and replica pools when reads are routed, and the
+ * pools behind any other data source bean. Each pool is suspended first, so no new connection is opened while
+ * the borrowed ones are returned and evicted. Requires {@code spring.datasource.hikari.allow-pool-suspension=true}.
+ */
+@Log4j2
+public class ConnectionPoolCheckpointParticipant implements CheckpointParticipant {
+    private final Set<HikariDataSource> pools = new LinkedHashSet<>();
+
+    private final long drainTimeoutMs;
+
+    public ConnectionPoolCheckpointParticipant(List<DataSource> dataSources, long drainTimeoutMs) throws SQLException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof HikariDataSource) {
+                this.pools.add((HikariDataSource) dataSource);
+            } else if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                this.pools.add(dataSource.unwrap(HikariDataSource.class));
+            }
+        }
+        for (HikariDataSource pool : this.pools) {
+            if (!pool.isAllowPoolSuspension()) {
+                throw new IllegalStateException("Connection pool " + pool.getPoolName()
+                        + " cannot be suspended for a checkpoint: set spring.datasource.hikari.allow-pool-suspension=true");
+            }
+        }
+        this.drainTimeoutMs = drainTimeoutMs;
+    }
+
+    @Override
+    public void beforeCheckpoint() throws InterruptedException {
+        List<HikariPoolMXBean> suspended = new ArrayList<>();
+        try {
+            for (HikariDataSource pool : this.pools) {
+                HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+                if (bean == null) {
+                    continue;
+                }
+                bean.suspendPool();
+                suspended.add(bean);
+                bean.softEvictConnections();
+                awaitDrained(pool.getPoolName(), bean);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            suspended.forEach(HikariPoolMXBean::resumePool);
+            throw e;
+        }
+    }
+
+    @Override
+    public void afterRestore() {
+        for (HikariDataSource pool : this.pools) {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean != null) {
+                bean.resumePool();
+                log.info("Resumed connection pool {}", pool.getPoolName());
+            }
+        }
+    }
+
+    private void awaitDrained(String poolName, HikariPoolMXBean bean) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + this.drainTimeoutMs;
+        while (bean.getTotalConnections() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException(bean.getActiveConnections() + " connection(s) of pool " + poolName
+                        + " still in use after " + this.drainTimeoutMs + " ms");
+            }
+            bean.softEvictConnections();
+            Thread.sleep(10);
+        }
+        log.info("Closed all connections of pool {}", poolName);
+    }
+
+    @Override
+    public String toString() {
+        return "connection pools";
+    }
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.starterjwt.crac;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Reflective access to the CRaC API of the running JDK ({@code jdk.crac}, or {@code javax.crac} on older
+ * builds), so the application compiles and runs unchanged on JDKs without checkpoint/restore support.
+ */
+@Log4j2
+final class Crac {
+    private static final String[] API_PACKAGES = {"jdk.crac", "javax.crac"};
+
+    private static final String API_PACKAGE = findApiPackage();
+
+    private Crac() {
+    }
+
+    static boolean isAvailable() {
+        return API_PACKAGE != null;
+    }
+
+    /**
+     * Registers a resource notified before the checkpoint and after the restore. The caller keeps the
+     * returned object: a context may only hold its resources weakly.
+     */
+    static Object register(CheckpointParticipant participant) throws ReflectiveOperationException {
+        Class<?> resourceType = Class.forName(API_PACKAGE + ".Resource");
+        Object resource = Proxy.newProxyInstance(Crac.class.getClassLoader(), new Class<?>[]{resourceType},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "beforeCheckpoint":
+                            participant.beforeCheckpoint();
+                            return null;
+                        case "afterRestore":
+                            participant.afterRestore();
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return "CRaC resource for " + participant;
+                    }
+                });
+
+        Object context = core().getMethod("getGlobalContext").invoke(null);
+        Method register = Class.forName(API_PACKAGE + ".Context").getMethod("register", resourceType);
+        register.invoke(context, resource);
+        return resource;
+    }
+
+    /**
+     * Takes the checkpoint and returns once the process has been restored from it.
+     */
+    static void checkpointRestore() throws Exception {
+        try {
+            core().getMethod("checkpointRestore").invoke(null);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private static Class<?> core() throws ClassNotFoundException {
+        return Class.forName(API_PACKAGE + ".Core");
+    }
+
+    private static String findApiPackage() {
+        for (String apiPackage : API_PACKAGES) {
+            try {
+                Class.forName(apiPackage + ".Core");
+                return apiPackage;
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.trace("{} is not available", apiPackage);
+            }
+        }
+        return null;
+    }
+}
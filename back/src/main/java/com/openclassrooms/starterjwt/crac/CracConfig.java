@@ -0,0 +1,96 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.openclassrooms.starterjwt.cache.CacheCoordinator;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.services.CalendarIndex;
+import com.openclassrooms.starterjwt.services.ParticipationIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checkpoint/restore mode, enabled by {@code oc.app.crac.enabled=true} (the {@code crac} profile) and
+ * effective on a CRaC-enabled JDK only. See {@code scripts/crac-checkpoint.sh}.
+ * <p>
+ * Before the checkpoint the web server stops listening, the caches and the in-memory indexes are emptied
+ * and the connection pools are closed, in that order; after the restore they come back in reverse order.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.crac", name = "enabled", havingValue = "true")
+public class CracConfig {
+
+    @Bean
+    @Order(1)
+    public WebServerCheckpointParticipant webServerCheckpointParticipant(ApplicationContext context) {
+        return new WebServerCheckpointParticipant(context);
+    }
+
+    @Bean
+    @Order(2)
+    public CacheCheckpointParticipant cacheCheckpointParticipant(CacheManager cacheManager,
+                                                                 CacheCoordinator cacheCoordinator) {
+        return new CacheCheckpointParticipant(cacheManager, cacheCoordinator);
+    }
+
+    @Bean
+    @Order(3)
+    public ParticipationIndexCheckpointParticipant participationIndexCheckpointParticipant(
+            ParticipationIndex participationIndex) {
+        return new ParticipationIndexCheckpointParticipant(participationIndex);
+    }
+
+    @Bean
+    @Order(4)
+    public CalendarIndexCheckpointParticipant calendarIndexCheckpointParticipant(CalendarIndex calendarIndex) {
+        return new CalendarIndexCheckpointParticipant(calendarIndex);
+    }
+
+    @Bean
+    @Order(5)
+    public ConnectionPoolCheckpointParticipant connectionPoolCheckpointParticipant(
+            List<DataSource> dataSources,
+            @Value("${oc.app.crac.poolDrainTimeoutMs}") long drainTimeoutMs) throws SQLException {
+        return new ConnectionPoolCheckpointParticipant(dataSources, drainTimeoutMs);
+    }
+
+    @Bean
+    public WarmUp warmUp(ApplicationContext context,
+                         UserRepository userRepository,
+                         JwtUtils jwtUtils,
+                         TokenRevocationList tokenRevocationList,
+                         @Value("${oc.app.crac.warmUpIterations}") int iterations) {
+        return new WarmUp(context, userRepository, jwtUtils, tokenRevocationList, iterations);
+    }
+
+    @Bean
+    public CheckpointRestoreCoordinator checkpointRestoreCoordinator(
+            ObjectProvider<CheckpointParticipant> participants,
+            WarmUp warmUp,
+            @Value("${oc.app.crac.checkpointAfterWarmUp}") boolean checkpointAfterWarmUp) {
+        return new CheckpointRestoreCoordinator(participants.orderedStream().collect(Collectors.toList()),
+                warmUp, checkpointAfterWarmUp);
+    }
+
+    /**
+     * Binds the listening socket when the connector starts rather than when it is created, so stopping
+     * the connector before the checkpoint releases it.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> unbindOnStopCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> connector.setProperty("bindOnInit", "false"));
+    }
+}
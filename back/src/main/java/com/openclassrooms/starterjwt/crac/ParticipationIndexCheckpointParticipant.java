@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.openclassrooms.starterjwt.services.ParticipationIndex;
+
+/**
+ * Empties the participation index before the checkpoint, since an image may be restored long after
+ * {@code PARTICIPATE} has changed, and reloads it in the background after the restore. Reads go to the
+ * database in between.
+ */
+public class ParticipationIndexCheckpointParticipant implements CheckpointParticipant {
+    private final ParticipationIndex participationIndex;
+
+    public ParticipationIndexCheckpointParticipant(ParticipationIndex participationIndex) {
+        this.participationIndex = participationIndex;
+    }
+
+    @Override
+    public void beforeCheckpoint() {
+        this.participationIndex.suspend();
+    }
+
+    @Override
+    public void afterRestore() {
+        this.participationIndex.resume();
+    }
+
+    @Override
+    public String toString() {
+        return "participation index";
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends the most frequent read requests through the whole stack on the loopback interface, so class
+ * loading, Hibernate metadata, {@code AuthTokenFilter}, the jjwt parser, {@code SessionMapper} and the
+ * repositories are initialised and compiled by the JIT before the checkpoint is taken.
+ * <p>
+ * The requests are authenticated as the first user found, with a token revoked once the warm-up is over.
+ */
+@Log4j2
+public class WarmUp {
+    private static final int TIMEOUT_MS = 5000;
+
+    private final ApplicationContext context;
+
+    private final UserRepository userRepository;
+
+    private final JwtUtils jwtUtils;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final int iterations;
+
+    public WarmUp(ApplicationContext context,
+                  UserRepository userRepository,
+                  JwtUtils jwtUtils,
+                  TokenRevocationList tokenRevocationList,
+                  int iterations) {
+        this.context = context;
+        this.userRepository = userRepository;
+        this.jwtUtils = jwtUtils;
+        this.tokenRevocationList = tokenRevocationList;
+        this.iterations = iterations;
+    }
+
+    public void run() {
+        if (!(this.context instanceof WebServerApplicationContext)
+                || ((WebServerApplicationContext) this.context).getWebServer() == null) {
+            log.warn("No embedded web server, skipping warm-up");
+            return;
+        }
+        Optional<User> user = this.userRepository.findAll(PageRequest.of(0, 1)).stream().findFirst();
+        if (!user.isPresent()) {
+            log.warn("No user to authenticate the warm-up requests with, skipping warm-up");
+            return;
+        }
+
+        int port = ((WebServerApplicationContext) this.context).getWebServer().getPort();
+        Long userId = user.get().getId();
+        List<String> paths = Arrays.asList(
+                "/api/session",
+                "/api/teacher",
+                "/api/user/" + userId,
+                "/api/user/" + userId + "/sessions",
+                "/api/session/search?q=yoga");
+
+        String token = this.jwtUtils.generateTokenFromUsername(user.get().getEmail());
+        long start = System.nanoTime();
+        int failures = 0;
+        try {
+            for (int i = 0; i < this.iterations; i++) {
+                for (String path : paths) {
+                    if (!get(port, path, token)) {
+                        failures++;
+                    }
+                }
+            }
+        } finally {
+            Claims claims = this.jwtUtils.parseJwtClaims(token);
+            if (claims != null) {
+                this.tokenRevocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+            }
+        }
+
+        log.info("Warm-up sent {} requests in {} ms, {} failed", this.iterations * paths.size(),
+                (System.nanoTime() - start) / 1_000_000, failures);
+    }
+
+    private boolean get(int port, String path, String token) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL("http", "localhost", port, path).openConnection();
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setRequestProperty(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            int status = connection.getResponseCode();
+            // Reading the body to the end lets the connection be reused for the next request.
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                byte[] buffer = new byte[8192];
+                while (body != null && body.read(buffer) != -1) {
+                    // drained
+                }
+            }
+            return status < 400;
+        } catch (IOException e) {
+            log.debug("Warm-up request {} failed", path, e);
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+}
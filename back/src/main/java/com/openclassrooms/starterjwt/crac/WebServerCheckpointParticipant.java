@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.crac;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.catalina.connector.Connector;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Stops the Tomcat connectors before the checkpoint, which closes the listening socket and the open
+ * connections, and starts them again after the restore. The connectors must not bind on init
+ * ({@code bindOnInit=false}), otherwise stopping them would leave the socket bound.
+ */
+@Log4j2
+public class WebServerCheckpointParticipant implements CheckpointParticipant {
+    private final ApplicationContext context;
+
+    public WebServerCheckpointParticipant(ApplicationContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void beforeCheckpoint() throws Exception {
+        for (Connector connector : connectors()) {
+            connector.stop();
+        }
+    }
+
+    @Override
+    public void afterRestore() throws Exception {
+        for (Connector connector : connectors()) {
+            connector.start();
+            log.info("Accepting connections on port {}", connector.getLocalPort());
+        }
+    }
+
+    private Connector[] connectors() {
+        WebServer webServer = this.context instanceof WebServerApplicationContext
+                ? ((WebServerApplicationContext) this.context).getWebServer() : null;
+        if (!(webServer instanceof TomcatWebServer)) {
+            return new Connector[0];
+        }
+        return ((TomcatWebServer) webServer).getTomcat().getService().findConnectors();
+    }
+
+    @Override
+    public String toString() {
+        return "web server";
+    }
+}
@@ -0,0 +1,215 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker: opens when at least {@code failureRatePercent} of the last {@code windowSize}
+ * calls failed or took {@code slowCallMs} or more, once {@code minimumCalls} calls have been recorded.
+ * <p>
+ * While open every call is refused at once. After {@code openMs} a single probe call is let through: its
+ * success closes the breaker, its failure opens it for another {@code openMs}. The state is published as the
+ * {@code yoga.db.circuit.state} gauge (0 closed, 1 open, 2 half-open) and the outcomes as the
+ * {@code yoga.db.circuit.calls} counter.
+ */
+@Log4j2
+public class CircuitBreaker {
+    static final String STATE_METRIC = "yoga.db.circuit.state";
+
+    static final String CALLS_METRIC = "yoga.db.circuit.calls";
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int minimumCalls;
+
+    private final int failureRatePercent;
+
+    private final long slowCallNanos;
+
+    private final long openNanos;
+
+    private final LongSupplier clock;
+
+    private final boolean[] window;
+
+    private final Counter successes;
+
+    private final Counter failures;
+
+    private final Counter slowCalls;
+
+    private final Counter rejections;
+
+    private int windowNext;
+
+    private int windowCount;
+
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+
+    private long openedAt;
+
+    private boolean probeInFlight;
+
+    private long probeStartedAt;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent,
+                          long slowCallMs, long openMs, MeterRegistry meterRegistry) {
+        this(name, windowSize, minimumCalls, failureRatePercent, slowCallMs, openMs, meterRegistry, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent,
+                   long slowCallMs, long openMs, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.name = name;
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.clock = clock;
+        this.window = new boolean[windowSize];
+        Gauge.builder(STATE_METRIC, this, breaker -> breaker.state.ordinal())
+                .tag("name", name)
+                .register(meterRegistry);
+        this.successes = calls(meterRegistry, "success");
+        this.failures = calls(meterRegistry, "failure");
+        this.slowCalls = calls(meterRegistry, "slow");
+        this.rejections = calls(meterRegistry, "rejected");
+    }
+
+    private Counter calls(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(CALLS_METRIC).tag("name", this.name).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    public State getState() {
+        return this.state;
+    }
+
+    /**
+     * Whether a call made now would be let through, without claiming the half-open probe.
+     */
+    public synchronized boolean isCallPermitted() {
+        long now = this.clock.getAsLong();
+        switch (this.state) {
+            case OPEN:
+                return now - this.openedAt >= this.openNanos;
+            case HALF_OPEN:
+                return !this.probeInFlight || now - this.probeStartedAt >= this.openNanos;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Claims a call, to be reported with {@link Permit#release}; {@code null} if the breaker refuses it.
+     */
+    public synchronized Permit tryAcquire() {
+        if (this.state == State.CLOSED) {
+            return new Permit(false);
+        }
+        if (!this.isCallPermitted()) {
+            this.rejections.increment();
+            return null;
+        }
+        // An abandoned probe is replaced once it is as old as the open period.
+        this.transition(State.HALF_OPEN);
+        this.probeInFlight = true;
+        this.probeStartedAt = this.clock.getAsLong();
+        return new Permit(true);
+    }
+
+    /**
+     * Closes the breaker and forgets the recorded calls.
+     */
+    public synchronized void reset() {
+        this.clearWindow();
+        this.probeInFlight = false;
+        this.transition(State.CLOSED);
+    }
+
+    private synchronized void record(Permit permit, long durationNanos, boolean failed) {
+        boolean slow = !failed && durationNanos >= this.slowCallNanos;
+        (failed ? this.failures : slow ? this.slowCalls : this.successes).increment();
+        boolean bad = failed || slow;
+
+        if (permit.probe) {
+            if (this.state == State.HALF_OPEN) {
+                this.probeInFlight = false;
+                if (bad) {
+                    this.open();
+                } else {
+                    this.clearWindow();
+                    this.transition(State.CLOSED);
+                }
+            }
+            return;
+        }
+        if (this.state != State.CLOSED) {
+            // A call started before the breaker opened.
+            return;
+        }
+
+        if (this.windowCount == this.window.length) {
+            this.windowFailures -= this.window[this.windowNext] ? 1 : 0;
+        } else {
+            this.windowCount++;
+        }
+        this.window[this.windowNext] = bad;
+        this.windowFailures += bad ? 1 : 0;
+        this.windowNext = (this.windowNext + 1) % this.window.length;
+
+        if (this.windowCount >= this.minimumCalls
+                && this.windowFailures * 100 >= this.failureRatePercent * this.windowCount) {
+            this.open();
+        }
+    }
+
+    private void open() {
+        this.openedAt = this.clock.getAsLong();
+        this.clearWindow();
+        this.transition(State.OPEN);
+    }
+
+    private void clearWindow() {
+        this.windowNext = 0;
+        this.windowCount = 0;
+        this.windowFailures = 0;
+    }
+
+    private void transition(State next) {
+        if (this.state == next) {
+            return;
+        }
+        if (next == State.OPEN) {
+            log.warn("Circuit breaker {} opened for {} ms", this.name, TimeUnit.NANOSECONDS.toMillis(this.openNanos));
+        } else {
+            log.info("Circuit breaker {} is now {}", this.name, next.name().toLowerCase(Locale.ROOT));
+        }
+        this.state = next;
+    }
+
+    /**
+     * One call let through by the breaker, reported once when it ends.
+     */
+    public final class Permit {
+        private final boolean probe;
+
+        private Permit(boolean probe) {
+            this.probe = probe;
+        }
+
+        public void release(long durationNanos, boolean failed) {
+            CircuitBreaker.this.record(this, durationNanos, failed);
+        }
+    }
+}
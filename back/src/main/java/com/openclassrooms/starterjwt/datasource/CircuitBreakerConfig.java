@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The circuit breaker in front of the application data source, see {@link CircuitBreakerPostProcessor}.
+ */
+@Configuration
+public class CircuitBreakerConfig {
+    static final String DATABASE = "database";
+
+    @Bean
+    public CircuitBreaker databaseCircuitBreaker(MeterRegistry meterRegistry,
+                                                 @Value("${oc.app.circuitBreaker.windowSize}") int windowSize,
+                                                 @Value("${oc.app.circuitBreaker.minimumCalls}") int minimumCalls,
+                                                 @Value("${oc.app.circuitBreaker.failureRatePercent}") int failureRatePercent,
+                                                 @Value("${oc.app.circuitBreaker.slowCallMs}") long slowCallMs,
+                                                 @Value("${oc.app.circuitBreaker.openMs}") long openMs) {
+        return new CircuitBreaker(DATABASE, windowSize, minimumCalls, failureRatePercent, slowCallMs, openMs,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts every connection borrow behind the database {@link CircuitBreaker}. Each borrow is one call, reported
+ * when the connection is closed: it fails if the borrow fails or the connection reports the database
+ * unavailable (see {@link DatabaseFailures}), and is slow if {@code getConnection} itself took too long. How
+ * long the caller then holds the connection is its own business, so a long transaction never opens the breaker.
+ * <p>
+ * Every repository call and transaction borrows a connection first, so while the breaker is open they fail
+ * with a {@link CircuitBreakerOpenException} instead of waiting for the pool.
+ */
+public class CircuitBreakerDataSource extends DelegatingDataSource {
+    private final CircuitBreaker circuitBreaker;
+
+    private final String name;
+
+    public CircuitBreakerDataSource(DataSource targetDataSource, CircuitBreaker circuitBreaker, String name) {
+        super(targetDataSource);
+        this.circuitBreaker = circuitBreaker;
+        this.name = name;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        CircuitBreaker.Permit permit = this.acquire();
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection();
+            return this.guarded(connection, permit, System.nanoTime() - start);
+        } catch (SQLException | RuntimeException e) {
+            permit.release(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        CircuitBreaker.Permit permit = this.acquire();
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection(username, password);
+            return this.guarded(connection, permit, System.nanoTime() - start);
+        } catch (SQLException | RuntimeException e) {
+            permit.release(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    private CircuitBreaker.Permit acquire() throws CircuitBreakerOpenException {
+        CircuitBreaker.Permit permit = this.circuitBreaker.tryAcquire();
+        if (permit == null) {
+            throw new CircuitBreakerOpenException(this.name);
+        }
+        return permit;
+    }
+
+    private Connection guarded(Connection connection, CircuitBreaker.Permit permit, long borrowNanos) {
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(
+                CircuitBreakerDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        if (DatabaseFailures.isUnavailable(e.getTargetException())) {
+                            failed.set(true);
+                        }
+                        throw e.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permit.release(borrowNanos, failed.get());
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown instead of borrowing a connection while the database circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends SQLTransientConnectionException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String name) {
+        super("Circuit breaker " + name + " is open");
+    }
+}
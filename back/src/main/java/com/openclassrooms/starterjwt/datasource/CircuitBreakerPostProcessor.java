@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source in a {@link CircuitBreakerDataSource}, itself wrapping a
+ * {@link FaultInjectingDataSource} when {@link DatabaseFaults} are enabled. Ordered first, so the breaker sits
+ * right above the pool and the other wrappers see its refusals as failed borrows.
+ */
+@Component
+public class CircuitBreakerPostProcessor implements BeanPostProcessor, Ordered {
+    private final ObjectProvider<CircuitBreaker> circuitBreaker;
+
+    private final ObjectProvider<DatabaseFaults> faults;
+
+    public CircuitBreakerPostProcessor(ObjectProvider<CircuitBreaker> circuitBreaker,
+                                       ObjectProvider<DatabaseFaults> faults) {
+        this.circuitBreaker = circuitBreaker;
+        this.faults = faults;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+            DataSource dataSource = (DataSource) bean;
+            DatabaseFaults databaseFaults = this.faults.getIfAvailable();
+            if (databaseFaults != null) {
+                dataSource = new FaultInjectingDataSource(dataSource, databaseFaults);
+            }
+            return new CircuitBreakerDataSource(dataSource, this.circuitBreaker.getObject(), CircuitBreakerConfig.DATABASE);
+        }
+        return bean;
+    }
+}
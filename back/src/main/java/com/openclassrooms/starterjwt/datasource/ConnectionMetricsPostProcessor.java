@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source in a {@link ConnectionHoldTimeDataSource}.
+ */
+@Component
+public class ConnectionMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+            return new ConnectionHoldTimeDataSource((DataSource) bean, this.meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Faults injected into every connection borrowed from the application data source, to rehearse a slow or
+ * unreachable database locally: a delay of {@code latencyMs} and a {@code failureRate} share of failed
+ * borrows. Enabled by {@code oc.app.faults.enabled=true}; both settings can also be changed at runtime.
+ */
+@Component
+@ConditionalOnProperty(prefix = "oc.app.faults", name = "enabled", havingValue = "true")
+public class DatabaseFaults {
+    private volatile long latencyMs;
+
+    private volatile double failureRate;
+
+    public DatabaseFaults(@Value("${oc.app.faults.latencyMs}") long latencyMs,
+                          @Value("${oc.app.faults.failureRate}") double failureRate) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    public long getLatencyMs() {
+        return this.latencyMs;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public double getFailureRate() {
+        return this.failureRate;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public void clear() {
+        this.latencyMs = 0;
+        this.failureRate = 0;
+    }
+
+    void inject() throws SQLException {
+        long latency = this.latencyMs;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while injecting latency", e);
+            }
+        }
+        double rate = this.failureRate;
+        if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            throw new SQLTransientConnectionException("Injected database fault");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Applies the {@link DatabaseFaults} before borrowing each connection.
+ */
+public class FaultInjectingDataSource extends DelegatingDataSource {
+    private final DatabaseFaults faults;
+
+    public FaultInjectingDataSource(DataSource targetDataSource, DatabaseFaults faults) {
+        super(targetDataSource);
+        this.faults = faults;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        this.faults.inject();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        this.faults.inject();
+        return super.getConnection(username, password);
+    }
+}
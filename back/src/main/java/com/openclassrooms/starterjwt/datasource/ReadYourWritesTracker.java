@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which users wrote recently, so their next reads are served by the primary
+ * instead of a replica that may not have replayed the write yet.
+ */
+public class ReadYourWritesTracker {
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    private final long windowNanos;
+
+    private final LongSupplier nanoClock;
+
+    public ReadYourWritesTracker(long windowMs) {
+        this(windowMs, System::nanoTime);
+    }
+
+    ReadYourWritesTracker(long windowMs, LongSupplier nanoClock) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.nanoClock = nanoClock;
+    }
+
+    public void markWrite(String username) {
+        long now = this.nanoClock.getAsLong();
+        this.stickyUntil.put(username, now + this.windowNanos);
+
+        if (this.stickyUntil.size() > PURGE_THRESHOLD) {
+            this.stickyUntil.values().removeIf(until -> until - now < 0);
+        }
+    }
+
+    public boolean isSticky(String username) {
+        Long until = this.stickyUntil.get(username);
+        return until != null && until - this.nanoClock.getAsLong() > 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registers one {@link HikariDataSource} bean per configured replica, named {@code replicaDataSource0},
+ * {@code replicaDataSource1}... so the pools are metered, closed on shutdown and drained for a checkpoint
+ * like the primary one.
+ * <p>
+ * Each replica pool is bound to {@code spring.datasource.hikari.*}, like the primary, then given the replica
+ * URL and credentials and a {@code -replica-N} suffix to the pool name.
+ */
+public class ReplicaDataSourceRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+    static final String BEAN_NAME_PREFIX = "replicaDataSource";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    static String beanName(int replica) {
+        return BEAN_NAME_PREFIX + replica;
+    }
+
+    @Override
+    public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+        Binder binder = Binder.get(this.environment);
+        List<ReplicaRoutingProperties.Replica> replicas = binder
+                .bind("oc.app.datasource.routing.replicas", Bindable.listOf(ReplicaRoutingProperties.Replica.class))
+                .orElse(Collections.emptyList());
+
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = i;
+            ReplicaRoutingProperties.Replica replica = replicas.get(i);
+            RootBeanDefinition definition = new RootBeanDefinition(HikariDataSource.class,
+                    () -> replicaDataSource(binder, index, replica));
+            definition.setDestroyMethodName("close");
+            registry.registerBeanDefinition(beanName(i), definition);
+        }
+    }
+
+    private static HikariDataSource replicaDataSource(Binder binder, int index, ReplicaRoutingProperties.Replica replica) {
+        HikariDataSource dataSource = new HikariDataSource();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        if (StringUtils.hasText(dataSource.getPoolName())) {
+            dataSource.setPoolName(dataSource.getPoolName() + "-replica-" + index);
+        }
+        return dataSource;
+    }
+}
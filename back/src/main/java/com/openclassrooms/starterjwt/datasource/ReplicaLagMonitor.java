@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Periodically probes the replicas and remembers which ones are within the lag tolerance.
+ * A replica that has not been probed yet, or cannot be probed, is considered lagging.
+ */
+@Log4j2
+public class ReplicaLagMonitor {
+    private final List<DataSource> replicas;
+
+    private final ReplicaLagProbe probe;
+
+    private final long maxReplicaLagMs;
+
+    private final AtomicLongArray lags;
+
+    public ReplicaLagMonitor(List<DataSource> replicas, ReplicaLagProbe probe, long maxReplicaLagMs) {
+        this.replicas = replicas;
+        this.probe = probe;
+        this.maxReplicaLagMs = maxReplicaLagMs;
+        this.lags = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            this.lags.set(i, -1);
+        }
+    }
+
+    public List<DataSource> getReplicas() {
+        return this.replicas;
+    }
+
+    public boolean isUsable(int replica) {
+        return isWithinTolerance(this.lags.get(replica));
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.datasource.routing.lagCheckIntervalMs:1000}")
+    public void probe() {
+        for (int i = 0; i < this.replicas.size(); i++) {
+            long lag;
+            try {
+                lag = this.probe.lagMillis(this.replicas.get(i));
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Cannot probe replica {}: {}", i, e.getMessage());
+                lag = -1;
+            }
+
+            long previous = this.lags.getAndSet(i, lag);
+            if (isWithinTolerance(previous) != isWithinTolerance(lag)) {
+                log.info("Replica {} is {} (lag {} ms)", i, isWithinTolerance(lag) ? "back in rotation" : "out of rotation", lag);
+            }
+        }
+    }
+
+    private boolean isWithinTolerance(long lag) {
+        return lag >= 0 && lag <= this.maxReplicaLagMs;
+    }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Measures how far a replica is behind the primary.
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * @return the replication lag in milliseconds, or a negative value when replication is not running
+     */
+    long lagMillis(DataSource replica) throws SQLException;
+}
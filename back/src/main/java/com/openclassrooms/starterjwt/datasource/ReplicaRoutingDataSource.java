@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica in round robin and everything else to the primary.
+ * <p>
+ * A read falls back to the primary when every replica is beyond the lag tolerance, or when the
+ * authenticated user wrote within the read-your-writes window. This data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction read-only
+ * flag is only set after the transaction manager asked for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final String[] replicaKeys;
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<DataSource> replicas,
+                                    ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWritesTracker) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.replicaKeys = new String[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicaKeys[i] = "replica-" + i;
+            targets.put(this.replicaKeys[i], replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String username = currentUsername();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (username != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                this.readYourWritesTracker.markWrite(username);
+            }
+            return PRIMARY;
+        }
+
+        if (username != null && this.readYourWritesTracker.isSticky(username)) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(this.next.getAndIncrement(), Math.max(1, this.replicaKeys.length));
+        for (int i = 0; i < this.replicaKeys.length; i++) {
+            int replica = (start + i) % this.replicaKeys.length;
+            if (this.lagMonitor.isUsable(replica)) {
+                return this.replicaKeys[replica];
+            }
+        }
+        return PRIMARY;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "oc.app.datasource.routing")
+public class ReplicaRoutingProperties {
+    /**
+     * Sends read-only transactions to the replicas when true; everything goes to the primary otherwise.
+     */
+    private boolean enabled;
+
+    /**
+     * Replicas lagging more than this are skipped until they catch up.
+     */
+    private long maxReplicaLagMs = 1000;
+
+    /**
+     * How long the reads of a user stay on the primary after that user wrote something.
+     */
+    private long stickyWindowMs = 5000;
+
+    private long lagCheckIntervalMs = 1000;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAvailabilityDto {
+    private Long sessionId;
+
+    private int participants;
+
+    /**
+     * {@code null} when the session has no limit.
+     */
+    private Integer capacity;
+
+    /**
+     * {@code null} when the session has no limit.
+     */
+    private Integer seatsLeft;
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * The fields of {@link SessionDto} a session list needs, selected straight from the {@code SESSIONS} row:
+ * no description, participant ids nor audit timestamps.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummaryDto {
+    private Long id;
+
+    private String name;
+
+    private Date date;
+
+    private Long teacher_id;
+
+    private Integer capacity;
+
+    private Integer participantCount;
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.encoding;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the API payloads, chosen by the {@code Accept} and {@code Content-Type} headers:
+ * {@code application/cbor} and {@code application/x-jackson-smile}. JSON stays the default.
+ * <p>
+ * Both converters are built from the application's {@link Jackson2ObjectMapperBuilder}, so they carry the
+ * same modules and settings as the JSON converter and encode the same fields. Spring Boot puts these beans
+ * in place of the default CBOR and Smile converters, which would use a bare builder.
+ * See {@code scripts/encoding-benchmark.sh}.
+ */
+@Configuration
+public class BinaryEncodingConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.exception;
+
+import com.openclassrooms.starterjwt.datasource.DatabaseFailures;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers 503 with a {@code Retry-After} when a request fails because the database is out of reach or its
+ * circuit breaker is open, rather than the 500 of a failed statement.
+ */
+@RestControllerAdvice
+@Log4j2
+public class DatabaseUnavailableHandler {
+
+    @ExceptionHandler({DataAccessException.class, TransactionException.class})
+    public ResponseEntity<?> handle(NestedRuntimeException e, HttpServletRequest request) {
+        if (!DatabaseFailures.isUnavailable(e)) {
+            // Rethrowing the same exception hands it to the default resolvers.
+            throw e;
+        }
+        log.warn("Database unavailable for {}: {}", request.getRequestURI(), e.getMostSpecificCause().getMessage());
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        body.put("message", "The database is unavailable, retry later");
+        body.put("path", request.getServletPath());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+}
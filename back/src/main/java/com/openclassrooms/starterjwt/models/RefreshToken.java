@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "REFRESH_TOKENS")
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RefreshToken {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @NotNull
+  @ManyToOne
+  @JoinColumn(name = "user_id")
+  @ToString.Exclude
+  private User user;
+
+  @NotNull
+  @Column(name = "token_hash")
+  private String tokenHash;
+
+  @NotNull
+  @Column(name = "family_id")
+  private String familyId;
+
+  @NotNull
+  @Column(name = "expires_at")
+  private LocalDateTime expiresAt;
+
+  private boolean revoked;
+
+  @NotNull
+  @Column(name = "created_at", updatable = false)
+  private LocalDateTime createdAt;
+}
@@ -8,6 +8,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -52,6 +53,18 @@ public class Session {
             inverseJoinColumns = @JoinColumn( name = "user_id" ) )
     private List<User> users;
 
+    /**
+     * Maximum number of participants, or {@code null} when the session has no limit.
+     */
+    @Min(1)
+    private Integer capacity;
+
+    /**
+     * Number of participants, maintained in the database by {@code SessionService}: entity saves never write it.
+     */
+    @Column(name = "participant_count", insertable = false, updatable = false)
+    private int participantCount;
+
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
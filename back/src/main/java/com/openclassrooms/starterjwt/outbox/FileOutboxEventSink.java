@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Appends each event as one JSON line to a local file. The batch is acknowledged only once the file
+ * has been forced to disk.
+ */
+@Component
+@ConditionalOnProperty(name = "oc.app.outbox.sink", havingValue = "file")
+public class FileOutboxEventSink implements OutboxEventSink {
+    private final String file;
+
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxEventSink(@Value("${oc.app.outbox.file}") String file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (OutboxEvent event : events) {
+            ObjectNode line = this.objectMapper.createObjectNode();
+            line.put("id", event.getId());
+            line.put("aggregateType", event.getAggregateType());
+            line.put("aggregateId", event.getAggregateId());
+            line.put("eventType", event.getEventType());
+            line.put("createdAt", event.getCreatedAt().toString());
+            line.set("payload", this.objectMapper.readTree(event.getPayload()));
+            this.objectMapper.writeValue(lines, line);
+            lines.write('\n');
+        }
+
+        try (FileOutputStream out = new FileOutputStream(this.file, true)) {
+            lines.writeTo(out);
+            out.getChannel().force(true);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent events in memory, for local runs and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "oc.app.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+    private final int capacity;
+
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxEventSink(@Value("${oc.app.outbox.memoryCapacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (this.events.size() == this.capacity) {
+                this.events.removeFirst();
+            }
+            this.events.addLast(event);
+        }
+    }
+
+    public synchronized List<OutboxEvent> getEvents() {
+        return new ArrayList<>(this.events);
+    }
+}
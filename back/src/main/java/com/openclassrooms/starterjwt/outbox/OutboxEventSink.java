@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the relayed outbox events. Returning normally acknowledges the whole batch; throwing
+ * leaves it unpublished so it is sent again, in the same order, by the next relay run.
+ */
+public interface OutboxEventSink {
+
+    void publish(List<OutboxEvent> events) throws IOException;
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sends unpublished outbox events to the {@link OutboxEventSink} in batches, in id order.
+ * <p>
+ * Each batch is read, sent and marked published in one transaction holding row locks on the batch,
+ * so relays on several nodes take turns rather than interleave. A failed send rolls the batch back
+ * and stops the run: the same events are retried first on the next run, which keeps them in order
+ * and delivers them at least once.
+ * <p>
+ * Runs are scheduled by the {@link OutboxRelayScheduler}.
+ */
+@Component
+@Log4j2
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxEventSink sink;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxEventSink sink,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${oc.app.outbox.batchSize}") int batchSize,
+                       @Value("${oc.app.outbox.retentionHours}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+    }
+
+    public void relay() {
+        Integer sent;
+        do {
+            try {
+                sent = this.transactionTemplate.execute(status -> this.relayBatch());
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay interrupted, retrying on next run: {}", e.getMessage());
+                return;
+            }
+        } while (sent != null && sent == this.batchSize);
+    }
+
+    public void purge() {
+        Integer purged = this.transactionTemplate.execute(status ->
+                this.outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(this.retentionHours)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} published outbox event(s)", purged);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = this.outboxEventRepository.findUnpublished(PageRequest.of(0, this.batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            this.sink.publish(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.outboxEventRepository.markPublished(
+                batch.stream().map(OutboxEvent::getId).collect(Collectors.toList()), LocalDateTime.now());
+        return batch.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link OutboxRelay} every {@code relayIntervalMs} and purges published events every
+ * {@code purgeIntervalMs}. Disabled by {@code oc.app.outbox.relayEnabled=false}, as in tests, where the
+ * cached application contexts share one database and their relays would race for the same events.
+ */
+@Component
+@ConditionalOnProperty(prefix = "oc.app.outbox", name = "relayEnabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+    private final OutboxRelay outboxRelay;
+
+    public OutboxRelayScheduler(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.outbox.relayIntervalMs}")
+    public void relay() {
+        this.outboxRelay.relay();
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.outbox.purgeIntervalMs}")
+    public void purge() {
+        this.outboxRelay.purge();
+    }
+}
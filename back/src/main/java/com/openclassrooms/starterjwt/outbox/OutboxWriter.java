@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Records session changes in the outbox table just before the transaction that made them commits,
+ * so the event exists if and only if the change does.
+ */
+@Component
+public class OutboxWriter {
+    static final String SESSION_AGGREGATE = "Session";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onSessionChanged(SessionChangedEvent event) {
+        String payload;
+        try {
+            payload = this.objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.outboxEventRepository.save(new OutboxEvent()
+                .setAggregateType(SESSION_AGGREGATE)
+                .setAggregateId(event.getSessionId())
+                .setEventType(event.getChange().name())
+                .setPayload(payload)
+                .setCreatedAt(LocalDateTime.now()));
+    }
+}
@@ -1,9 +1,131 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionSearchRepository {
+
+    /**
+     * Loaded sessions are never modified: skip the dirty-checking snapshots and the flush.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    List<Session> findAll();
+
+    /**
+     * Only the columns of {@link SessionSummaryDto}: neither the description nor the participants are loaded.
+     */
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionSummaryDto("
+            + "s.id, s.name, s.date, s.teacher.id, s.capacity, s.participantCount) from Session s")
+    List<SessionSummaryDto> findAllSummaries();
+
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionSummaryDto("
+            + "s.id, s.name, s.date, s.teacher.id, s.capacity, s.participantCount) from Session s where s.id = :id")
+    Optional<SessionSummaryDto> findSummaryById(@Param("id") Long id);
+
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionSummaryDto("
+            + "s.id, s.name, s.date, s.teacher.id, s.capacity, s.participantCount) from Session s where s.id in :ids")
+    List<SessionSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionSummaryDto("
+            + "s.id, s.name, s.date, s.teacher.id, s.capacity, s.participantCount) from Session s"
+            + " where s.date >= :from and s.date < :to order by s.date, s.id")
+    List<SessionSummaryDto> findSummariesBetween(@Param("from") Date from, @Param("to") Date to);
+
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionSummaryDto("
+            + "s.id, s.name, s.date, s.teacher.id, s.capacity, s.participantCount) from Session s"
+            + " where s.teacher.id = :teacherId and s.date >= :from and s.date < :to order by s.date, s.id")
+    List<SessionSummaryDto> findTeacherSummariesBetween(@Param("teacherId") Long teacherId,
+                                                        @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Whether the teacher has a session, other than {@code excludedId}, starting strictly between the bounds.
+     */
+    @Query("select case when count(s) > 0 then true else false end from Session s"
+            + " where s.teacher.id = :teacherId and s.date > :from and s.date < :to and s.id <> :excludedId")
+    boolean existsTeacherSessionBetween(@Param("teacherId") Long teacherId, @Param("from") Date from,
+                                        @Param("to") Date to, @Param("excludedId") Long excludedId);
+
+    /**
+     * Every session as {@code [id, date, teacher_id]}.
+     */
+    @Query("select s.id, s.date, s.teacher.id from Session s")
+    List<Object[]> findCalendarEntries();
+
+    @Query("select s.id, s.date, s.teacher.id from Session s where s.id = :id")
+    List<Object[]> findCalendarEntry(@Param("id") Long id);
+
+    /**
+     * Locks the session row so that seat accounting is serialized across nodes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Session s where s.id = :id")
+    Optional<Session> findForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET participant_count = participant_count + :delta WHERE id = :id", nativeQuery = true)
+    int adjustParticipantCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Recomputes the counter from {@code PARTICIPATE}, after flushing pending participant changes.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE SESSIONS SET participant_count = (SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = :id) WHERE id = :id", nativeQuery = true)
+    int recountParticipants(@Param("id") Long id);
+
+    @Query(value = "SELECT s.id FROM SESSIONS s"
+            + " LEFT JOIN (SELECT session_id, COUNT(*) AS participants FROM PARTICIPATE GROUP BY session_id) p ON p.session_id = s.id"
+            + " WHERE s.participant_count <> COALESCE(p.participants, 0)", nativeQuery = true)
+    List<Number> findIdsWithParticipantCountDrift();
+
+    @Query("select case when count(u) > 0 then true else false end from Session s join s.users u"
+            + " where s.id = :id and u.id = :userId")
+    boolean existsParticipant(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select s.id from Session s join s.users u where u.id = :userId order by s.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    @Query(value = "SELECT user_id FROM PARTICIPATE WHERE session_id = :id", nativeQuery = true)
+    List<Number> findParticipantIds(@Param("id") Long id);
+
+    /**
+     * A page of {@code PARTICIPATE} rows as {@code [session_id, user_id]}, in primary key order, following the given row.
+     */
+    @Query(value = "SELECT session_id, user_id FROM PARTICIPATE"
+            + " WHERE session_id > :sessionId OR (session_id = :sessionId AND user_id > :userId)"
+            + " ORDER BY session_id, user_id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findParticipationsAfter(@Param("sessionId") int sessionId, @Param("userId") int userId,
+                                           @Param("limit") int limit);
+
+    @Query("select s from Session s join s.users u where u.id = :userId")
+    Page<Session> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select s from Session s join s.users u where u.id = :userId and s.date >= :from")
+    Page<Session> findByUserIdAndDateFrom(@Param("userId") Long userId, @Param("from") Date from, Pageable pageable);
+
+    @Query("select s from Session s join s.users u where u.id = :userId and s.date < :before")
+    Page<Session> findByUserIdAndDateBefore(@Param("userId") Long userId, @Param("before") Date before, Pageable pageable);
 }
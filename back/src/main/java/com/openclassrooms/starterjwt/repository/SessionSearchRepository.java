@@ -0,0 +1,13 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+import java.util.List;
+
+public interface SessionSearchRepository {
+
+    /**
+     * Sessions whose name or description matches the query, most relevant first.
+     */
+    List<Session> search(String query, int limit);
+}
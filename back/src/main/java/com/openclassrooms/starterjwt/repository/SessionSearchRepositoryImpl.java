@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Uses the MySQL {@code FULLTEXT} index created by the {@code V3} migration. Other databases, such as
+ * the H2 used by the tests, fall back to a substring match that ranks name hits above description hits.
+ */
+public class SessionSearchRepositoryImpl implements SessionSearchRepository {
+
+    private static final String FULLTEXT_QUERY =
+            "SELECT s.* FROM SESSIONS s"
+                    + " WHERE MATCH (s.name, s.description) AGAINST (:query IN NATURAL LANGUAGE MODE)"
+                    + " ORDER BY MATCH (s.name, s.description) AGAINST (:query IN NATURAL LANGUAGE MODE) DESC";
+
+    private static final String LIKE_QUERY =
+            "select s from Session s"
+                    + " where lower(s.name) like :pattern escape '!' or lower(s.description) like :pattern escape '!'"
+                    + " order by case when lower(s.name) like :pattern escape '!' then 0 else 1 end, s.date desc";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean fullText;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Session> search(String query, int limit) {
+        if (isFullText()) {
+            return entityManager.createNativeQuery(FULLTEXT_QUERY, Session.class)
+                    .setParameter("query", query)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+
+        return entityManager.createQuery(LIKE_QUERY, Session.class)
+                .setParameter("pattern", "%" + escapeLike(query.toLowerCase(Locale.ROOT)) + "%")
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private boolean isFullText() {
+        if (fullText == null) {
+            fullText = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof MySQLDialect;
+        }
+        return fullText;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
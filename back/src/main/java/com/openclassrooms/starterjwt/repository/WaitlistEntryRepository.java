@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    boolean existsBySessionId(Long sessionId);
+
+    Optional<WaitlistEntry> findBySessionIdAndUserId(Long sessionId, Long userId);
+
+    /**
+     * The next users to promote, oldest first, with their {@code User} fetched in the same query.
+     */
+    @Query("select w from WaitlistEntry w join fetch w.user where w.sessionId = :sessionId order by w.id")
+    List<WaitlistEntry> findNext(@Param("sessionId") Long sessionId, Pageable pageable);
+}
@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * A request whose body has been read by a filter, and is replayed to the rest of the chain.
+ */
+public final class CachedBodyRequest extends HttpServletRequestWrapper {
+  private final byte[] body;
+
+  private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+    super(request);
+    this.body = body;
+  }
+
+  /**
+   * Reads the whole body, or returns {@code null} when it is larger than {@code maxBodyBytes}.
+   */
+  public static CachedBodyRequest read(HttpServletRequest request, int maxBodyBytes) throws IOException {
+    if (request.getContentLengthLong() > maxBodyBytes) {
+      return null;
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(request.getContentLength(), 64));
+    byte[] buffer = new byte[1024];
+    InputStream in = request.getInputStream();
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      if (out.size() + read > maxBodyBytes) {
+        return null;
+      }
+      out.write(buffer, 0, read);
+    }
+    return new CachedBodyRequest(request, out.toByteArray());
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  @Override
+  public ServletInputStream getInputStream() {
+    final ByteArrayInputStream in = new ByteArrayInputStream(body);
+    return new ServletInputStream() {
+      @Override
+      public int read() {
+        return in.read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        return in.read(b, off, len);
+      }
+
+      @Override
+      public boolean isFinished() {
+        return in.available() == 0;
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setReadListener(ReadListener listener) {
+        // The whole body is already in memory: it is available at once, and read once the listener is done.
+        try {
+          if (!isFinished()) {
+            listener.onDataAvailable();
+          }
+          listener.onAllDataRead();
+        } catch (IOException e) {
+          listener.onError(e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public BufferedReader getReader() {
+    return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public int getContentLength() {
+    return body.length;
+  }
+
+  @Override
+  public long getContentLengthLong() {
+    return body.length;
+  }
+}
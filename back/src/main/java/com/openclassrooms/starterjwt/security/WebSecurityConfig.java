@@ -3,6 +3,7 @@ package com.openclassrooms.starterjwt.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -14,8 +15,11 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.openclassrooms.starterjwt.security.bulkhead.BulkheadFilter;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.idempotency.IdempotencyFilter;
+import com.openclassrooms.starterjwt.security.ratelimit.RateLimitFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
 @Configuration
@@ -36,6 +40,21 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     return new AuthTokenFilter();
   }
 
+  @Bean
+  public RateLimitFilter rateLimitFilter() {
+    return new RateLimitFilter();
+  }
+
+  @Bean
+  public BulkheadFilter bulkheadFilter() {
+    return new BulkheadFilter();
+  }
+
+  @Bean
+  public IdempotencyFilter idempotencyFilter() {
+    return new IdempotencyFilter();
+  }
+
   @Override
   public void configure(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
     authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
@@ -58,9 +77,14 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
       .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      .antMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+      .antMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**").permitAll()
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
     http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+    http.addFilterBefore(rateLimitFilter(), AuthTokenFilter.class);
+    http.addFilterBefore(bulkheadFilter(), AuthTokenFilter.class);
+    http.addFilterAfter(idempotencyFilter(), AuthTokenFilter.class);
   }
 }
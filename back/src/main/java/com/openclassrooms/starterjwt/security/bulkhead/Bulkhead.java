@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.security.bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * At most {@code maxConcurrent} requests of one endpoint class at a time; a request finding no permit waits
+ * {@code maxWaitMs} at most. Free permits are published as the {@code yoga.bulkhead.available} gauge and
+ * refused requests as the {@code yoga.bulkhead.rejected} counter, both tagged with the bulkhead name.
+ */
+public class Bulkhead {
+  static final String AVAILABLE_METRIC = "yoga.bulkhead.available";
+
+  static final String REJECTED_METRIC = "yoga.bulkhead.rejected";
+
+  private final String name;
+
+  private final Semaphore permits;
+
+  private final long maxWaitMs;
+
+  private final Counter rejected;
+
+  public Bulkhead(String name, int maxConcurrent, long maxWaitMs, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.permits = new Semaphore(maxConcurrent);
+    this.maxWaitMs = maxWaitMs;
+    Gauge.builder(AVAILABLE_METRIC, permits, Semaphore::availablePermits).tag("bulkhead", name).register(meterRegistry);
+    this.rejected = Counter.builder(REJECTED_METRIC).tag("bulkhead", name).register(meterRegistry);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean tryAcquire() throws InterruptedException {
+    if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  public void release() {
+    permits.release();
+  }
+}
@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.security.bulkhead;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bulkheads per endpoint class, so a slow database cannot pin every Tomcat thread on one kind of request:
+ * authentication ({@code /api/auth/**}), session reads ({@code GET} on sessions) and booking writes
+ * (joining or leaving a session). Other endpoints, such as the teacher list, are not bounded and keep the
+ * remaining threads.
+ * <p>
+ * The permit is taken before the JWT filter, whose user lookup reaches the database, and held until the
+ * response is written. Requests refused a permit are answered 503 with a {@code Retry-After}.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+  private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  private static final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+  private static final String BOOKING_PATH = "/api/session/*/participate/*";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.bulkhead.auth.maxConcurrent}")
+  private int authMaxConcurrent;
+
+  @Value("${oc.app.bulkhead.sessionReads.maxConcurrent}")
+  private int sessionReadsMaxConcurrent;
+
+  @Value("${oc.app.bulkhead.bookingWrites.maxConcurrent}")
+  private int bookingWritesMaxConcurrent;
+
+  @Value("${oc.app.bulkhead.maxWaitMs}")
+  private long maxWaitMs;
+
+  private Bulkhead auth;
+
+  private Bulkhead sessionReads;
+
+  private Bulkhead bookingWrites;
+
+  @Override
+  protected void initFilterBean() {
+    if (auth != null) {
+      // Initialized as a bean, then again when the container registers the filter.
+      return;
+    }
+    auth = new Bulkhead("auth", authMaxConcurrent, maxWaitMs, meterRegistry);
+    sessionReads = new Bulkhead("sessionReads", sessionReadsMaxConcurrent, maxWaitMs, meterRegistry);
+    bookingWrites = new Bulkhead("bookingWrites", bookingWritesMaxConcurrent, maxWaitMs, meterRegistry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Bulkhead bulkhead = bulkheadFor(request);
+    if (bulkhead == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    boolean acquired;
+    try {
+      acquired = bulkhead.tryAcquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      reject(request, response, bulkhead);
+      return;
+    }
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  private Bulkhead bulkheadFor(HttpServletRequest request) {
+    String path = urlPathHelper.getPathWithinApplication(request);
+    String method = request.getMethod();
+    if (path.startsWith("/api/auth/")) {
+      return HttpMethod.OPTIONS.matches(method) ? null : auth;
+    }
+    if (pathMatcher.match(BOOKING_PATH, path)) {
+      return HttpMethod.POST.matches(method) || HttpMethod.DELETE.matches(method) ? bookingWrites : null;
+    }
+    if (HttpMethod.GET.matches(method)
+        && (path.equals("/api/session") || path.startsWith("/api/session/")
+        || pathMatcher.match("/api/user/*/sessions/**", path))) {
+      return sessionReads;
+    }
+    return null;
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, Bulkhead bulkhead) throws IOException {
+    logger.warn("Bulkhead {} full, rejecting {} {}", bulkhead.getName(), request.getMethod(), request.getRequestURI());
+
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+    final Map<String, Object> body = new HashMap<>();
+    body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+    body.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+    body.put("message", "Too many concurrent " + bulkhead.getName() + " requests, retry shortly");
+    body.put("path", request.getServletPath());
+
+    objectMapper.writeValue(response.getOutputStream(), body);
+  }
+}
@@ -0,0 +1,215 @@
+package com.openclassrooms.starterjwt.security.idempotency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.security.CachedBodyRequest;
+
+/**
+ * {@code Idempotency-Key} support for the endpoints clients retry: creating a session, registering, and joining
+ * or leaving a session. Login and refresh are left out, their responses carry credentials.
+ * <p>
+ * The first request carrying a key runs normally and its response is stored; a retry with the same key gets
+ * the stored response back, marked with {@code Idempotency-Replayed: true}, without reaching the controller
+ * or the database. Keys are scoped to the authenticated user. Reusing a key for a different request is
+ * answered with a 422, a retry arriving while the first request is still running with a 409. Server errors
+ * and authentication failures are not stored, so they can be retried, nor is a response carrying a token.
+ * <p>
+ * Runs after {@code AuthTokenFilter}, so the user is known.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+  public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  public static final String IDEMPOTENCY_REPLAYED = "Idempotency-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private static final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  private static final RequestMatcher IDEMPOTENT_ENDPOINTS = new OrRequestMatcher(
+      endpoint("/api/session", HttpMethod.POST),
+      endpoint("/api/auth/register", HttpMethod.POST),
+      endpoint("/api/session/*/participate/*", HttpMethod.POST),
+      endpoint("/api/session/*/participate/*", HttpMethod.DELETE));
+
+  /** A JSON field holding a credential, which must not outlive the response in the store. */
+  private static final Pattern CREDENTIAL_FIELD =
+      Pattern.compile("\"(token|accessToken|refreshToken|access_token|refresh_token)\"\\s*:");
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Autowired
+  private IdempotencyStore idempotencyStore;
+
+  @Value("${oc.app.idempotency.ttlMs}")
+  private long ttlMs;
+
+  @Value("${oc.app.idempotency.lockTtlMs}")
+  private long lockTtlMs;
+
+  @Value("${oc.app.idempotency.maxBodyBytes}")
+  private int maxBodyBytes;
+
+  @Value("${oc.app.idempotency.maxResponseBytes}")
+  private int maxResponseBytes;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return request.getHeader(IDEMPOTENCY_KEY) == null || !IDEMPOTENT_ENDPOINTS.matches(request);
+  }
+
+  private static RequestMatcher endpoint(String pattern, HttpMethod method) {
+    return new AntPathRequestMatcher(pattern, method.name(), true, urlPathHelper);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY).trim();
+    if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      reject(request, response, HttpStatus.BAD_REQUEST,
+          IDEMPOTENCY_KEY + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+      return;
+    }
+
+    CachedBodyRequest cachedRequest = CachedBodyRequest.read(request, maxBodyBytes);
+    if (cachedRequest == null) {
+      response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+      return;
+    }
+
+    String key = scope() + ":" + idempotencyKey;
+    String fingerprint = fingerprint(request, cachedRequest.getBody());
+    IdempotentResponse stored = idempotencyStore.reserve(key, fingerprint, lockTtlMs);
+    if (stored != null) {
+      if (!stored.getFingerprint().equals(fingerprint)) {
+        reject(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+            IDEMPOTENCY_KEY + " was already used for a different request");
+      } else if (!stored.isCompleted()) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        reject(request, response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY + " is in progress");
+      } else {
+        replay(stored, response);
+      }
+      return;
+    }
+
+    ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+    boolean completed = false;
+    try {
+      filterChain.doFilter(cachedRequest, cachingResponse);
+      completed = store(key, fingerprint, cachingResponse);
+    } finally {
+      if (!completed) {
+        idempotencyStore.release(key);
+      }
+      cachingResponse.copyBodyToResponse();
+    }
+  }
+
+  private boolean store(String key, String fingerprint, ContentCachingResponseWrapper response) {
+    int status = response.getStatus();
+    if (status >= 500 || status == HttpStatus.UNAUTHORIZED.value() || status == HttpStatus.FORBIDDEN.value()
+        || response.getContentSize() > maxResponseBytes || carriesCredentials(response)) {
+      return false;
+    }
+    idempotencyStore.complete(key, IdempotentResponse.completed(fingerprint, status, response.getContentType(),
+        response.getHeader(HttpHeaders.LOCATION), response.getContentAsByteArray()), ttlMs);
+    return true;
+  }
+
+  private static boolean carriesCredentials(ContentCachingResponseWrapper response) {
+    return CREDENTIAL_FIELD.matcher(new String(response.getContentAsByteArray(), StandardCharsets.UTF_8)).find();
+  }
+
+  private void replay(IdempotentResponse stored, HttpServletResponse response) throws IOException {
+    response.setStatus(stored.getStatus());
+    if (stored.getContentType() != null) {
+      response.setContentType(stored.getContentType());
+    }
+    if (stored.getLocation() != null) {
+      response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+    }
+    response.setHeader(IDEMPOTENCY_REPLAYED, "true");
+    response.setContentLength(stored.getBody().length);
+    response.getOutputStream().write(stored.getBody());
+  }
+
+  private static String scope() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication == null || !authentication.isAuthenticated()
+        ? "anonymous" : "user:" + authentication.getName();
+  }
+
+  /**
+   * Method, path, query and body: a retry must be the same request, byte for byte.
+   */
+  private static String fingerprint(HttpServletRequest request, byte[] body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) ' ');
+      digest.update(urlPathHelper.getPathWithinApplication(request).getBytes(StandardCharsets.UTF_8));
+      if (request.getQueryString() != null) {
+        digest.update((byte) '?');
+        digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+      }
+      digest.update((byte) '\n');
+      digest.update(body);
+      StringBuilder hex = new StringBuilder();
+      for (byte b : digest.digest()) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+      throws IOException {
+    logger.warn("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), message);
+
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+    final Map<String, Object> body = new HashMap<>();
+    body.put("status", status.value());
+    body.put("error", status.getReasonPhrase());
+    body.put("message", message);
+    body.put("path", request.getServletPath());
+
+    objectMapper.writeValue(response.getOutputStream(), body);
+  }
+}
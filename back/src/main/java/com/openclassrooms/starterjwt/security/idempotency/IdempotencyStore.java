@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.security.idempotency;
+
+/**
+ * Backend holding the responses replayed by {@link IdempotencyFilter}.
+ * <p>
+ * The default implementation is {@link InMemoryIdempotencyStore}, which only deduplicates retries that
+ * reach the same node. Declare another implementation as a {@code @Primary} bean to share keys between
+ * nodes (e.g. a Redis or database backed store); {@link #reserve} must then be atomic across nodes.
+ */
+public interface IdempotencyStore {
+
+  /**
+   * Claims {@code key} for a new request, unless it is already held.
+   * A claim that is neither completed nor released expires after {@code lockTtlMs}.
+   *
+   * @return {@code null} if the caller now holds the key and must run the request, otherwise what is stored
+   *     under it: a request still in flight or a completed response
+   */
+  IdempotentResponse reserve(String key, String fingerprint, long lockTtlMs);
+
+  /**
+   * Stores the response of the request holding {@code key}, to be replayed for {@code ttlMs}.
+   */
+  void complete(String key, IdempotentResponse response, long ttlMs);
+
+  /**
+   * Gives up the claim on {@code key} without storing anything, so the next retry runs the request again.
+   */
+  void release(String key);
+}
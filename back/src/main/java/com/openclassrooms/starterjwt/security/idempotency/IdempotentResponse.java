@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.security.idempotency;
+
+/**
+ * What an {@link IdempotencyStore} keeps under a key: the fingerprint of the request that claimed it and,
+ * once that request has completed, the response to replay to its retries.
+ */
+public final class IdempotentResponse {
+  private final String fingerprint;
+
+  private final boolean completed;
+
+  private final int status;
+
+  private final String contentType;
+
+  private final String location;
+
+  private final byte[] body;
+
+  private IdempotentResponse(String fingerprint, boolean completed, int status, String contentType,
+      String location, byte[] body) {
+    this.fingerprint = fingerprint;
+    this.completed = completed;
+    this.status = status;
+    this.contentType = contentType;
+    this.location = location;
+    this.body = body;
+  }
+
+  public static IdempotentResponse inFlight(String fingerprint) {
+    return new IdempotentResponse(fingerprint, false, 0, null, null, new byte[0]);
+  }
+
+  public static IdempotentResponse completed(String fingerprint, int status, String contentType, String location,
+      byte[] body) {
+    return new IdempotentResponse(fingerprint, true, status, contentType, location, body);
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public boolean isCompleted() {
+    return completed;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getLocation() {
+    return location;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.starterjwt.security.idempotency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-node {@link IdempotencyStore}. Keys are spread over independently locked stripes, each one an LRU map,
+ * so the store holds at most {@code maxKeys} responses; entries also expire after their time to live.
+ */
+@Component
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+  private static final int STRIPES = 64;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  private final LongSupplier nanoClock;
+
+  @Autowired
+  public InMemoryIdempotencyStore(@Value("${oc.app.idempotency.maxKeys}") int maxKeys) {
+    this(maxKeys, System::nanoTime);
+  }
+
+  InMemoryIdempotencyStore(int maxKeys, LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+    int maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(maxKeysPerStripe);
+    }
+  }
+
+  @Override
+  public IdempotentResponse reserve(String key, String fingerprint, long lockTtlMs) {
+    Stripe stripe = stripeFor(key);
+    long now = nanoClock.getAsLong();
+
+    synchronized (stripe) {
+      Entry entry = stripe.get(key);
+      if (entry != null && entry.expiresAt - now > 0) {
+        return entry.response;
+      }
+      long expiresAt = now + TimeUnit.MILLISECONDS.toNanos(lockTtlMs);
+      stripe.put(key, new Entry(IdempotentResponse.inFlight(fingerprint), expiresAt));
+      return null;
+    }
+  }
+
+  @Override
+  public void complete(String key, IdempotentResponse response, long ttlMs) {
+    Stripe stripe = stripeFor(key);
+    long now = nanoClock.getAsLong();
+
+    synchronized (stripe) {
+      stripe.put(key, new Entry(response, now + TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+    }
+  }
+
+  @Override
+  public void release(String key) {
+    Stripe stripe = stripeFor(key);
+
+    synchronized (stripe) {
+      stripe.remove(key);
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripeFor(String key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return stripes[h & (STRIPES - 1)];
+  }
+
+  private static final class Stripe extends LinkedHashMap<String, Entry> {
+    private final int maxKeys;
+
+    Stripe(int maxKeys) {
+      super(16, 0.75f, true);
+      this.maxKeys = maxKeys;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > maxKeys;
+    }
+  }
+
+  private static final class Entry {
+    private final IdempotentResponse response;
+
+    private final long expiresAt;
+
+    Entry(IdempotentResponse response, long expiresAt) {
+      this.response = response;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
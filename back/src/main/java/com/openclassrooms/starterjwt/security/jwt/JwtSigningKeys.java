@@ -0,0 +1,209 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+/**
+ * The ES256 key pairs access tokens are signed with, looked up by the {@code kid} header when a token is verified.
+ * <p>
+ * Keys come from the PKCS12 key store {@code oc.app.jwtKeyStore}, one EC P-256 entry per alias, the alias being
+ * the {@code kid}. Rotating means adding an entry, pointing {@code oc.app.jwtActiveKeyId} at it and removing the
+ * previous entry once the tokens it signed have expired.
+ * <p>
+ * Generated keys are only for a single node, since every node would sign with its own: they have to be enabled
+ * with {@code oc.app.jwtGenerateKeys}, as the test profile does, and startup fails without a key store otherwise.
+ * A generated key pair is rotated every {@code oc.app.jwtKeyRotationIntervalMs}; the next key is published in the
+ * JWKS one period before it signs anything, so verifiers caching the key set never see an unknown {@code kid}.
+ */
+@Component
+public class JwtSigningKeys extends SigningKeyResolverAdapter {
+  private static final Logger logger = LoggerFactory.getLogger(JwtSigningKeys.class);
+
+  static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.ES256;
+
+  private final Map<String, SigningKey> keys = new ConcurrentHashMap<>();
+
+  private final boolean generated;
+
+  private final long jwtExpirationMs;
+
+  private volatile SigningKey active;
+
+  private volatile SigningKey next;
+
+  public JwtSigningKeys(@Value("${oc.app.jwtKeyStore:}") String keyStore,
+      @Value("${oc.app.jwtKeyStorePassword:}") String keyStorePassword,
+      @Value("${oc.app.jwtActiveKeyId:}") String activeKeyId,
+      @Value("${oc.app.jwtGenerateKeys:false}") boolean generateKeys,
+      @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs) throws GeneralSecurityException, IOException {
+    this.jwtExpirationMs = jwtExpirationMs;
+    this.generated = !StringUtils.hasText(keyStore);
+    if (generated && !generateKeys) {
+      throw new IllegalStateException("oc.app.jwtKeyStore must be set unless oc.app.jwtGenerateKeys is enabled");
+    }
+    if (generated) {
+      logger.warn("No JWT key store configured, signing with a generated key that other nodes do not share");
+      active = add(generate());
+      next = add(generate());
+    } else {
+      load(keyStore, keyStorePassword.toCharArray());
+      active = StringUtils.hasText(activeKeyId) ? keys.get(activeKeyId)
+          : keys.size() == 1 ? keys.values().iterator().next() : null;
+      if (active == null) {
+        throw new IllegalStateException("oc.app.jwtActiveKeyId must name one of the keys of " + keyStore);
+      }
+    }
+  }
+
+  SigningKey active() {
+    return active;
+  }
+
+  @Override
+  public Key resolveSigningKey(JwsHeader header, Claims claims) {
+    if (!ALGORITHM.getValue().equals(header.getAlgorithm())) {
+      throw new UnsupportedJwtException("JWT algorithm " + header.getAlgorithm() + " is not accepted");
+    }
+    SigningKey key = header.getKeyId() == null ? null : keys.get(header.getKeyId());
+    if (key == null) {
+      throw new SignatureException("Unknown JWT key id: " + header.getKeyId());
+    }
+    return key.getPublicKey();
+  }
+
+  /**
+   * Promotes the published next key and retires the active one, which keeps verifying the tokens it signed
+   * until they have expired. Only generated keys are rotated here, key store keys are rotated by configuration.
+   */
+  @Scheduled(initialDelayString = "${oc.app.jwtKeyRotationIntervalMs}",
+      fixedDelayString = "${oc.app.jwtKeyRotationIntervalMs}")
+  public synchronized void rotate() throws GeneralSecurityException {
+    if (!generated) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    keys.values().removeIf(key -> key.retiredAt > 0 && key.retiredAt + jwtExpirationMs < now);
+
+    active.retiredAt = now;
+    active = next;
+    next = add(generate());
+    logger.info("Rotated JWT signing key, now signing with {}", active.getId());
+  }
+
+  /**
+   * The public half of every key still in use, as a JSON Web Key Set (RFC 7517).
+   */
+  public Map<String, Object> publicJwks() {
+    List<Map<String, Object>> jwks = new ArrayList<>();
+    for (SigningKey key : keys.values()) {
+      ECPublicKey publicKey = (ECPublicKey) key.getPublicKey();
+      Map<String, Object> jwk = new LinkedHashMap<>();
+      jwk.put("kty", "EC");
+      jwk.put("crv", "P-256");
+      jwk.put("use", "sig");
+      jwk.put("alg", ALGORITHM.getValue());
+      jwk.put("kid", key.getId());
+      jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+      jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+      jwks.add(jwk);
+    }
+    return Collections.singletonMap("keys", jwks);
+  }
+
+  private SigningKey add(SigningKey key) {
+    keys.put(key.getId(), key);
+    return key;
+  }
+
+  private void load(String location, char[] password) throws GeneralSecurityException, IOException {
+    KeyStore store = KeyStore.getInstance("PKCS12");
+    try (InputStream in = ResourceUtils.getURL(location).openStream()) {
+      store.load(in, password);
+    }
+    Enumeration<String> aliases = store.aliases();
+    while (aliases.hasMoreElements()) {
+      String alias = aliases.nextElement();
+      Key key = store.getKey(alias, password);
+      if (key instanceof PrivateKey && "EC".equals(key.getAlgorithm())) {
+        PublicKey publicKey = store.getCertificate(alias).getPublicKey();
+        add(new SigningKey(alias, new KeyPair(publicKey, (PrivateKey) key)));
+      }
+    }
+  }
+
+  private static SigningKey generate() throws GeneralSecurityException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    return new SigningKey(UUID.randomUUID().toString(), generator.generateKeyPair());
+  }
+
+  /**
+   * A P-256 coordinate as the unsigned, 32 byte, base64url value JWK expects.
+   */
+  private static String coordinate(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    byte[] fixed = new byte[32];
+    int length = Math.min(bytes.length, fixed.length);
+    System.arraycopy(bytes, bytes.length - length, fixed, fixed.length - length, length);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+  }
+
+  static final class SigningKey {
+    private final String id;
+
+    private final KeyPair keyPair;
+
+    private volatile long retiredAt;
+
+    SigningKey(String id, KeyPair keyPair) {
+      this.id = id;
+      this.keyPair = keyPair;
+    }
+
+    String getId() {
+      return id;
+    }
+
+    PrivateKey getPrivateKey() {
+      return keyPair.getPrivate();
+    }
+
+    PublicKey getPublicKey() {
+      return keyPair.getPublic();
+    }
+  }
+}
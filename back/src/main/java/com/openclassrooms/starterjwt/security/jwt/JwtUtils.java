@@ -1,9 +1,11 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.util.Date;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -16,8 +18,8 @@ import io.jsonwebtoken.*;
 public class JwtUtils {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-  @Value("${oc.app.jwtSecret}")
-  private String jwtSecret;
+  @Autowired
+  private JwtSigningKeys signingKeys;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
@@ -26,22 +28,40 @@ public class JwtUtils {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+    return generateTokenFromUsername(userPrincipal.getUsername());
+  }
+
+  /**
+   * Issues a short-lived access token. Its {@code jti} lets {@link TokenRevocationList} revoke it alone,
+   * its {@code kid} tells verifiers which key of the JWKS signed it.
+   */
+  public String generateTokenFromUsername(String username) {
+    JwtSigningKeys.SigningKey key = signingKeys.active();
+    Date now = new Date();
     return Jwts.builder()
-        .setSubject((userPrincipal.getUsername()))
-        .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setHeaderParam(JwsHeader.KEY_ID, key.getId())
+        .setId(UUID.randomUUID().toString())
+        .setSubject(username)
+        .setIssuedAt(now)
+        .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+        .signWith(JwtSigningKeys.ALGORITHM, key.getPrivateKey())
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtClaims(authToken) != null;
+  }
+
+  /**
+   * Verifies the token and returns its claims, or {@code null} when it is invalid or expired.
+   */
+  public Claims parseJwtClaims(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(authToken).getBody();
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
     } catch (MalformedJwtException e) {
@@ -54,6 +74,6 @@ public class JwtUtils {
       logger.error("JWT claims string is empty: {}", e.getMessage());
     }
 
-    return false;
+    return null;
   }
 }
@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.Serializable;
+
+import lombok.Value;
+
+/**
+ * A revocation broadcast to the other nodes: one token by its {@code jti}, valid until {@code instant}, or
+ * every token of {@code subject} issued up to {@code instant}.
+ */
+@Value
+public class TokenRevocation implements Serializable {
+  String tokenId;
+
+  String subject;
+
+  long instant;
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.cache.CacheInvalidation;
+import com.openclassrooms.starterjwt.cache.CacheInvalidationBus;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+
+/**
+ * Access tokens revoked before they expire, checked by {@link AuthTokenFilter} on every request.
+ * <p>
+ * A token is revoked either individually by its {@code jti}, or because every token of its subject
+ * issued up to a given instant was revoked (deleted account, refresh token reuse). A check is two hash
+ * lookups and allocates nothing. Entries are dropped once the tokens they cover have expired anyway,
+ * so the list stays as small as the number of revocations within one access token lifetime.
+ * <p>
+ * Every revocation is also broadcast to the other nodes on the {@link CacheInvalidationBus}, on the
+ * {@link CacheNames#TOKEN_REVOCATIONS} channel, so a token revoked on one node is refused by all of them.
+ */
+@Component
+public class TokenRevocationList {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+  private final Map<String, Long> revokedIds = new ConcurrentHashMap<>();
+
+  private final Map<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+
+  @Value("${oc.app.jwtExpirationMs}")
+  private long jwtExpirationMs;
+
+  @Autowired
+  private CacheInvalidationBus bus;
+
+  @PostConstruct
+  public void subscribe() {
+    bus.subscribe(this::onInvalidation);
+  }
+
+  public boolean isRevoked(String tokenId, String subject, long issuedAtMillis) {
+    if (tokenId != null && revokedIds.containsKey(tokenId)) {
+      return true;
+    }
+    Long revokedAt = revokedSubjects.get(subject);
+    // iat has a one second resolution: a token issued in the same second as the revocation is revoked too.
+    return revokedAt != null && issuedAtMillis <= revokedAt;
+  }
+
+  public void revoke(String tokenId, long expiresAtMillis) {
+    TokenRevocation revocation = new TokenRevocation(tokenId, null, expiresAtMillis);
+    apply(revocation);
+    broadcast(revocation);
+  }
+
+  public void revokeAllFor(String subject) {
+    TokenRevocation revocation = new TokenRevocation(null, subject, System.currentTimeMillis());
+    apply(revocation);
+    broadcast(revocation);
+  }
+
+  private void broadcast(TokenRevocation revocation) {
+    try {
+      // Applied again when the bus delivers it back to this node, which is harmless.
+      bus.publish(new CacheInvalidation(null, CacheNames.TOKEN_REVOCATIONS, revocation));
+    } catch (RuntimeException e) {
+      logger.error("Cannot broadcast {}", revocation, e);
+    }
+  }
+
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (CacheNames.TOKEN_REVOCATIONS.equals(invalidation.getCacheName())
+        && invalidation.getKey() instanceof TokenRevocation) {
+      apply((TokenRevocation) invalidation.getKey());
+    }
+  }
+
+  private void apply(TokenRevocation revocation) {
+    if (revocation.getTokenId() != null) {
+      revokedIds.merge(revocation.getTokenId(), revocation.getInstant(), Math::max);
+    } else {
+      revokedSubjects.merge(revocation.getSubject(), revocation.getInstant(), Math::max);
+    }
+  }
+
+  int size() {
+    return revokedIds.size() + revokedSubjects.size();
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.revocationPurgeIntervalMs}")
+  public void purge() {
+    long now = System.currentTimeMillis();
+    revokedIds.values().removeIf(expiresAt -> expiresAt < now);
+    revokedSubjects.values().removeIf(revokedAt -> revokedAt + jwtExpirationMs < now);
+  }
+}
@@ -0,0 +1,106 @@
+package com.openclassrooms.starterjwt.security.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-node {@link RateLimitStore}. Buckets are spread over a fixed number of independently locked
+ * stripes, each one an LRU map, so concurrent requests rarely contend and the number of tracked keys
+ * stays bounded no matter how many addresses or emails are thrown at the endpoints.
+ */
+@Component
+public class InMemoryRateLimitStore implements RateLimitStore {
+  private static final int STRIPES = 64;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  private final LongSupplier nanoClock;
+
+  @Autowired
+  public InMemoryRateLimitStore(@Value("${oc.app.rateLimit.maxKeys}") int maxKeys) {
+    this(maxKeys, System::nanoTime);
+  }
+
+  InMemoryRateLimitStore(int maxKeys, LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+    int maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(maxKeysPerStripe);
+    }
+  }
+
+  @Override
+  public long tryConsume(String key, int capacity, long refillPeriodNanos) {
+    Stripe stripe = stripeFor(key);
+    long now = nanoClock.getAsLong();
+
+    synchronized (stripe) {
+      Bucket bucket = stripe.get(key);
+      if (bucket == null) {
+        bucket = new Bucket(capacity, now);
+        stripe.put(key, bucket);
+      }
+      return bucket.tryConsume(capacity, refillPeriodNanos, now);
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripeFor(String key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return stripes[h & (STRIPES - 1)];
+  }
+
+  private static final class Stripe extends LinkedHashMap<String, Bucket> {
+    private final int maxKeys;
+
+    Stripe(int maxKeys) {
+      super(16, 0.75f, true);
+      this.maxKeys = maxKeys;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+      return size() > maxKeys;
+    }
+  }
+
+  private static final class Bucket {
+    private double tokens;
+    private long lastRefill;
+
+    Bucket(int capacity, long now) {
+      this.tokens = capacity;
+      this.lastRefill = now;
+    }
+
+    long tryConsume(int capacity, long refillPeriodNanos, long now) {
+      double nanosPerToken = (double) refillPeriodNanos / capacity;
+      long elapsed = now - lastRefill;
+      if (elapsed > 0) {
+        tokens = Math.min(capacity, tokens + elapsed / nanosPerToken);
+        lastRefill = now;
+      }
+
+      if (tokens >= 1) {
+        tokens -= 1;
+        return 0;
+      }
+      return (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.openclassrooms.starterjwt.security.ratelimit;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.security.CachedBodyRequest;
+
+/**
+ * Token-bucket throttling for the public {@code /api/auth/**} endpoints.
+ * <p>
+ * Every request is charged against the client address; login and register requests are also charged
+ * against the email found in their body. Throttled requests are answered with a 429 before the
+ * request reaches the authentication manager, so they never cost a BCrypt hash or a database query.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+  private static final String AUTH_PATH = "/api/auth/";
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  @Autowired
+  private RateLimitStore rateLimitStore;
+
+  @Value("${oc.app.rateLimit.ipCapacity}")
+  private int ipCapacity;
+
+  @Value("${oc.app.rateLimit.ipRefillPeriodMs}")
+  private long ipRefillPeriodMs;
+
+  @Value("${oc.app.rateLimit.emailCapacity}")
+  private int emailCapacity;
+
+  @Value("${oc.app.rateLimit.emailRefillPeriodMs}")
+  private long emailRefillPeriodMs;
+
+  @Value("${oc.app.rateLimit.maxBodyBytes}")
+  private int maxBodyBytes;
+
+  @Value("${oc.app.rateLimit.trustForwardedFor}")
+  private boolean trustForwardedFor;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return HttpMethod.OPTIONS.matches(request.getMethod())
+        || !urlPathHelper.getPathWithinApplication(request).startsWith(AUTH_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long waitNanos = rateLimitStore.tryConsume("ip:" + clientAddress(request), ipCapacity,
+        TimeUnit.MILLISECONDS.toNanos(ipRefillPeriodMs));
+    if (waitNanos > 0) {
+      reject(request, response, waitNanos);
+      return;
+    }
+
+    if (!HttpMethod.POST.matches(request.getMethod())) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    CachedBodyRequest cachedRequest = CachedBodyRequest.read(request, maxBodyBytes);
+    if (cachedRequest == null) {
+      response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+      return;
+    }
+
+    String email = extractEmail(cachedRequest.getBody());
+    if (email != null) {
+      waitNanos = rateLimitStore.tryConsume("email:" + email, emailCapacity,
+          TimeUnit.MILLISECONDS.toNanos(emailRefillPeriodMs));
+      if (waitNanos > 0) {
+        reject(request, response, waitNanos);
+        return;
+      }
+    }
+
+    filterChain.doFilter(cachedRequest, response);
+  }
+
+  private String clientAddress(HttpServletRequest request) {
+    if (trustForwardedFor) {
+      String forwardedFor = request.getHeader("X-Forwarded-For");
+      if (StringUtils.hasText(forwardedFor)) {
+        int comma = forwardedFor.indexOf(',');
+        return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+      }
+    }
+    return request.getRemoteAddr();
+  }
+
+  private String extractEmail(byte[] body) {
+    if (body.length == 0) {
+      return null;
+    }
+    try {
+      JsonNode email = objectMapper.readTree(body).path("email");
+      if (email.isTextual() && StringUtils.hasText(email.asText())) {
+        return email.asText().trim().toLowerCase(Locale.ROOT);
+      }
+    } catch (IOException e) {
+      // Malformed bodies are left to the controller, which answers 400.
+    }
+    return null;
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    logger.warn("Rate limit exceeded for {} on {}", clientAddress(request), request.getRequestURI());
+
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+    final Map<String, Object> body = new HashMap<>();
+    body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+    body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+    body.put("message", "Too many requests, retry in " + retryAfterSeconds + "s");
+    body.put("path", request.getServletPath());
+
+    objectMapper.writeValue(response.getOutputStream(), body);
+  }
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.security.ratelimit;
+
+/**
+ * Backend holding the token buckets used by {@link RateLimitFilter}.
+ * <p>
+ * The default implementation is {@link InMemoryRateLimitStore}, which limits each node
+ * independently. Declare another implementation as a {@code @Primary} bean to share
+ * buckets between nodes (e.g. a Redis or database backed store).
+ */
+public interface RateLimitStore {
+
+  /**
+   * Tries to take one token from the bucket identified by {@code key}.
+   * A bucket holds at most {@code capacity} tokens and is fully refilled over {@code refillPeriodNanos}.
+   *
+   * @return 0 if a token was granted, otherwise the number of nanoseconds to wait for the next token
+   */
+  long tryConsume(String key, int capacity, long refillPeriodNanos);
+}
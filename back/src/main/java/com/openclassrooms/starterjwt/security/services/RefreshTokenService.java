@@ -0,0 +1,126 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+
+/**
+ * Issues and rotates opaque refresh tokens. Every refresh revokes the presented token and issues a new one
+ * in the same family; presenting an already rotated token means it leaked, so the whole family and the
+ * user's access tokens are revoked.
+ */
+@Service
+public class RefreshTokenService {
+  private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+  private static final SecureRandom secureRandom = new SecureRandom();
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final TokenRevocationList tokenRevocationList;
+
+  private final long refreshTokenExpirationMs;
+
+  public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+      TokenRevocationList tokenRevocationList,
+      @Value("${oc.app.refreshTokenExpirationMs}") long refreshTokenExpirationMs) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.tokenRevocationList = tokenRevocationList;
+    this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+  }
+
+  @Transactional
+  public String issue(User user) {
+    return issue(user, UUID.randomUUID().toString());
+  }
+
+  /**
+   * Exchanges a refresh token for a new one, or returns empty when it is unknown, expired or reused.
+   * Reuse detection is committed even though the refresh is refused.
+   */
+  @Transactional
+  public Optional<Rotation> rotate(String token) {
+    RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token)).orElse(null);
+    if (current == null) {
+      return Optional.empty();
+    }
+
+    if (current.isRevoked()) {
+      logger.warn("Refresh token reuse detected for user {}, revoking its sessions", current.getUser().getId());
+      refreshTokenRepository.revokeFamily(current.getFamilyId());
+      tokenRevocationList.revokeAllFor(current.getUser().getEmail());
+      return Optional.empty();
+    }
+
+    if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+      return Optional.empty();
+    }
+
+    current.setRevoked(true);
+    String next = issue(current.getUser(), current.getFamilyId());
+    return Optional.of(new Rotation(current.getUser(), next));
+  }
+
+  @Transactional
+  public void revokeAll(Long userId) {
+    refreshTokenRepository.revokeAllOfUser(userId);
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.revocationPurgeIntervalMs}")
+  @Transactional
+  public void purgeExpired() {
+    refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+  }
+
+  private String issue(User user, String familyId) {
+    byte[] random = new byte[32];
+    secureRandom.nextBytes(random);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+    LocalDateTime now = LocalDateTime.now();
+    refreshTokenRepository.save(new RefreshToken()
+        .setUser(user)
+        .setTokenHash(hash(token))
+        .setFamilyId(familyId)
+        .setCreatedAt(now)
+        .setExpiresAt(now.plus(refreshTokenExpirationMs, ChronoUnit.MILLIS)));
+    return token;
+  }
+
+  static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @lombok.Value
+  public static class Rotation {
+    User user;
+    String refreshToken;
+  }
+}
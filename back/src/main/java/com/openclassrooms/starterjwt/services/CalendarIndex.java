@@ -0,0 +1,322 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.CacheInvalidation;
+import com.openclassrooms.starterjwt.cache.CacheInvalidationBus;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This node's copy of the session schedule: start times in sorted sets, for the whole calendar and per
+ * teacher, so date-range views are a sub-set walk instead of a query.
+ * <p>
+ * Loaded in the background once the application is ready and again every {@code oc.app.calendar.rebuildIntervalMs}.
+ * The ids of the sessions created, moved or deleted on this node are broadcast on the {@link CacheInvalidationBus}
+ * once committed, and every node reads those sessions again, before the writers' lock is taken; the reload makes
+ * up for any message lost on the way. Until the first load completes, and from a checkpoint until the reload that
+ * follows the restore, {@link #isReady()} is false and callers must ask the database. Being behind the other
+ * nodes, it is never used to decide whether a teacher is free.
+ */
+@Component
+@Log4j2
+public class CalendarIndex {
+    private final SessionRepository sessionRepository;
+
+    private final CacheInvalidationBus bus;
+
+    private final long rebuildIntervalMs;
+
+    private final long sessionDurationMs;
+
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+
+    private volatile Calendar calendar = new Calendar();
+
+    private volatile boolean ready;
+
+    /**
+     * Set from a checkpoint to the restore, when the calendar is empty and must not be loaded.
+     */
+    private boolean suspended;
+
+    /**
+     * Identifies the changes this node broadcast, which it has applied already.
+     */
+    private volatile String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Changes committed while a rebuild runs, replayed on the rebuilt calendar; {@code null} otherwise.
+     */
+    private List<Update> pending;
+
+    public CalendarIndex(SessionRepository sessionRepository,
+                         CacheInvalidationBus bus,
+                         @Value("${oc.app.calendar.rebuildIntervalMs}") long rebuildIntervalMs,
+                         @Value("${oc.app.calendar.sessionDurationMs}") long sessionDurationMs) {
+        this.sessionRepository = sessionRepository;
+        this.bus = bus;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.sessionDurationMs = sessionDurationMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calendar-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bus.subscribe(this::onInvalidation);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.executor.scheduleWithFixedDelay(this::rebuild, 0, this.rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    public long getSessionDurationMs() {
+        return this.sessionDurationMs;
+    }
+
+    /**
+     * Ids of the sessions starting in {@code [from, to)}, earliest first.
+     */
+    public List<Long> between(Date from, Date to) {
+        return ids(range(this.calendar.all, from.getTime(), to.getTime()));
+    }
+
+    /**
+     * Ids of the teacher's sessions starting in {@code [from, to)}, earliest first.
+     */
+    public List<Long> ofTeacherBetween(Long teacherId, Date from, Date to) {
+        NavigableSet<Entry> agenda = this.calendar.byTeacher.get(teacherId);
+        return agenda == null ? new ArrayList<>() : ids(range(agenda, from.getTime(), to.getTime()));
+    }
+
+    /**
+     * Empties the calendar before a checkpoint: the image may be restored long after the sessions have
+     * changed. Callers ask the database until {@link #resume()} has reloaded it.
+     */
+    public void suspend() {
+        synchronized (this.lock) {
+            this.suspended = true;
+            this.ready = false;
+            this.calendar = new Calendar();
+        }
+    }
+
+    /**
+     * Reloads the calendar after a restore, under a new node id: the nodes restored from one image would
+     * otherwise ignore each other's changes.
+     */
+    public void resume() {
+        this.nodeId = UUID.randomUUID().toString();
+        synchronized (this.lock) {
+            this.suspended = false;
+        }
+        try {
+            this.executor.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            log.warn("Calendar index not reloaded, shutting down");
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        switch (event.getChange()) {
+            case CREATED:
+            case UPDATED:
+            case DELETED:
+                break;
+            default:
+                return;
+        }
+        this.onChange(event.getSessionId());
+        try {
+            this.bus.publish(new CacheInvalidation(this.nodeId, CacheNames.CALENDAR, event.getSessionId()));
+        } catch (RuntimeException e) {
+            log.error("Cannot broadcast the change of session {}", event.getSessionId(), e);
+        }
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (CacheNames.CALENDAR.equals(invalidation.getCacheName())
+                && !this.nodeId.equals(invalidation.getOriginNodeId())
+                && invalidation.getKey() instanceof Long) {
+            this.onChange((Long) invalidation.getKey());
+        }
+    }
+
+    /**
+     * Reads the session as committed, nothing when it was deleted, and puts it in place of the previous entry.
+     */
+    private void onChange(Long sessionId) {
+        List<Entry> entries = new ArrayList<>();
+        forEachEntry(this.sessionRepository.findCalendarEntry(sessionId), entries::add);
+        Update update = new Update(sessionId, entries);
+        synchronized (this.lock) {
+            if (this.pending != null) {
+                this.pending.add(update);
+            }
+            if (this.ready) {
+                update.applyTo(this.calendar);
+            }
+        }
+    }
+
+    void rebuild() {
+        synchronized (this.lock) {
+            if (this.suspended) {
+                return;
+            }
+            this.pending = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            Calendar rebuilt = new Calendar();
+            forEachEntry(this.sessionRepository.findCalendarEntries(), rebuilt::put);
+
+            synchronized (this.lock) {
+                if (this.suspended) {
+                    return;
+                }
+                this.pending.forEach(update -> update.applyTo(rebuilt));
+                this.calendar = rebuilt;
+                this.ready = true;
+            }
+            log.info("Calendar index loaded: {} session(s) in {} ms", rebuilt.byId.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Calendar index rebuild failed, keeping the previous one", e);
+        } finally {
+            synchronized (this.lock) {
+                this.pending = null;
+            }
+        }
+    }
+
+    /**
+     * Skips the sessions without a date, which the legacy schema allows: they are on no calendar.
+     */
+    private static void forEachEntry(List<Object[]> rows, Consumer<Entry> action) {
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                action.accept(new Entry(((Number) row[0]).longValue(), ((Date) row[1]).getTime(),
+                        row[2] == null ? null : ((Number) row[2]).longValue()));
+            }
+        }
+    }
+
+    private static NavigableSet<Entry> range(NavigableSet<Entry> entries, long from, long to) {
+        if (from >= to) {
+            return new ConcurrentSkipListSet<>();
+        }
+        return entries.subSet(new Entry(Long.MIN_VALUE, from, null), true, new Entry(Long.MIN_VALUE, to, null), false);
+    }
+
+    private static List<Long> ids(Collection<Entry> entries) {
+        List<Long> ids = new ArrayList<>(entries.size());
+        entries.forEach(entry -> ids.add(entry.id));
+        return ids;
+    }
+
+    /**
+     * A session removed from the calendar, then put back as it was read after the commit unless deleted.
+     */
+    static final class Update {
+        private final Long sessionId;
+
+        private final List<Entry> entries;
+
+        Update(Long sessionId, List<Entry> entries) {
+            this.sessionId = sessionId;
+            this.entries = entries;
+        }
+
+        void applyTo(Calendar target) {
+            target.remove(this.sessionId);
+            this.entries.forEach(target::put);
+        }
+    }
+
+    /**
+     * The sets are concurrent, so readers walk them while writers, holding the lock, update them.
+     */
+    static final class Calendar {
+        final NavigableSet<Entry> all = new ConcurrentSkipListSet<>();
+
+        final Map<Long, NavigableSet<Entry>> byTeacher = new ConcurrentHashMap<>();
+
+        final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+        void put(Entry entry) {
+            this.byId.put(entry.id, entry);
+            this.all.add(entry);
+            if (entry.teacherId != null) {
+                this.byTeacher.computeIfAbsent(entry.teacherId, id -> new ConcurrentSkipListSet<>()).add(entry);
+            }
+        }
+
+        void remove(Long id) {
+            Entry entry = this.byId.remove(id);
+            if (entry == null) {
+                return;
+            }
+            this.all.remove(entry);
+            if (entry.teacherId != null) {
+                this.byTeacher.computeIfPresent(entry.teacherId, (teacherId, agenda) -> {
+                    agenda.remove(entry);
+                    return agenda.isEmpty() ? null : agenda;
+                });
+            }
+        }
+    }
+
+    static final class Entry implements Comparable<Entry> {
+        final Long id;
+
+        final long start;
+
+        final Long teacherId;
+
+        Entry(long id, long start, Long teacherId) {
+            this.id = id;
+            this.start = start;
+            this.teacherId = teacherId;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byStart = Long.compare(this.start, other.start);
+            return byStart != 0 ? byStart : Long.compare(this.id, other.id);
+        }
+    }
+}
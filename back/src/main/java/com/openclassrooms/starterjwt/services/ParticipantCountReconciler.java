@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically compares {@code SESSIONS.participant_count} with {@code PARTICIPATE} and repairs the
+ * sessions that drifted, for instance after a manual fix in the database.
+ */
+@Component
+@Log4j2
+public class ParticipantCountReconciler {
+    private final SessionService sessionService;
+
+    public ParticipantCountReconciler(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.participantCount.reconcileIntervalMs}",
+            initialDelayString = "${oc.app.participantCount.reconcileIntervalMs}")
+    public void reconcile() {
+        List<Long> drifted = this.sessionService.findParticipantCountDrift();
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        log.warn("Participant count drift on session(s) {}, repairing", drifted);
+        for (Long id : drifted) {
+            try {
+                this.sessionService.repairParticipantCount(id);
+            } catch (RuntimeException e) {
+                log.error("Cannot repair participant count of session {}", id, e);
+            }
+        }
+    }
+}
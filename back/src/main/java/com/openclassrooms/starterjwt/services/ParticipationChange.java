@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * A committed change to {@code PARTICIPATE}, applied by {@link ParticipationIndex} and broadcast to the other
+ * nodes on the {@link com.openclassrooms.starterjwt.cache.CacheNames#PARTICIPATIONS} channel.
+ * {@code userId} is unset for whole session changes, {@code sessionId} for a deleted user.
+ */
+@Value
+public class ParticipationChange implements Serializable {
+    Type type;
+    Long sessionId;
+    Long userId;
+
+    public enum Type {
+        JOINED,
+        LEFT,
+        /** Created or updated, the participants are read again. */
+        SESSION_CHANGED,
+        SESSION_DELETED,
+        USER_DELETED
+    }
+}
@@ -0,0 +1,457 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.CacheInvalidation;
+import com.openclassrooms.starterjwt.cache.CacheInvalidationBus;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import lombok.extern.log4j.Log4j2;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This node's copy of {@code PARTICIPATE}, as compressed bitmaps of user ids per session and of session ids
+ * per user, indexed by id: membership checks and counts are an array read and a bitmap probe.
+ * <p>
+ * The index is loaded in the background once the application is ready and reloaded every
+ * {@code oc.app.participationIndex.rebuildIntervalMs}. Changes committed on this node are applied as they
+ * happen and broadcast on the {@link CacheInvalidationBus}, which delivers those of the other nodes; the
+ * reload makes up for any message lost on the way. Changes arriving while a reload runs are replayed on
+ * the reloaded tables. Bitmaps are never modified once published, so readers take no lock, and the
+ * participants of a changed session are read before the writers' lock is taken. Until the first load
+ * completes, and from a checkpoint until the reload that follows the restore, {@link #isReady()} is false
+ * and callers must ask the database.
+ * <p>
+ * The locked read in {@link SessionService#participate} stays the authority on who attends a session.
+ */
+@Component
+@Log4j2
+public class ParticipationIndex {
+    private final SessionRepository sessionRepository;
+
+    private final CacheInvalidationBus bus;
+
+    private final long rebuildIntervalMs;
+
+    private final int batchSize;
+
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+
+    private volatile Tables tables = new Tables(new RoaringBitmap[0], new RoaringBitmap[0]);
+
+    private volatile boolean ready;
+
+    /**
+     * Set from a checkpoint to the restore, when the index is empty and must not be loaded.
+     */
+    private boolean suspended;
+
+    /**
+     * Identifies the changes this node broadcast, which it has applied already.
+     */
+    private volatile String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Changes committed while a rebuild runs, replayed on the rebuilt tables; {@code null} otherwise.
+     */
+    private List<Update> pending;
+
+    public ParticipationIndex(SessionRepository sessionRepository,
+                              CacheInvalidationBus bus,
+                              @Value("${oc.app.participationIndex.rebuildIntervalMs}") long rebuildIntervalMs,
+                              @Value("${oc.app.participationIndex.batchSize}") int batchSize) {
+        this.sessionRepository = sessionRepository;
+        this.bus = bus;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.batchSize = batchSize;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "participation-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bus.subscribe(this::onInvalidation);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.executor.scheduleWithFixedDelay(this::rebuild, 0, this.rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    public boolean isParticipant(long sessionId, long userId) {
+        RoaringBitmap users = this.tables.usersBySession.get(sessionId);
+        return users != null && userId <= Integer.MAX_VALUE && users.contains((int) userId);
+    }
+
+    public int participantCount(long sessionId) {
+        RoaringBitmap users = this.tables.usersBySession.get(sessionId);
+        return users == null ? 0 : users.getCardinality();
+    }
+
+    /**
+     * The sessions attended by the user, in id order.
+     */
+    public List<Long> sessionsOf(long userId) {
+        RoaringBitmap sessions = this.tables.sessionsByUser.get(userId);
+        if (sessions == null) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(sessions.getCardinality());
+        sessions.forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+
+    /**
+     * Bytes held by the bitmaps, for sizing.
+     */
+    public long sizeInBytes() {
+        return this.tables.usersBySession.sizeInBytes() + this.tables.sessionsByUser.sizeInBytes();
+    }
+
+    /**
+     * Empties the index before a checkpoint: the image may be restored long after {@code PARTICIPATE} has
+     * changed. Callers ask the database until {@link #resume()} has reloaded it.
+     */
+    public void suspend() {
+        synchronized (this.lock) {
+            this.suspended = true;
+            this.ready = false;
+            this.tables = new Tables(new RoaringBitmap[0], new RoaringBitmap[0]);
+        }
+    }
+
+    /**
+     * Reloads the index after a restore, under a new node id: the nodes restored from one image would
+     * otherwise ignore each other's changes.
+     */
+    public void resume() {
+        this.nodeId = UUID.randomUUID().toString();
+        synchronized (this.lock) {
+            this.suspended = false;
+        }
+        try {
+            this.executor.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            log.warn("Participation index not reloaded, shutting down");
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        ParticipationChange.Type type;
+        switch (event.getChange()) {
+            case PARTICIPANT_JOINED:
+                type = ParticipationChange.Type.JOINED;
+                break;
+            case PARTICIPANT_LEFT:
+                type = ParticipationChange.Type.LEFT;
+                break;
+            case DELETED:
+                type = ParticipationChange.Type.SESSION_DELETED;
+                break;
+            case CREATED:
+            case UPDATED:
+                // Creates and updates carry a whole participant list.
+                type = ParticipationChange.Type.SESSION_CHANGED;
+                break;
+            default:
+                return;
+        }
+        this.commit(new ParticipationChange(type, event.getSessionId(), event.getUserId()));
+    }
+
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        this.commit(new ParticipationChange(ParticipationChange.Type.USER_DELETED, null, event.getUserId()));
+    }
+
+    private void commit(ParticipationChange change) {
+        this.onChange(change);
+        try {
+            this.bus.publish(new CacheInvalidation(this.nodeId, CacheNames.PARTICIPATIONS, change));
+        } catch (RuntimeException e) {
+            log.error("Cannot broadcast {}", change, e);
+        }
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (CacheNames.PARTICIPATIONS.equals(invalidation.getCacheName())
+                && !this.nodeId.equals(invalidation.getOriginNodeId())
+                && invalidation.getKey() instanceof ParticipationChange) {
+            this.onChange((ParticipationChange) invalidation.getKey());
+        }
+    }
+
+    private void onChange(ParticipationChange change) {
+        RoaringBitmap users = null;
+        if (change.getType() == ParticipationChange.Type.SESSION_CHANGED) {
+            users = new RoaringBitmap();
+            for (Number id : this.sessionRepository.findParticipantIds(change.getSessionId())) {
+                users.add(id.intValue());
+            }
+            users.runOptimize();
+        }
+        Update update = new Update(change, users);
+        synchronized (this.lock) {
+            if (this.pending != null) {
+                this.pending.add(update);
+            }
+            if (this.ready) {
+                update.applyTo(this.tables);
+            }
+        }
+    }
+
+    /**
+     * Reloads the whole index from {@code PARTICIPATE}, in primary key order and {@code batchSize} rows at a time.
+     */
+    void rebuild() {
+        synchronized (this.lock) {
+            if (this.suspended) {
+                return;
+            }
+            this.pending = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            Builder builder = new Builder();
+            int lastSessionId = 0;
+            int lastUserId = 0;
+            List<Object[]> rows;
+            do {
+                rows = this.sessionRepository.findParticipationsAfter(lastSessionId, lastUserId, this.batchSize);
+                for (Object[] row : rows) {
+                    lastSessionId = ((Number) row[0]).intValue();
+                    lastUserId = ((Number) row[1]).intValue();
+                    builder.add(lastSessionId, lastUserId);
+                }
+            } while (rows.size() == this.batchSize);
+            Tables rebuilt = builder.build();
+
+            synchronized (this.lock) {
+                if (this.suspended) {
+                    return;
+                }
+                this.pending.forEach(update -> update.applyTo(rebuilt));
+                this.tables = rebuilt;
+                this.ready = true;
+            }
+            log.info("Participation index loaded: {} participation(s), {} KiB, in {} ms", builder.rows,
+                    this.sizeInBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Participation index rebuild failed, keeping the previous one", e);
+        } finally {
+            synchronized (this.lock) {
+                this.pending = null;
+            }
+        }
+    }
+
+    /**
+     * A change with the participants it needs already read, so applying it takes no query.
+     */
+    static final class Update {
+        private final ParticipationChange change;
+
+        private final RoaringBitmap users;
+
+        Update(ParticipationChange change, RoaringBitmap users) {
+            this.change = change;
+            this.users = users;
+        }
+
+        void applyTo(Tables target) {
+            switch (this.change.getType()) {
+                case JOINED:
+                    target.join(this.change.getSessionId().intValue(), this.change.getUserId().intValue());
+                    break;
+                case LEFT:
+                    target.leave(this.change.getSessionId().intValue(), this.change.getUserId().intValue());
+                    break;
+                case SESSION_CHANGED:
+                    target.replace(this.change.getSessionId().intValue(), this.users);
+                    break;
+                case SESSION_DELETED:
+                    target.replace(this.change.getSessionId().intValue(), new RoaringBitmap());
+                    break;
+                case USER_DELETED:
+                    target.removeUser(this.change.getUserId().intValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Both directions of the index. Published bitmaps are copied, never modified; writers hold the lock.
+     */
+    static final class Tables {
+        final BitmapArray usersBySession;
+
+        final BitmapArray sessionsByUser;
+
+        Tables(RoaringBitmap[] usersBySession, RoaringBitmap[] sessionsByUser) {
+            this.usersBySession = new BitmapArray(usersBySession);
+            this.sessionsByUser = new BitmapArray(sessionsByUser);
+        }
+
+        void join(int sessionId, int userId) {
+            this.usersBySession.add(sessionId, userId);
+            this.sessionsByUser.add(userId, sessionId);
+        }
+
+        void leave(int sessionId, int userId) {
+            this.usersBySession.remove(sessionId, userId);
+            this.sessionsByUser.remove(userId, sessionId);
+        }
+
+        void replace(int sessionId, RoaringBitmap users) {
+            RoaringBitmap previous = this.usersBySession.get(sessionId);
+            if (previous != null) {
+                RoaringBitmap.andNot(previous, users).forEach((int userId) -> this.sessionsByUser.remove(userId, sessionId));
+            }
+            users.forEach((int userId) -> this.sessionsByUser.add(userId, sessionId));
+            this.usersBySession.set(sessionId, users.isEmpty() ? null : users);
+        }
+
+        void removeUser(int userId) {
+            RoaringBitmap sessions = this.sessionsByUser.get(userId);
+            if (sessions != null) {
+                sessions.forEach((int sessionId) -> this.usersBySession.remove(sessionId, userId));
+                this.sessionsByUser.set(userId, null);
+            }
+        }
+    }
+
+    /**
+     * Bitmaps indexed by id, the ids being dense auto-increment keys. Grows under the writers' lock.
+     */
+    static final class BitmapArray {
+        private volatile AtomicReferenceArray<RoaringBitmap> slots;
+
+        BitmapArray(RoaringBitmap[] bitmaps) {
+            this.slots = new AtomicReferenceArray<>(bitmaps);
+        }
+
+        RoaringBitmap get(long id) {
+            AtomicReferenceArray<RoaringBitmap> current = this.slots;
+            return id >= 0 && id < current.length() ? current.get((int) id) : null;
+        }
+
+        void set(int id, RoaringBitmap bitmap) {
+            AtomicReferenceArray<RoaringBitmap> current = this.slots;
+            if (id >= current.length()) {
+                if (bitmap == null) {
+                    return;
+                }
+                AtomicReferenceArray<RoaringBitmap> grown = new AtomicReferenceArray<>(Math.max(id + 1, current.length() * 3 / 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.lazySet(i, current.get(i));
+                }
+                grown.set(id, bitmap);
+                this.slots = grown;
+                return;
+            }
+            current.set(id, bitmap);
+        }
+
+        void add(int id, int value) {
+            RoaringBitmap current = this.get(id);
+            if (current != null && current.contains(value)) {
+                return;
+            }
+            RoaringBitmap copy = current == null ? new RoaringBitmap() : current.clone();
+            copy.add(value);
+            this.set(id, copy);
+        }
+
+        void remove(int id, int value) {
+            RoaringBitmap current = this.get(id);
+            if (current == null || !current.contains(value)) {
+                return;
+            }
+            RoaringBitmap copy = current.clone();
+            copy.remove(value);
+            this.set(id, copy.isEmpty() ? null : copy);
+        }
+
+        long sizeInBytes() {
+            AtomicReferenceArray<RoaringBitmap> current = this.slots;
+            long bytes = 0;
+            for (int i = 0; i < current.length(); i++) {
+                RoaringBitmap bitmap = current.get(i);
+                if (bitmap != null) {
+                    bytes += bitmap.getLongSizeInBytes();
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Accumulates rows into mutable bitmaps, published once complete.
+     */
+    static final class Builder {
+        private RoaringBitmap[] usersBySession = new RoaringBitmap[1024];
+
+        private RoaringBitmap[] sessionsByUser = new RoaringBitmap[1024];
+
+        long rows;
+
+        void add(int sessionId, int userId) {
+            this.usersBySession = bitmapFor(this.usersBySession, sessionId);
+            this.usersBySession[sessionId].add(userId);
+            this.sessionsByUser = bitmapFor(this.sessionsByUser, userId);
+            this.sessionsByUser[userId].add(sessionId);
+            this.rows++;
+        }
+
+        Tables build() {
+            optimize(this.usersBySession);
+            optimize(this.sessionsByUser);
+            return new Tables(this.usersBySession, this.sessionsByUser);
+        }
+
+        private static RoaringBitmap[] bitmapFor(RoaringBitmap[] bitmaps, int id) {
+            RoaringBitmap[] grown = id < bitmaps.length ? bitmaps : Arrays.copyOf(bitmaps, Math.max(id + 1, bitmaps.length * 2));
+            if (grown[id] == null) {
+                grown[id] = new RoaringBitmap();
+            }
+            return grown;
+        }
+
+        private static void optimize(RoaringBitmap[] bitmaps) {
+            for (RoaringBitmap bitmap : bitmaps) {
+                if (bitmap != null) {
+                    bitmap.runOptimize();
+                    bitmap.trim();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+/**
+ * Published when a session may have free seats for its waitlist: a participant left or the capacity changed.
+ */
+@Value
+public class SeatsReleasedEvent {
+    Long sessionId;
+}
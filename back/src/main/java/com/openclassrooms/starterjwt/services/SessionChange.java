@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.services;
+
+public enum SessionChange {
+    CREATED,
+    UPDATED,
+    DELETED,
+    PARTICIPANT_JOINED,
+    PARTICIPANT_LEFT,
+    WAITLIST_JOINED,
+    WAITLIST_LEFT
+}
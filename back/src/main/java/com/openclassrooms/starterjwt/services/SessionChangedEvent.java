@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+/**
+ * Published by {@link SessionService} inside the transaction that changed the session.
+ * {@code userId} is set for participation and waitlist changes only.
+ */
+@Value
+public class SessionChangedEvent {
+    Long sessionId;
+    SessionChange change;
+    Long userId;
+}
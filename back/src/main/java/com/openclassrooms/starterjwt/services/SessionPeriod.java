@@ -0,0 +1,7 @@
+package com.openclassrooms.starterjwt.services;
+
+public enum SessionPeriod {
+    UPCOMING,
+    PAST,
+    ALL
+}
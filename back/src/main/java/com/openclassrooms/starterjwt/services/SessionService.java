@@ -1,14 +1,33 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.CacheCoordinator;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistEntryRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,34 +36,180 @@ public class SessionService {
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final TeacherRepository teacherRepository;
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+
+    private final CacheCoordinator cacheCoordinator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ParticipationIndex participationIndex;
+
+    private final CalendarIndex calendarIndex;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          TeacherRepository teacherRepository,
+                          WaitlistEntryRepository waitlistEntryRepository,
+                          CacheCoordinator cacheCoordinator,
+                          ApplicationEventPublisher eventPublisher,
+                          ParticipationIndex participationIndex,
+                          CalendarIndex calendarIndex) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.teacherRepository = teacherRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.cacheCoordinator = cacheCoordinator;
+        this.eventPublisher = eventPublisher;
+        this.participationIndex = participationIndex;
+        this.calendarIndex = calendarIndex;
     }
 
+    /**
+     * @throws ConflictException when the teacher already teaches a session overlapping this one
+     */
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        this.checkTeacherAvailable(session, 0L);
+        Session created = this.sessionRepository.save(session);
+        this.sessionRepository.recountParticipants(created.getId());
+        created.setParticipantCount(countUsers(created));
+        this.cacheCoordinator.clear(CacheNames.SESSIONS);
+        this.cacheCoordinator.clear(CacheNames.SESSION_SUMMARIES);
+        this.publishChange(created.getId(), SessionChange.CREATED, null);
+        return created;
     }
 
+    @Transactional
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
+        this.evictSession(id);
+        this.publishChange(id, SessionChange.DELETED, null);
     }
 
+    @Cacheable(CacheNames.SESSIONS)
+    @Transactional(readOnly = true)
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    @Cacheable(CacheNames.SESSION_SUMMARIES)
+    @Transactional(readOnly = true)
+    public List<SessionSummaryDto> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public SessionSummaryDto getSummaryById(Long id) {
+        return this.sessionRepository.findSummaryById(id).orElse(null);
+    }
+
+    @Cacheable(cacheNames = CacheNames.SESSION, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Sessions attended by a user, upcoming ones soonest first and past ones latest first.
+     */
+    @Transactional(readOnly = true)
+    public Page<Session> findByUser(Long userId, SessionPeriod period, int page, int size) {
+        Date now = new Date();
+        switch (period) {
+            case UPCOMING:
+                return this.sessionRepository.findByUserIdAndDateFrom(userId, now,
+                        PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "date")));
+            case PAST:
+                return this.sessionRepository.findByUserIdAndDateBefore(userId, now,
+                        PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "date")));
+            default:
+                return this.sessionRepository.findByUserId(userId,
+                        PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "date")));
+        }
+    }
+
+    /**
+     * Answered by the {@link ParticipationIndex} once loaded, by the database before.
+     */
+    public boolean isParticipating(Long id, Long userId) {
+        if (this.participationIndex.isReady()) {
+            return this.participationIndex.isParticipant(id, userId);
+        }
+        return this.sessionRepository.existsParticipant(id, userId);
+    }
+
+    /**
+     * Ids of the sessions attended by a user, in id order; see {@link #isParticipating}.
+     */
+    public List<Long> findSessionIdsByUser(Long userId) {
+        if (this.participationIndex.isReady()) {
+            return this.participationIndex.sessionsOf(userId);
+        }
+        return this.sessionRepository.findIdsByUserId(userId);
+    }
+
+    /**
+     * Sessions starting in {@code [from, to)}, earliest first, optionally of one teacher only. Answered by
+     * the {@link CalendarIndex} and a primary key lookup once the index is loaded, by a date range query before.
+     * The index may lag behind the other nodes, so the rows read back are checked against the range and teacher.
+     */
+    @Transactional(readOnly = true)
+    public List<SessionSummaryDto> findBetween(Date from, Date to, Long teacherId) {
+        if (!this.calendarIndex.isReady()) {
+            return teacherId == null
+                    ? this.sessionRepository.findSummariesBetween(from, to)
+                    : this.sessionRepository.findTeacherSummariesBetween(teacherId, from, to);
+        }
+
+        List<Long> ids = teacherId == null
+                ? this.calendarIndex.between(from, to)
+                : this.calendarIndex.ofTeacherBetween(teacherId, from, to);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, SessionSummaryDto> summaries = this.sessionRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(SessionSummaryDto::getId, Function.identity()));
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .filter(summary -> summary.getDate() != null
+                        && !summary.getDate().before(from) && summary.getDate().before(to))
+                .filter(summary -> teacherId == null || teacherId.equals(summary.getTeacher_id()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Session> search(String query, int limit) {
+        return this.sessionRepository.search(query.trim(), limit);
+    }
+
+    /**
+     * @throws ConflictException when the teacher already teaches another session overlapping this one
+     */
+    @Transactional
     public Session update(Long id, Session session) {
+        this.checkTeacherAvailable(session, id);
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        this.sessionRepository.recountParticipants(id);
+        updated.setParticipantCount(countUsers(updated));
+        this.evictSession(id);
+        this.publishChange(id, SessionChange.UPDATED, null);
+        if (this.waitlistEntryRepository.existsBySessionId(id)) {
+            this.eventPublisher.publishEvent(new SeatsReleasedEvent(id));
+        }
+        return updated;
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
+    /**
+     * Adds the user to the session, or to its waitlist when the session is full. Once a waitlist exists,
+     * newcomers queue behind it even if a seat was just freed and is waiting for promotion.
+     */
+    @Transactional
+    public ParticipationStatus participate(Long id, Long userId) {
+        Session session = this.sessionRepository.findForUpdate(id).orElse(null);
         User user = this.userRepository.findById(userId).orElse(null);
         if (session == null || user == null) {
             throw new NotFoundException();
@@ -55,24 +220,148 @@ public class SessionService {
             throw new BadRequestException();
         }
 
+        if (session.getCapacity() != null
+                && (session.getUsers().size() >= session.getCapacity() || this.waitlistEntryRepository.existsBySessionId(id))) {
+            if (this.waitlistEntryRepository.findBySessionIdAndUserId(id, userId).isPresent()) {
+                throw new BadRequestException();
+            }
+
+            this.waitlistEntryRepository.save(new WaitlistEntry().setSessionId(id).setUser(user));
+            this.publishChange(id, SessionChange.WAITLIST_JOINED, userId);
+            return ParticipationStatus.WAITLISTED;
+        }
+
         session.getUsers().add(user);
+        session.setParticipantCount(session.getParticipantCount() + 1);
 
         this.sessionRepository.save(session);
+        this.sessionRepository.adjustParticipantCount(id, 1);
+        this.evictSession(id);
+        this.publishChange(id, SessionChange.PARTICIPANT_JOINED, userId);
+        return ParticipationStatus.PARTICIPATING;
     }
 
+    /**
+     * Removes the user from the session or from its waitlist. A freed seat is handed to the
+     * {@link WaitlistPromoter} once this transaction commits.
+     */
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
+        Session session = this.sessionRepository.findForUpdate(id).orElse(null);
         if (session == null) {
             throw new NotFoundException();
         }
 
         boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
         if(!alreadyParticipate) {
-            throw new BadRequestException();
+            WaitlistEntry entry = this.waitlistEntryRepository.findBySessionIdAndUserId(id, userId)
+                    .orElseThrow(BadRequestException::new);
+            this.waitlistEntryRepository.delete(entry);
+            this.publishChange(id, SessionChange.WAITLIST_LEFT, userId);
+            return;
         }
 
         session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+        session.setParticipantCount(session.getParticipantCount() - 1);
 
         this.sessionRepository.save(session);
+        this.sessionRepository.adjustParticipantCount(id, -1);
+        this.evictSession(id);
+        this.publishChange(id, SessionChange.PARTICIPANT_LEFT, userId);
+        if (session.getCapacity() != null) {
+            this.eventPublisher.publishEvent(new SeatsReleasedEvent(id));
+        }
+    }
+
+    /**
+     * Moves waitlisted users into the free seats of the session, oldest entry first.
+     *
+     * @return the number of promoted users
+     */
+    @Transactional
+    public int promoteWaitlist(Long id) {
+        Session session = this.sessionRepository.findForUpdate(id).orElse(null);
+        if (session == null) {
+            return 0;
+        }
+
+        Pageable seats;
+        if (session.getCapacity() == null) {
+            seats = Pageable.unpaged();
+        } else {
+            int free = session.getCapacity() - session.getUsers().size();
+            if (free <= 0) {
+                return 0;
+            }
+            seats = PageRequest.of(0, free);
+        }
+
+        List<WaitlistEntry> promoted = this.waitlistEntryRepository.findNext(id, seats);
+        if (promoted.isEmpty()) {
+            return 0;
+        }
+
+        promoted.forEach(entry -> session.getUsers().add(entry.getUser()));
+        session.setParticipantCount(session.getParticipantCount() + promoted.size());
+        this.waitlistEntryRepository.deleteAllInBatch(promoted);
+
+        this.sessionRepository.save(session);
+        this.sessionRepository.adjustParticipantCount(id, promoted.size());
+        this.evictSession(id);
+        promoted.forEach(entry -> this.publishChange(id, SessionChange.PARTICIPANT_JOINED, entry.getUser().getId()));
+        return promoted.size();
+    }
+
+    /**
+     * Sessions whose participant counter no longer matches {@code PARTICIPATE}.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findParticipantCountDrift() {
+        return this.sessionRepository.findIdsWithParticipantCountDrift().stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void repairParticipantCount(Long id) {
+        if (this.sessionRepository.findForUpdate(id).isPresent()) {
+            this.sessionRepository.recountParticipants(id);
+            this.evictSession(id);
+        }
+    }
+
+    /**
+     * Rejects a session starting less than one session duration away from another session of its teacher.
+     * The teacher row is locked first, so two nodes booking the same teacher check one after the other, and
+     * the check runs on {@code (teacher_id, date)} in this transaction: the {@link CalendarIndex} may miss a
+     * session another node has just booked.
+     */
+    private void checkTeacherAvailable(Session session, Long id) {
+        if (session.getTeacher() == null || session.getDate() == null) {
+            return;
+        }
+
+        Long teacherId = session.getTeacher().getId();
+        this.teacherRepository.findForUpdate(teacherId);
+        long start = session.getDate().getTime();
+        long duration = this.calendarIndex.getSessionDurationMs();
+        if (this.sessionRepository.existsTeacherSessionBetween(teacherId,
+                new Date(start - duration), new Date(start + duration), id)) {
+            throw new ConflictException();
+        }
+    }
+
+    private static int countUsers(Session session) {
+        return session.getUsers() == null ? 0 : session.getUsers().size();
+    }
+
+    private void publishChange(Long id, SessionChange change, Long userId) {
+        this.eventPublisher.publishEvent(new SessionChangedEvent(id, change, userId));
+    }
+
+    private void evictSession(Long id) {
+        this.cacheCoordinator.evict(CacheNames.SESSION, id);
+        this.cacheCoordinator.clear(CacheNames.SESSIONS);
+        this.cacheCoordinator.clear(CacheNames.SESSION_SUMMARIES);
     }
 }
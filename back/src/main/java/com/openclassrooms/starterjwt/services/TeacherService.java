@@ -1,10 +1,17 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.CacheNames;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TeacherService {
@@ -14,10 +21,24 @@ public class TeacherService {
         this.teacherRepository = teacherRepository;
     }
 
+    @Cacheable(CacheNames.TEACHERS)
+    @Transactional(readOnly = true)
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    /**
+     * Loads the teachers in one query and returns them in the order of {@code ids}, leaving out unknown ids.
+     */
+    @Transactional(readOnly = true)
+    public List<Teacher> findAllById(List<Long> ids) {
+        Map<Long, Teacher> teachers = this.teacherRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Teacher::getId, Function.identity()));
+        return ids.stream().map(teachers::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Cacheable(cacheNames = CacheNames.TEACHER, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
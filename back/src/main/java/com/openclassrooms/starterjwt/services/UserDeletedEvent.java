@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+/**
+ * Published by {@link UserService} inside the transaction that deleted the user.
+ */
+@Value
+public class UserDeletedEvent {
+    Long userId;
+}
@@ -1,21 +1,82 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.CacheCoordinator;
+import com.openclassrooms.starterjwt.cache.CacheNames;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final CacheCoordinator cacheCoordinator;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserService(UserRepository userRepository, CacheCoordinator cacheCoordinator, TokenRevocationList tokenRevocationList,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.cacheCoordinator = cacheCoordinator;
+        this.tokenRevocationList = tokenRevocationList;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Deletes the user and revokes its access tokens once the deletion has committed, so a rolled back deletion
+     * leaves the user signed in; its refresh tokens go with the row.
+     */
+    @Transactional
     public void delete(Long id) {
+        this.userRepository.findById(id).ifPresent(user -> {
+            this.revokeAfterCommit(user.getEmail());
+            this.cacheCoordinator.evict(CacheNames.USER_DETAILS, user.getEmail());
+        });
         this.userRepository.deleteById(id);
+        this.cacheCoordinator.evict(CacheNames.USER, id);
+        this.eventPublisher.publishEvent(new UserDeletedEvent(id));
+    }
+
+    private void revokeAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.tokenRevocationList.revokeAllFor(email);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenRevocationList.revokeAllFor(email);
+            }
+        });
+    }
+
+    /**
+     * Loads the users in one query and returns them in the order of {@code ids}, leaving out unknown ids.
+     */
+    @Transactional(readOnly = true)
+    public List<User> findAllById(List<Long> ids) {
+        Map<Long, User> users = this.userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream().map(users::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheNames.USER, unless = "#result == null")
+    @Transactional(readOnly = true)
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
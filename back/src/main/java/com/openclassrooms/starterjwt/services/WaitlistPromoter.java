@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Promotes waitlisted users in the background, after the transaction that freed the seats has committed.
+ * <p>
+ * Sessions are striped over single-thread workers, so promotions of one session never run concurrently
+ * on this node and never wait on each other's row lock. Releases that arrive while a promotion is
+ * already queued for the session are coalesced into it: one transaction then fills every free seat.
+ */
+@Component
+@Log4j2
+public class WaitlistPromoter {
+    private final SessionService sessionService;
+
+    private final ExecutorService[] workers;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public WaitlistPromoter(SessionService sessionService, @Value("${oc.app.waitlist.workers}") int workers) {
+        this.sessionService = sessionService;
+        this.workers = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            String name = "waitlist-promoter-" + i;
+            this.workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsReleased(SeatsReleasedEvent event) {
+        this.schedule(event.getSessionId());
+    }
+
+    public void schedule(Long sessionId) {
+        if (this.pending.add(sessionId)) {
+            this.workers[(int) Math.floorMod(sessionId, (long) this.workers.length)].execute(() -> this.promote(sessionId));
+        }
+    }
+
+    private void promote(Long sessionId) {
+        // Cleared before running, so a release committed during this promotion queues another pass.
+        this.pending.remove(sessionId);
+        try {
+            int promoted = this.sessionService.promoteWaitlist(sessionId);
+            if (promoted > 0) {
+                log.info("Promoted {} waitlisted user(s) into session {}", promoted, sessionId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Waitlist promotion failed for session {}", sessionId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService worker : this.workers) {
+            worker.shutdown();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.openclassrooms.starterjwt.startup;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the caches before the node takes traffic, so the first requests after a deploy do not all reach
+ * MySQL at once: the teachers, the session lists, the sessions of the next {@code upcomingSessionDays} days
+ * and the users active in the last {@code recentUserDays} days, loaded on {@code threads} threads through the
+ * cached service methods. Active users are loaded by id and then by email, as every authenticated request
+ * looks them up.
+ * <p>
+ * The warm-up starts once the application is ready. Until it completes or {@code timeoutMs} elapses, this
+ * indicator reports {@code OUT_OF_SERVICE}, and so does the readiness group it belongs to; a failed load
+ * is logged and does not hold the node back.
+ */
+@Component
+@Log4j2
+public class CacheWarmUp implements HealthIndicator {
+    private final TeacherService teacherService;
+
+    private final SessionService sessionService;
+
+    private final UserService userService;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final boolean enabled;
+
+    private final long timeoutMs;
+
+    private final int upcomingSessionDays;
+
+    private final int recentUserDays;
+
+    private final int maxUsers;
+
+    private final ExecutorService executor;
+
+    private volatile Outcome outcome;
+
+    public CacheWarmUp(TeacherService teacherService,
+                       SessionService sessionService,
+                       UserService userService,
+                       UserDetailsServiceImpl userDetailsService,
+                       RefreshTokenRepository refreshTokenRepository,
+                       @Value("${oc.app.warmUp.enabled}") boolean enabled,
+                       @Value("${oc.app.warmUp.threads}") int threads,
+                       @Value("${oc.app.warmUp.timeoutMs}") long timeoutMs,
+                       @Value("${oc.app.warmUp.upcomingSessionDays}") int upcomingSessionDays,
+                       @Value("${oc.app.warmUp.recentUserDays}") int recentUserDays,
+                       @Value("${oc.app.warmUp.maxUsers}") int maxUsers) {
+        this.teacherService = teacherService;
+        this.sessionService = sessionService;
+        this.userService = userService;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.upcomingSessionDays = upcomingSessionDays;
+        this.recentUserDays = recentUserDays;
+        this.maxUsers = maxUsers;
+        AtomicInteger count = new AtomicInteger();
+        // One more thread than loaders, for the warm-up itself.
+        this.executor = Executors.newFixedThreadPool(threads + 1, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warm-up-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!this.enabled) {
+            this.outcome = Outcome.SKIPPED;
+            this.executor.shutdown();
+            return;
+        }
+        this.executor.execute(this::run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Override
+    public Health health() {
+        Outcome current = this.outcome;
+        if (current == null) {
+            return Health.outOfService().withDetail("warmUp", "running").build();
+        }
+        return Health.up().withDetail("warmUp", current.name().toLowerCase(Locale.ROOT)).build();
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(this.timeoutMs);
+        Progress progress = new Progress();
+        Outcome result = Outcome.COMPLETED;
+        try {
+            Date now = new Date();
+            Date upcomingEnd = new Date(now.getTime() + TimeUnit.DAYS.toMillis(this.upcomingSessionDays));
+            LocalDateTime activeSince = LocalDateTime.now().minusDays(this.recentUserDays);
+
+            // The lists first: they also name the entries worth loading one by one.
+            Future<List<Teacher>> teachers = this.executor.submit(this.teacherService::findAll);
+            Future<?> sessions = this.executor.submit(this.sessionService::findAll);
+            Future<?> summaries = this.executor.submit(this.sessionService::findAllSummaries);
+            Future<List<SessionSummaryDto>> upcoming = this.executor.submit(
+                    () -> this.sessionService.findBetween(now, upcomingEnd, null));
+            Future<List<Long>> activeUsers = this.executor.submit(
+                    () -> this.refreshTokenRepository.findRecentlyActiveUserIds(activeSince, PageRequest.of(0, this.maxUsers)));
+
+            List<Callable<Object>> entries = new ArrayList<>();
+            for (Teacher teacher : awaitList(teachers, deadline, progress)) {
+                entries.add(() -> this.teacherService.findById(teacher.getId()));
+            }
+            await(sessions, deadline, progress);
+            await(summaries, deadline, progress);
+            for (SessionSummaryDto session : awaitList(upcoming, deadline, progress)) {
+                entries.add(() -> this.sessionService.getById(session.getId()));
+            }
+            for (Long userId : awaitList(activeUsers, deadline, progress)) {
+                entries.add(() -> {
+                    User user = this.userService.findById(userId);
+                    return user == null ? null : this.userDetailsService.loadUserByUsername(user.getEmail());
+                });
+            }
+
+            for (Future<Object> entry : this.executor.invokeAll(entries, remaining(deadline), TimeUnit.NANOSECONDS)) {
+                if (entry.isCancelled()) {
+                    result = Outcome.TIMED_OUT;
+                } else {
+                    await(entry, deadline, progress);
+                }
+            }
+        } catch (TimeoutException e) {
+            result = Outcome.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = Outcome.TIMED_OUT;
+        } finally {
+            this.outcome = result;
+            this.executor.shutdownNow();
+        }
+
+        log.info("Cache warm-up {}: {} load(s), {} failed, in {} ms", result.name().toLowerCase(Locale.ROOT),
+                progress.loaded, progress.failed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * The result of a load, or an empty list if it failed.
+     */
+    private static <T> List<T> awaitList(Future<? extends List<T>> future, long deadline, Progress progress)
+            throws InterruptedException, TimeoutException {
+        try {
+            List<T> result = future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+            progress.loaded++;
+            return result;
+        } catch (ExecutionException e) {
+            log.warn("Cache warm-up load failed", e.getCause());
+            progress.failed++;
+            return Collections.emptyList();
+        }
+    }
+
+    private static void await(Future<?> future, long deadline, Progress progress)
+            throws InterruptedException, TimeoutException {
+        try {
+            future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+            progress.loaded++;
+        } catch (ExecutionException e) {
+            log.warn("Cache warm-up load failed", e.getCause());
+            progress.failed++;
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    enum Outcome {
+        SKIPPED, COMPLETED, TIMED_OUT
+    }
+
+    private static final class Progress {
+        int loaded;
+
+        int failed;
+    }
+}
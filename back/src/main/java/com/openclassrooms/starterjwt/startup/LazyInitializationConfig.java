@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.startup;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+
+/**
+ * Keeps the beans the application cannot run without eager when the {@code lazy} profile turns on
+ * {@code spring.main.lazy-initialization}: the schema migrations and the Hibernate metamodel, which would
+ * otherwise be built by the first request, and every bean with {@code @Scheduled} jobs, which are only
+ * scheduled once the bean exists (outbox relay, purges, reconciliation, key rotation).
+ * <p>
+ * Everything else, controllers and the security filter chain included, is created on first use.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerCriticalBeans() {
+        return (beanName, definition, beanType) -> beanType != null
+                && (Flyway.class.isAssignableFrom(beanType)
+                || FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType));
+    }
+
+    static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Scheduled>) (Method method) ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt.startup;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logs where the boot time went once the application is ready: the Hibernate metamodel build, the
+ * Spring Data repository proxies and the beans that took longest to create, by self time (excluding
+ * the beans they depend on). The full timeline is served by {@code /actuator/startup}.
+ * <p>
+ * Only available when the application is started with a {@link BufferingApplicationStartup}, as
+ * {@code SpringBootSecurityJwtApplication} does.
+ */
+@Component
+@Log4j2
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+    static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    static final String REPOSITORY_INIT = "spring.data.repository.init";
+
+    static final String ENTITY_MANAGER_FACTORY = "entityManagerFactory";
+
+    static final String FLYWAY_INITIALIZER = "flywayInitializer";
+
+    private final int slowestBeans;
+
+    private final boolean exitWhenReady;
+
+    public StartupReport(@Value("${oc.app.startup.slowestBeans}") int slowestBeans,
+                         @Value("${oc.app.startup.exitWhenReady}") boolean exitWhenReady) {
+        this.slowestBeans = slowestBeans;
+        this.exitWhenReady = exitWhenReady;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup) {
+            log.info(report(((BufferingApplicationStartup) startup).getBufferedTimeline(), event.getTimeTaken()));
+        }
+
+        if (this.exitWhenReady) {
+            // Training run, e.g. to dump the class list of an AppCDS archive.
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    String report(StartupTimeline timeline, Duration timeTaken) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+
+        Map<Long, Duration> childrenDuration = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childrenDuration.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+
+        Duration entityManagerFactory = Duration.ZERO;
+        Duration flyway = Duration.ZERO;
+        Duration repositories = Duration.ZERO;
+        int repositoryCount = 0;
+        int beanCount = 0;
+        for (StartupTimeline.TimelineEvent event : events) {
+            StartupStep step = event.getStartupStep();
+            if (BEAN_INSTANTIATE.equals(step.getName())) {
+                beanCount++;
+                String beanName = tag(step, "beanName");
+                if (ENTITY_MANAGER_FACTORY.equals(beanName)) {
+                    entityManagerFactory = event.getDuration();
+                } else if (FLYWAY_INITIALIZER.equals(beanName)) {
+                    flyway = event.getDuration();
+                }
+            } else if (REPOSITORY_INIT.equals(step.getName())) {
+                repositoryCount++;
+                repositories = repositories.plus(event.getDuration());
+            }
+        }
+
+        List<String> slowest = events.stream()
+                .filter(event -> BEAN_INSTANTIATE.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing((StartupTimeline.TimelineEvent event) -> selfTime(event, childrenDuration))
+                        .reversed())
+                .limit(this.slowestBeans)
+                .map(event -> String.format("  %6d ms  %s", selfTime(event, childrenDuration).toMillis(),
+                        tag(event.getStartupStep(), "beanName")))
+                .collect(Collectors.toList());
+
+        StringBuilder report = new StringBuilder("Startup report\n");
+        report.append(String.format("  %6d ms  ready%n", timeTaken == null ? 0 : timeTaken.toMillis()));
+        report.append(String.format("  %6d ms  Flyway migrations%n", flyway.toMillis()));
+        // The entity manager factory depends on Flyway, which runs nested in its step.
+        report.append(String.format("  %6d ms  Hibernate metamodel%n", entityManagerFactory.minus(flyway).toMillis()));
+        report.append(String.format("  %6d ms  %d repository proxies%n", repositories.toMillis(), repositoryCount));
+        report.append(String.format("  %d beans, slowest by self time:%n", beanCount));
+        report.append(String.join(System.lineSeparator(), slowest));
+        return report.toString();
+    }
+
+    private static Duration selfTime(StartupTimeline.TimelineEvent event, Map<Long, Duration> childrenDuration) {
+        Duration self = event.getDuration().minus(
+                childrenDuration.getOrDefault(event.getStartupStep().getId(), Duration.ZERO));
+        return self.isNegative() ? Duration.ZERO : self;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,300 @@
+package com.openclassrooms.starterjwt.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.cache.CacheInvalidation;
+import com.openclassrooms.starterjwt.cache.CacheInvalidationBus;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+import com.openclassrooms.starterjwt.dto.SeatAvailabilityDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.services.ParticipationChange;
+import com.openclassrooms.starterjwt.services.SessionChange;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import com.openclassrooms.starterjwt.services.SessionService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Pushes seat availability to Server-Sent Events subscribers, per session and for the whole list.
+ * <p>
+ * Participation changes only mark their session as dirty once committed, those of this node as they commit
+ * and those of the other nodes as they arrive on the {@link CacheInvalidationBus}. A dedicated thread flushes
+ * dirty sessions at a fixed interval, reading the maintained participant count of each from the database, so a
+ * burst of bookings on one session costs one read and one message per subscriber. Idle connections hold no thread: they are parked as async requests until
+ * the next flush or heartbeat writes to them.
+ * <p>
+ * The flush and heartbeat threads never write themselves: they queue each message on its
+ * {@link SseSubscriber}, and {@code writerThreads} writers send them, so a slow or stalled client cannot
+ * hold back the others. A subscriber more than {@code maxPendingEvents} behind, or whose write has been
+ * blocked for {@code writeTimeoutMs}, is dropped.
+ */
+@Component
+@Log4j2
+public class SeatAvailabilityBroadcaster {
+    static final String AVAILABILITY_EVENT = "availability";
+    static final String DELETED_EVENT = "deleted";
+
+    private final SessionService sessionService;
+
+    private final ObjectMapper objectMapper;
+
+    private final long flushIntervalMs;
+
+    private final long heartbeatIntervalMs;
+
+    private final long timeoutMs;
+
+    private final int maxConnections;
+
+    private final int maxPendingEvents;
+
+    private final long writeTimeoutMs;
+
+    private final Map<Long, Set<SseSubscriber>> sessionSubscribers = new ConcurrentHashMap<>();
+
+    private final Set<SseSubscriber> listSubscribers = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final ExecutorService writers;
+
+    private ScheduledExecutorService executor;
+
+    public SeatAvailabilityBroadcaster(SessionService sessionService,
+                                       ObjectMapper objectMapper,
+                                       CacheInvalidationBus bus,
+                                       @Value("${oc.app.stream.flushIntervalMs}") long flushIntervalMs,
+                                       @Value("${oc.app.stream.heartbeatIntervalMs}") long heartbeatIntervalMs,
+                                       @Value("${oc.app.stream.timeoutMs}") long timeoutMs,
+                                       @Value("${oc.app.stream.maxConnections}") int maxConnections,
+                                       @Value("${oc.app.stream.writerThreads}") int writerThreads,
+                                       @Value("${oc.app.stream.maxPendingEvents}") int maxPendingEvents,
+                                       @Value("${oc.app.stream.writeTimeoutMs}") long writeTimeoutMs) {
+        this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
+        this.flushIntervalMs = flushIntervalMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.timeoutMs = timeoutMs;
+        this.maxConnections = maxConnections;
+        this.maxPendingEvents = maxPendingEvents;
+        this.writeTimeoutMs = writeTimeoutMs;
+        AtomicInteger count = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "seat-availability-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        bus.subscribe(this::onInvalidation);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-availability-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flush, this.flushIntervalMs, this.flushIntervalMs, TimeUnit.MILLISECONDS);
+        this.executor.scheduleWithFixedDelay(this::heartbeat, this.heartbeatIntervalMs, this.heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        this.executor.scheduleWithFixedDelay(this::dropStalled, this.writeTimeoutMs, this.writeTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+        this.allSubscribers().forEach(SseSubscriber::complete);
+        this.writers.shutdownNow();
+    }
+
+    /**
+     * Subscribes to one session, starting with its current availability.
+     *
+     * @return {@code null} when the node already serves {@code maxConnections} streams
+     */
+    public SseEmitter subscribe(Session session) {
+        Long sessionId = session.getId();
+        SseSubscriber subscriber = this.register(
+                added -> this.sessionSubscribers.compute(sessionId, (id, subscribers) -> {
+                    Set<SseSubscriber> set = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+                    set.add(added);
+                    return set;
+                }),
+                removed -> this.sessionSubscribers.computeIfPresent(sessionId, (id, subscribers) -> {
+                    subscribers.remove(removed);
+                    return subscribers.isEmpty() ? null : subscribers;
+                }));
+        if (subscriber == null) {
+            return null;
+        }
+        subscriber.send(event(AVAILABILITY_EVENT,
+                this.toJson(availability(sessionId, session.getParticipantCount(), session.getCapacity()))));
+        return subscriber.getEmitter();
+    }
+
+    /**
+     * Subscribes to the availability changes of every session.
+     *
+     * @return {@code null} when the node already serves {@code maxConnections} streams
+     */
+    public SseEmitter subscribeAll() {
+        SseSubscriber subscriber = this.register(this.listSubscribers::add, this.listSubscribers::remove);
+        return subscriber == null ? null : subscriber.getEmitter();
+    }
+
+    @TransactionalEventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (event.getChange() != SessionChange.CREATED) {
+            this.dirty.add(event.getSessionId());
+        }
+    }
+
+    /**
+     * The participation changes of every node, this one included, as the {@link ParticipationChange}s
+     * broadcast by the participation index; session updates and deletions are among them.
+     */
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (CacheNames.PARTICIPATIONS.equals(invalidation.getCacheName())
+                && invalidation.getKey() instanceof ParticipationChange) {
+            ParticipationChange change = (ParticipationChange) invalidation.getKey();
+            if (change.getSessionId() != null) {
+                this.dirty.add(change.getSessionId());
+            }
+        }
+    }
+
+    int getConnections() {
+        return this.connections.get();
+    }
+
+    void flush() {
+        Iterator<Long> iterator = this.dirty.iterator();
+        while (iterator.hasNext()) {
+            Long sessionId = iterator.next();
+            iterator.remove();
+            try {
+                this.publish(sessionId);
+            } catch (RuntimeException e) {
+                log.warn("Cannot push availability of session {}: {}", sessionId, e.getMessage());
+            }
+        }
+    }
+
+    private void publish(Long sessionId) {
+        Set<SseSubscriber> subscribers = this.sessionSubscribers.getOrDefault(sessionId, Collections.emptySet());
+        if (subscribers.isEmpty() && this.listSubscribers.isEmpty()) {
+            return;
+        }
+
+        SessionSummaryDto session = this.sessionService.getSummaryById(sessionId);
+        if (session == null) {
+            String payload = "{\"sessionId\":" + sessionId + "}";
+            for (SseSubscriber subscriber : this.snapshot(subscribers)) {
+                subscriber.send(event(DELETED_EVENT, payload));
+                subscriber.completeAfterPending();
+            }
+            this.snapshot(this.listSubscribers).forEach(subscriber -> subscriber.send(event(DELETED_EVENT, payload)));
+            return;
+        }
+
+        // Serialized once, whatever the number of subscribers.
+        String payload = this.toJson(availability(sessionId, session.getParticipantCount(), session.getCapacity()));
+        this.snapshot(subscribers).forEach(subscriber -> subscriber.send(event(AVAILABILITY_EVENT, payload)));
+        this.snapshot(this.listSubscribers).forEach(subscriber -> subscriber.send(event(AVAILABILITY_EVENT, payload)));
+    }
+
+    private void heartbeat() {
+        this.allSubscribers().forEach(subscriber -> subscriber.send(SseEmitter.event().comment("keep-alive")));
+    }
+
+    void dropStalled() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(this.writeTimeoutMs);
+        for (SseSubscriber subscriber : this.allSubscribers()) {
+            if (subscriber.isStalled(now, timeoutNanos)) {
+                log.warn("Dropping a seat availability stream blocked for more than {} ms", this.writeTimeoutMs);
+                subscriber.drop(new IOException("Write blocked for more than " + this.writeTimeoutMs + " ms"));
+            }
+        }
+    }
+
+    private SseSubscriber register(Consumer<SseSubscriber> add, Consumer<SseSubscriber> remove) {
+        if (this.connections.incrementAndGet() > this.maxConnections) {
+            this.connections.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(this.timeoutMs);
+        AtomicBoolean registered = new AtomicBoolean(true);
+        AtomicReference<SseSubscriber> subscriber = new AtomicReference<>();
+        Runnable unregister = () -> {
+            if (registered.compareAndSet(true, false)) {
+                remove.accept(subscriber.get());
+                this.connections.decrementAndGet();
+            }
+        };
+        subscriber.set(new SseSubscriber(emitter, this.writers, this.maxPendingEvents, unregister));
+        add.accept(subscriber.get());
+
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+        return subscriber.get();
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, String payload) {
+        return SseEmitter.event().name(name).data(payload, MediaType.APPLICATION_JSON);
+    }
+
+    private List<SseSubscriber> allSubscribers() {
+        List<SseSubscriber> subscribers = this.snapshot(this.listSubscribers);
+        this.sessionSubscribers.values().forEach(subscribers::addAll);
+        return subscribers;
+    }
+
+    private List<SseSubscriber> snapshot(Set<SseSubscriber> subscribers) {
+        return new ArrayList<>(subscribers);
+    }
+
+    private static SeatAvailabilityDto availability(Long sessionId, Integer participantCount, Integer capacity) {
+        int participants = participantCount == null ? 0 : participantCount;
+        Integer seatsLeft = capacity == null ? null : Math.max(0, capacity - participants);
+        return new SeatAvailabilityDto(sessionId, participants, capacity, seatsLeft);
+    }
+
+    private String toJson(SeatAvailabilityDto availability) {
+        try {
+            return this.objectMapper.writeValueAsString(availability);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
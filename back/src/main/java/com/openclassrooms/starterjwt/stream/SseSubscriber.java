@@ -0,0 +1,166 @@
+package com.openclassrooms.starterjwt.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One Server-Sent Events connection and its bounded queue of pending events. The queue is drained by a task
+ * on the shared writer pool, one subscriber per task, so a slow client delays its own events only.
+ * <p>
+ * A subscriber is dropped when its queue overflows, or when a write has been blocked longer than the write
+ * timeout: it stops receiving events at once, and its connection is completed once the blocked write returns.
+ * The client reconnects and starts again from the current availability.
+ */
+class SseSubscriber {
+    private static final SseEmitter.SseEventBuilder COMPLETE = SseEmitter.event();
+
+    private final SseEmitter emitter;
+
+    private final Executor writers;
+
+    private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+
+    private final Runnable onClose;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private volatile Throwable dropCause;
+
+    private volatile boolean writing;
+
+    private volatile long writeStartedAt;
+
+    SseSubscriber(SseEmitter emitter, Executor writers, int maxPendingEvents, Runnable onClose) {
+        this.emitter = emitter;
+        this.writers = writers;
+        this.pending = new ArrayBlockingQueue<>(maxPendingEvents + 1);
+        this.onClose = onClose;
+    }
+
+    SseEmitter getEmitter() {
+        return this.emitter;
+    }
+
+    boolean isClosed() {
+        return this.closed.get();
+    }
+
+    /**
+     * Queues an event, dropping the subscriber if it already has {@code maxPendingEvents} waiting.
+     */
+    void send(SseEmitter.SseEventBuilder event) {
+        if (this.closed.get()) {
+            return;
+        }
+        // One slot is kept for the completion.
+        if (this.pending.remainingCapacity() <= 1 || !this.pending.offer(event)) {
+            this.drop(new IllegalStateException("Subscriber too slow, " + this.pending.size() + " events pending"));
+            return;
+        }
+        this.schedule();
+    }
+
+    /**
+     * Completes the connection once the events queued so far are written.
+     */
+    void completeAfterPending() {
+        if (!this.closed.get() && this.pending.offer(COMPLETE)) {
+            this.schedule();
+        }
+    }
+
+    /**
+     * Whether a write has been blocked for more than {@code timeoutNanos} at {@code now}.
+     */
+    boolean isStalled(long now, long timeoutNanos) {
+        return this.writing && now - this.writeStartedAt > timeoutNanos;
+    }
+
+    /**
+     * Stops sending to this subscriber and completes its connection with {@code cause}. The completion
+     * waits for a write in progress.
+     */
+    void drop(Throwable cause) {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        this.dropCause = cause;
+        this.pending.clear();
+        this.onClose.run();
+        if (!this.writing) {
+            this.completeEmitter();
+        }
+    }
+
+    void complete() {
+        if (this.closed.compareAndSet(false, true)) {
+            this.pending.clear();
+            this.onClose.run();
+            this.completeEmitter();
+        }
+    }
+
+    private void completeEmitter() {
+        if (this.completed.compareAndSet(false, true)) {
+            Throwable cause = this.dropCause;
+            if (cause == null) {
+                this.emitter.complete();
+            } else {
+                this.emitter.completeWithError(cause);
+            }
+        }
+    }
+
+    private void schedule() {
+        if (this.draining.compareAndSet(false, true)) {
+            try {
+                this.writers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                this.draining.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!this.closed.get() && (event = this.pending.poll()) != null) {
+                if (event == COMPLETE) {
+                    this.complete();
+                    return;
+                }
+                this.writeStartedAt = System.nanoTime();
+                this.writing = true;
+                try {
+                    this.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    this.writing = false;
+                    this.drop(e);
+                    this.completeEmitter();
+                    return;
+                } finally {
+                    this.writing = false;
+                }
+            }
+            if (this.closed.get()) {
+                // Dropped while writing: the completion was left to this thread.
+                this.completeEmitter();
+            }
+        } finally {
+            this.draining.set(false);
+        }
+        if (!this.closed.get() && !this.pending.isEmpty()) {
+            this.schedule();
+        }
+    }
+}
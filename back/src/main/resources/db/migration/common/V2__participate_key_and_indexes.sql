@@ -0,0 +1,33 @@
+-- PARTICIPATE gets a composite primary key. The table is rebuilt so duplicate rows are dropped on the way.
+CREATE TABLE `PARTICIPATE_V2` (
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  PRIMARY KEY (`session_id`, `user_id`),
+  CONSTRAINT `fk_participate_session` FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`),
+  CONSTRAINT `fk_participate_user` FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`)
+);
+
+INSERT INTO `PARTICIPATE_V2` (`session_id`, `user_id`)
+SELECT DISTINCT `session_id`, `user_id` FROM `PARTICIPATE` WHERE `session_id` IS NOT NULL AND `user_id` IS NOT NULL;
+
+DROP TABLE `PARTICIPATE`;
+ALTER TABLE `PARTICIPATE_V2` RENAME TO `PARTICIPATE`;
+
+-- Sessions attended by a user
+CREATE INDEX `idx_participate_user_session` ON `PARTICIPATE` (`user_id`, `session_id`);
+
+-- Date-range listings and per-teacher agendas
+CREATE INDEX `idx_sessions_date` ON `SESSIONS` (`date`);
+CREATE INDEX `idx_sessions_teacher_date` ON `SESSIONS` (`teacher_id`, `date`);
+
+-- Login lookup, and the uniqueness the User entity already declares
+CREATE UNIQUE INDEX `uk_users_email` ON `USERS` (`email`);
+
+-- Align column sizes with the entity @Size limits
+ALTER TABLE `SESSIONS` MODIFY `description` VARCHAR(2500);
+ALTER TABLE `TEACHERS` MODIFY `last_name` VARCHAR(20);
+ALTER TABLE `TEACHERS` MODIFY `first_name` VARCHAR(20);
+ALTER TABLE `USERS` MODIFY `last_name` VARCHAR(20);
+ALTER TABLE `USERS` MODIFY `first_name` VARCHAR(20);
+ALTER TABLE `USERS` MODIFY `email` VARCHAR(50);
+ALTER TABLE `USERS` MODIFY `password` VARCHAR(120);
@@ -0,0 +1,15 @@
+-- Seat limit per session; NULL means unlimited.
+ALTER TABLE `SESSIONS` ADD COLUMN `capacity` INT NULL;
+
+-- Users waiting for a seat, promoted in id order.
+CREATE TABLE `WAITLIST` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  `created_at` TIMESTAMP,
+  CONSTRAINT `uk_waitlist_session_user` UNIQUE (`session_id`, `user_id`),
+  CONSTRAINT `fk_waitlist_session` FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `fk_waitlist_user` FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE
+);
+
+CREATE INDEX `idx_waitlist_session_id` ON `WAITLIST` (`session_id`, `id`);
@@ -0,0 +1,13 @@
+-- Transactional outbox: one row per session change, written in the transaction that made the change
+-- and relayed in id order by OutboxRelay.
+CREATE TABLE `OUTBOX_EVENTS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `aggregate_type` VARCHAR(30) NOT NULL,
+  `aggregate_id` BIGINT NOT NULL,
+  `event_type` VARCHAR(40) NOT NULL,
+  `payload` VARCHAR(4000) NOT NULL,
+  `created_at` TIMESTAMP NOT NULL,
+  `published_at` TIMESTAMP NULL
+);
+
+CREATE INDEX `idx_outbox_events_published_id` ON `OUTBOX_EVENTS` (`published_at`, `id`);
@@ -0,0 +1,5 @@
+-- Denormalized number of PARTICIPATE rows per session, maintained by SessionService
+-- and checked by ParticipantCountReconciler.
+ALTER TABLE `SESSIONS` ADD COLUMN `participant_count` INT NOT NULL DEFAULT 0;
+
+UPDATE `SESSIONS` SET `participant_count` = (SELECT COUNT(*) FROM `PARTICIPATE` WHERE `PARTICIPATE`.`session_id` = `SESSIONS`.`id`);
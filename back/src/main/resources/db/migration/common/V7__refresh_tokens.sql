@@ -0,0 +1,16 @@
+-- Rotating refresh tokens. Only a SHA-256 of the token is stored; tokens rotated from the same
+-- login share a family, revoked as a whole when a rotated token is presented again.
+CREATE TABLE `REFRESH_TOKENS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `user_id` INT NOT NULL,
+  `token_hash` CHAR(64) NOT NULL,
+  `family_id` CHAR(36) NOT NULL,
+  `expires_at` TIMESTAMP NOT NULL,
+  `revoked` BOOLEAN NOT NULL DEFAULT FALSE,
+  `created_at` TIMESTAMP NOT NULL,
+  CONSTRAINT `uk_refresh_tokens_hash` UNIQUE (`token_hash`),
+  CONSTRAINT `fk_refresh_tokens_user` FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE
+);
+
+CREATE INDEX `idx_refresh_tokens_family` ON `REFRESH_TOKENS` (`family_id`);
+CREATE INDEX `idx_refresh_tokens_expires_at` ON `REFRESH_TOKENS` (`expires_at`);
@@ -0,0 +1,3 @@
+-- Relevance search over session name and description, see SessionSearchRepositoryImpl.
+-- InnoDB keeps the index in sync with every insert, update and delete on SESSIONS.
+CREATE FULLTEXT INDEX `ft_sessions_name_description` ON `SESSIONS` (`name`, `description`);
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CacheCoordinator Unit Tests")
+class CacheCoordinatorTest {
+
+    private ConcurrentMapCacheManager nodeACaches;
+    private ConcurrentMapCacheManager nodeBCaches;
+    private CacheCoordinator nodeA;
+    private LocalCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        // Two nodes sharing the same bus, each with its own local caches
+        bus = new LocalCacheInvalidationBus();
+        nodeACaches = new ConcurrentMapCacheManager();
+        nodeBCaches = new ConcurrentMapCacheManager();
+        nodeA = new CacheCoordinator(nodeACaches, bus, "node-a");
+        new CacheCoordinator(nodeBCaches, bus, "node-b");
+
+        nodeACaches.getCache(CacheNames.SESSION).put(1L, "session 1");
+        nodeACaches.getCache(CacheNames.SESSION).put(2L, "session 2");
+        nodeBCaches.getCache(CacheNames.SESSION).put(1L, "session 1");
+        nodeBCaches.getCache(CacheNames.SESSION).put(2L, "session 2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict the key on every node")
+    void evict_shouldPropagateToOtherNodes() {
+        // Act
+        nodeA.evict(CacheNames.SESSION, 1L);
+
+        // Assert
+        assertThat(nodeACaches.getCache(CacheNames.SESSION).get(1L)).isNull();
+        assertThat(nodeBCaches.getCache(CacheNames.SESSION).get(1L)).isNull();
+        assertThat(nodeBCaches.getCache(CacheNames.SESSION).get(2L)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should clear the whole cache on every node")
+    void clear_shouldPropagateToOtherNodes() {
+        // Act
+        nodeA.clear(CacheNames.SESSION);
+
+        // Assert
+        assertThat(nodeACaches.getCache(CacheNames.SESSION).get(2L)).isNull();
+        assertThat(nodeBCaches.getCache(CacheNames.SESSION).get(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should wait for the commit before evicting inside a transaction")
+    void evict_insideTransaction_shouldWaitForCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        nodeA.evict(CacheNames.SESSION, 1L);
+
+        // Assert
+        assertThat(nodeBCaches.getCache(CacheNames.SESSION).get(1L)).isNotNull();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(nodeACaches.getCache(CacheNames.SESSION).get(1L)).isNull();
+        assertThat(nodeBCaches.getCache(CacheNames.SESSION).get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should leave the token revocation channel to the revocation list")
+    void tokenRevocations_shouldNotTouchTheCaches() {
+        // Act
+        bus.publish(new CacheInvalidation("node-a", CacheNames.TOKEN_REVOCATIONS, "jti-1"));
+
+        // Assert
+        assertThat(nodeBCaches.getCacheNames()).doesNotContain(CacheNames.TOKEN_REVOCATIONS);
+    }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.openclassrooms.starterjwt.datasource.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("StaleCache Unit Tests")
+class StaleCacheTest {
+
+    private CircuitBreaker circuitBreaker;
+    private Counter staleHits;
+    private StaleCache cache;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker("database", 1, 1, 100, 60000, 60000, meterRegistry);
+        staleHits = meterRegistry.counter(StaleCacheManager.METRIC);
+        cache = new StaleCache(new ConcurrentMapCache(CacheNames.TEACHERS), circuitBreaker, 100, staleHits);
+    }
+
+    private void openBreaker() {
+        circuitBreaker.tryAcquire().release(0, true);
+    }
+
+    @Test
+    @DisplayName("Should miss after an eviction while the database is available")
+    void get_breakerClosed_shouldMiss() {
+        // Arrange
+        cache.put(1L, "Margot");
+        cache.evict(1L);
+
+        // Act & Assert
+        assertThat(cache.get(1L)).isNull();
+        assertThat(staleHits.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should answer a miss with the last known value while the breaker is open")
+    void get_breakerOpen_shouldServeStaleValue() {
+        // Arrange
+        cache.put(1L, "Margot");
+        cache.evict(1L);
+        openBreaker();
+
+        // Act & Assert
+        assertThat(cache.get(1L).get()).isEqualTo("Margot");
+        assertThat(cache.get(1L, String.class)).isEqualTo("Margot");
+        assertThat(cache.get(2L)).isNull();
+        assertThat(staleHits.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the last known value when the loader fails")
+    void getWithLoader_loaderFails_shouldServeStaleValue() {
+        // Arrange
+        assertThat(cache.get(1L, () -> "Margot")).isEqualTo("Margot");
+        cache.evict(1L);
+        openBreaker();
+
+        // Act
+        String value = cache.get(1L, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        // Assert
+        assertThat(value).isEqualTo("Margot");
+        assertThatThrownBy(() -> cache.get(2L, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class);
+    }
+
+    @Test
+    @DisplayName("Should drop the last known values on invalidate")
+    void invalidate_shouldDropStaleValues() {
+        // Arrange
+        cache.put(1L, "Margot");
+        openBreaker();
+
+        // Act
+        cache.invalidate();
+
+        // Assert
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop the last known value of an evicted entry when told to forget evictions")
+    void evict_forgetEvicted_shouldDropStaleValue() {
+        // Arrange
+        StaleCache userDetails = new StaleCache(new ConcurrentMapCache(CacheNames.USER_DETAILS), circuitBreaker, 100,
+                staleHits, true);
+        userDetails.put("deleted@studio.com", "details");
+        userDetails.put("active@studio.com", "details");
+        userDetails.evict("deleted@studio.com");
+        userDetails.evictIfPresent("active@studio.com");
+        openBreaker();
+
+        // Act & Assert
+        assertThat(userDetails.get("deleted@studio.com")).isNull();
+        assertThat(userDetails.get("active@studio.com")).isNull();
+        assertThat(staleHits.count()).isZero();
+    }
+}
@@ -3,15 +3,18 @@ package com.openclassrooms.starterjwt.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.request.TokenRefreshRequest;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.hamcrest.Matchers.is;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @AutoConfigureMockMvc
 class AuthControllerIntegrationTest {
 
@@ -45,6 +49,8 @@ class AuthControllerIntegrationTest {
     private PasswordEncoder passwordEncoder;
     @MockBean
     private UserRepository userRepository;
+    @MockBean
+    private RefreshTokenService refreshTokenService;
 
     private LoginRequest loginRequest;
     private SignupRequest signupRequest;
@@ -83,6 +89,7 @@ class AuthControllerIntegrationTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("mockJwtToken");
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(java.util.Optional.of(testUser));
+        when(refreshTokenService.issue(testUser)).thenReturn("mockRefreshToken");
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/login")
@@ -93,7 +100,8 @@ class AuthControllerIntegrationTest {
             .andExpect(jsonPath("$.token", is("mockJwtToken")))
             .andExpect(jsonPath("$.username", is(loginRequest.getEmail())))
             .andExpect(jsonPath("$.id", is(1)))
-            .andExpect(jsonPath("$.admin", is(false)));
+            .andExpect(jsonPath("$.admin", is(false)))
+            .andExpect(jsonPath("$.refreshToken", is("mockRefreshToken")));
 
         // Verify
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
@@ -159,4 +167,39 @@ class AuthControllerIntegrationTest {
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void refreshToken_whenValid_shouldReturnNewTokens() throws Exception {
+        // Arrange
+        TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+        refreshRequest.setRefreshToken("oldRefreshToken");
+        when(refreshTokenService.rotate("oldRefreshToken"))
+            .thenReturn(java.util.Optional.of(new RefreshTokenService.Rotation(testUser, "newRefreshToken")));
+        when(jwtUtils.generateTokenFromUsername(testUser.getEmail())).thenReturn("newJwtToken");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.token", is("newJwtToken")))
+            .andExpect(jsonPath("$.refreshToken", is("newRefreshToken")))
+            .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void refreshToken_whenRejected_shouldReturnUnauthorized() throws Exception {
+        // Arrange
+        TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+        refreshRequest.setRefreshToken("reusedRefreshToken");
+        when(refreshTokenService.rotate("reusedRefreshToken")).thenReturn(java.util.Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+            .andExpect(status().isUnauthorized());
+
+        verify(jwtUtils, never()).generateTokenFromUsername(anyString());
+    }
+}
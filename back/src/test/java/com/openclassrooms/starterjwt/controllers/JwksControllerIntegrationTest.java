@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class JwksControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void jwks_withoutAuthentication_shouldReturnPublicKeys() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "max-age=300, public"))
+            .andExpect(jsonPath("$.keys", hasSize(2)))
+            .andExpect(jsonPath("$.keys[0].kty", is("EC")))
+            .andExpect(jsonPath("$.keys[0].kid", notNullValue()))
+            .andExpect(jsonPath("$.keys[0].d").doesNotExist());
+    }
+}
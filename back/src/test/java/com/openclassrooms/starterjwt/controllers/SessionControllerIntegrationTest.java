@@ -2,15 +2,19 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.ParticipationStatus;
 import com.openclassrooms.starterjwt.services.SessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -21,8 +25,11 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -30,6 +37,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @AutoConfigureMockMvc
 @WithMockUser(username="testuser", roles={"USER"})
 public class SessionControllerIntegrationTest {
@@ -74,6 +82,8 @@ public class SessionControllerIntegrationTest {
                 "Session for integration testing",
                 Collections.emptyList(),
                 null,
+                0,
+                null,
                 null
         );
     }
@@ -133,13 +143,100 @@ public class SessionControllerIntegrationTest {
         verify(sessionMapper).toDto(sessions);
     }
 
+    @Test
+    void findAll_SummaryView() throws Exception {
+        // Arrange
+        SessionSummaryDto summary = new SessionSummaryDto(1L, "Integration Test Session", session1.getDate(), 1L, 10, 3);
+        when(sessionService.findAllSummaries()).thenReturn(Collections.singletonList(summary));
+
+        mockMvc.perform(get("/api/session").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].teacher_id", is(1)))
+                .andExpect(jsonPath("$[0].participantCount", is(3)))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].users").doesNotExist());
+
+        verify(sessionService, never()).findAll();
+        verify(sessionMapper, never()).toDto(anyList());
+    }
+
+    @Test
+    void findById_SummaryView() throws Exception {
+        // Arrange
+        SessionSummaryDto summary = new SessionSummaryDto(1L, "Integration Test Session", session1.getDate(), 1L, null, 0);
+        when(sessionService.getSummaryById(1L)).thenReturn(summary);
+
+        mockMvc.perform(get("/api/session/{id}", 1L).param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(summary.getName())))
+                .andExpect(jsonPath("$.description").doesNotExist());
+
+        verify(sessionService, never()).getById(anyLong());
+    }
+
+    @Test
+    void findAll_BadRequest_UnknownView() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/session").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findAll();
+    }
+
+    @Test
+    void calendar_Success() throws Exception {
+        // Arrange
+        SessionSummaryDto summary = new SessionSummaryDto(1L, "Integration Test Session", session1.getDate(), 1L, null, 0);
+        when(sessionService.findBetween(any(Date.class), any(Date.class), eq(1L))).thenReturn(Collections.singletonList(summary));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/session/calendar")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2026-02-01T00:00:00Z")
+                        .param("teacherId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        verify(sessionService).findBetween(new Date(1767225600000L), new Date(1769904000000L), 1L);
+    }
+
+    @Test
+    void calendar_BadRequest_InvalidRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/session/calendar")
+                        .param("from", "2026-02-01T00:00:00Z")
+                        .param("to", "2026-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session/calendar")
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2027-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findBetween(any(Date.class), any(Date.class), any());
+    }
+
+    @Test
+    void create_Conflict_TeacherAlreadyBooked() throws Exception {
+        // Arrange
+        SessionDto inputDto = new SessionDto(null, "New Session", new Date(), 1L, "Desc", Collections.emptyList(), null, null, null, null);
+        when(sessionMapper.toEntity(any(SessionDto.class))).thenReturn(new Session());
+        when(sessionService.create(any(Session.class))).thenThrow(new ConflictException());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/session")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputDto)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void create_Success() throws Exception {
         // Arrange
-        SessionDto inputDto = new SessionDto(null, "New Session", new Date(), 1L, "Desc", Collections.emptyList(), null, null);
+        SessionDto inputDto = new SessionDto(null, "New Session", new Date(), 1L, "Desc", Collections.emptyList(), null, null, null, null);
         Session sessionToCreate = Session.builder().name(inputDto.getName()).date(inputDto.getDate()).description(inputDto.getDescription()).teacher(teacher1).users(Collections.emptyList()).build();
         Session createdSession = Session.builder().id(2L).name(inputDto.getName()).date(inputDto.getDate()).description(inputDto.getDescription()).teacher(teacher1).users(Collections.emptyList()).build();
-        SessionDto createdDto = new SessionDto(2L, "New Session", inputDto.getDate(), 1L, "Desc", Collections.emptyList(), null, null);
+        SessionDto createdDto = new SessionDto(2L, "New Session", inputDto.getDate(), 1L, "Desc", Collections.emptyList(), null, null, null, null);
 
         when(sessionMapper.toEntity(any(SessionDto.class))).thenReturn(sessionToCreate);
         when(sessionService.create(any(Session.class))).thenReturn(createdSession);
@@ -163,11 +260,11 @@ public class SessionControllerIntegrationTest {
     void update_Success() throws Exception {
         // Arrange
         Long sessionId = 1L;
-        SessionDto updateDto = new SessionDto(null, "Updated Session", new Date(), 1L, "Updated Desc", Collections.emptyList(), null, null);
+        SessionDto updateDto = new SessionDto(null, "Updated Session", new Date(), 1L, "Updated Desc", Collections.emptyList(), null, null, null, null);
         Session sessionUpdates = Session.builder().name(updateDto.getName()).date(updateDto.getDate()).description(updateDto.getDescription()).teacher(teacher1).build();
         // Service update returns the full updated entity
         Session updatedSession = Session.builder().id(sessionId).name(updateDto.getName()).date(updateDto.getDate()).description(updateDto.getDescription()).teacher(teacher1).users(Collections.emptyList()).build();
-        SessionDto updatedDto = new SessionDto(sessionId, "Updated Session", updateDto.getDate(), 1L, "Updated Desc", Collections.emptyList(), null, null);
+        SessionDto updatedDto = new SessionDto(sessionId, "Updated Session", updateDto.getDate(), 1L, "Updated Desc", Collections.emptyList(), null, null, null, null);
 
         when(sessionMapper.toEntity(any(SessionDto.class))).thenReturn(sessionUpdates);
         when(sessionService.update(eq(sessionId), any(Session.class))).thenReturn(updatedSession);
@@ -190,7 +287,7 @@ public class SessionControllerIntegrationTest {
     @Test
     void update_BadRequest_InvalidIdFormat() throws Exception {
         // Arrange
-        SessionDto updateDto = new SessionDto(null, "Update", new Date(), 1L, "Desc", Collections.emptyList(), null, null);
+        SessionDto updateDto = new SessionDto(null, "Update", new Date(), 1L, "Desc", Collections.emptyList(), null, null, null, null);
 
         // Act & Assert
         mockMvc.perform(put("/api/session/{id}", "invalid-id")
@@ -245,8 +342,7 @@ public class SessionControllerIntegrationTest {
         // Arrange
         Long sessionId = 1L;
         Long userId = 10L;
-        // Mock the void participate method
-        doNothing().when(sessionService).participate(sessionId, userId);
+        when(sessionService.participate(sessionId, userId)).thenReturn(ParticipationStatus.PARTICIPATING);
 
         // Act & Assert
         mockMvc.perform(post("/api/session/{id}/participate/{userId}", sessionId, userId))
@@ -255,6 +351,47 @@ public class SessionControllerIntegrationTest {
         verify(sessionService).participate(sessionId, userId);
     }
 
+    @Test
+    void participate_Waitlisted() throws Exception {
+        // Arrange
+        when(sessionService.participate(1L, 10L)).thenReturn(ParticipationStatus.WAITLISTED);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 10L))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void participate_RetriedWithIdempotencyKey_ShouldReplayFirstResponse() throws Exception {
+        // Arrange
+        when(sessionService.participate(1L, 10L)).thenReturn(ParticipationStatus.PARTICIPATING);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 10L)
+                        .header("Idempotency-Key", "participate-1-10"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotency-Replayed"));
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 10L)
+                        .header("Idempotency-Key", "participate-1-10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotency-Replayed", "true"));
+
+        verify(sessionService, times(1)).participate(1L, 10L);
+    }
+
+    @Test
+    void isParticipating_OkOrNotFound() throws Exception {
+        // Arrange
+        when(sessionService.isParticipating(1L, 10L)).thenReturn(true);
+        when(sessionService.isParticipating(1L, 11L)).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/session/{id}/participate/{userId}", 1L, 10L))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session/{id}/participate/{userId}", 1L, 11L))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void participate_BadRequest_InvalidIdFormat() throws Exception {
         // Act & Assert
@@ -293,4 +430,46 @@ public class SessionControllerIntegrationTest {
         // Verify
         verify(sessionService, never()).noLongerParticipate(anyLong(), anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void search_Success() throws Exception {
+        // Arrange
+        List<Session> sessions = Collections.singletonList(session1);
+        when(sessionService.search("integration", 20)).thenReturn(sessions);
+        when(sessionMapper.toDto(sessions)).thenReturn(Collections.singletonList(sessionDto1));
+
+        mockMvc.perform(get("/api/session/search").param("q", "integration"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(sessionDto1.getName())));
+
+        verify(sessionService).search("integration", 20);
+    }
+
+    @Test
+    void search_BlankQuery() throws Exception {
+        mockMvc.perform(get("/api/session/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void stream_SendsCurrentAvailability() throws Exception {
+        // Arrange
+        when(sessionService.getById(1L)).thenReturn(session1);
+
+        mockMvc.perform(get("/api/session/{id}/stream", 1L))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(containsString("event:availability")))
+                .andExpect(content().string(containsString("\"sessionId\":1")));
+    }
+
+    @Test
+    void stream_NotFound() throws Exception {
+        // Arrange
+        when(sessionService.getById(99L)).thenReturn(null);
+
+        mockMvc.perform(get("/api/session/{id}/stream", 99L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
@@ -130,4 +132,75 @@ class TeacherControllerIntegrationTest {
         assertThat(responseDtos).extracting(TeacherDto::getId).containsExactlyInAnyOrder(teacher1.getId(), teacher2.getId());
         assertThat(responseDtos).extracting(TeacherDto::getLastName).containsExactlyInAnyOrder(teacher1.getLastName(), teacher2.getLastName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAllById_ReturnsRequestedTeachersInOrder() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/teacher")
+                        .param("ids", teacher2.getId() + "," + 999L + "," + teacher1.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        String jsonResponse = result.getResponse().getContentAsString();
+        List<TeacherDto> responseDtos = objectMapper.readValue(jsonResponse, new TypeReference<List<TeacherDto>>() {});
+
+        assertThat(responseDtos).extracting(TeacherDto::getId).containsExactly(teacher2.getId(), teacher1.getId());
+    }
+
+    @Test
+    void testFindAllById_TooManyIds() throws Exception {
+        // Arrange
+        StringBuilder ids = new StringBuilder();
+        for (long id = 1; id <= 101; id++) {
+            ids.append(id).append(',');
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher").param("ids", ids.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindAllById_InvalidIdFormat() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher").param("ids", "1,invalid-id")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindAll_Cbor() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/teacher")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        List<TeacherDto> responseDtos = new ObjectMapper(new CBORFactory()).findAndRegisterModules()
+                .readValue(result.getResponse().getContentAsByteArray(), new TypeReference<List<TeacherDto>>() {});
+
+        assertThat(responseDtos).extracting(TeacherDto::getLastName).containsExactlyInAnyOrder(teacher1.getLastName(), teacher2.getLastName());
+    }
+
+    @Test
+    void testFindById_Smile() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/teacher/{id}", teacher1.getId())
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        TeacherDto responseDto = new ObjectMapper(new SmileFactory()).findAndRegisterModules()
+                .readValue(result.getResponse().getContentAsByteArray(), TeacherDto.class);
+
+        assertThat(responseDto.getId()).isEqualTo(teacher1.getId());
+        assertThat(responseDto.getFirstName()).isEqualTo(teacher1.getFirstName());
+        assertThat(responseDto.getCreatedAt()).isNotNull();
+    }
+}
@@ -0,0 +1,119 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.UserDto;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class UserControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user1;
+    private User user2;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange
+        user1 = userRepository.save(User.builder()
+                .email("multi-get-1@studio.com")
+                .lastName("DUPONT")
+                .firstName("Alice")
+                .password("password")
+                .admin(false)
+                .build());
+
+        user2 = userRepository.save(User.builder()
+                .email("multi-get-2@studio.com")
+                .lastName("MARTIN")
+                .firstName("Bruno")
+                .password("password")
+                .admin(false)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user1.getId());
+        userRepository.deleteById(user2.getId());
+    }
+
+    private static String ids(int count, long id) {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            ids.append(i == 0 ? "" : ",").append(id);
+        }
+        return ids.toString();
+    }
+
+    @Test
+    void testFindAllById_ReturnsRequestedUsersInOrder() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/user")
+                        .param("ids", user2.getId() + "," + 999999L + "," + user1.getId() + "," + user2.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        String jsonResponse = result.getResponse().getContentAsString();
+        List<UserDto> responseDtos = objectMapper.readValue(jsonResponse, new TypeReference<List<UserDto>>() {});
+
+        assertThat(responseDtos).extracting(UserDto::getId).containsExactly(user2.getId(), user1.getId());
+        assertThat(responseDtos).extracting(UserDto::getEmail).containsExactly(user2.getEmail(), user1.getEmail());
+        assertThat(jsonResponse).doesNotContain("password");
+    }
+
+    @Test
+    void testFindAllById_MaxIds() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/user").param("ids", ids(IdList.MAX_IDS, user1.getId()))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testFindAllById_TooManyIdsEvenWhenRepeated() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/user").param("ids", ids(IdList.MAX_IDS + 1, user1.getId()))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindAllById_InvalidIdFormat() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/user").param("ids", user1.getId() + ",invalid-id")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.crac;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CheckpointRestoreCoordinator Unit Tests")
+class CheckpointRestoreCoordinatorTest {
+
+    @Mock
+    private CheckpointParticipant webServer;
+
+    @Mock
+    private CheckpointParticipant pool;
+
+    @Mock
+    private WarmUp warmUp;
+
+    private CheckpointRestoreCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new CheckpointRestoreCoordinator(Arrays.asList(webServer, pool), warmUp, false);
+    }
+
+    @Test
+    @DisplayName("Should prepare the participants in order and restore them in reverse order")
+    void checkpointAndRestore_shouldRespectOrder() throws Exception {
+        // Act
+        coordinator.beforeCheckpoint();
+        coordinator.afterRestore();
+
+        // Assert
+        InOrder order = inOrder(webServer, pool);
+        order.verify(webServer).beforeCheckpoint();
+        order.verify(pool).beforeCheckpoint();
+        order.verify(pool).afterRestore();
+        order.verify(webServer).afterRestore();
+    }
+
+    @Test
+    @DisplayName("Should restore the participants already prepared when one of them fails")
+    void beforeCheckpoint_withFailure_shouldRollBack() throws Exception {
+        // Arrange
+        doThrow(new IllegalStateException("connections still in use")).when(pool).beforeCheckpoint();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> coordinator.beforeCheckpoint());
+        verify(webServer).afterRestore();
+        verify(pool, never()).afterRestore();
+    }
+
+    @Test
+    @DisplayName("Should restore every participant even when one of them fails")
+    void afterRestore_withFailure_shouldRestoreOthers() throws Exception {
+        // Arrange
+        doThrow(new IllegalStateException("cannot bind")).when(pool).afterRestore();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> coordinator.afterRestore());
+        verify(webServer).afterRestore();
+    }
+
+    @Test
+    @DisplayName("Should warm up without registering hooks when the JDK has no CRaC support")
+    void onApplicationReady_withoutCrac_shouldOnlyWarmUp() {
+        // Act
+        coordinator.onApplicationReady();
+
+        // Assert
+        verify(warmUp).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.crac;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("ConnectionPoolCheckpointParticipant Unit Tests")
+class ConnectionPoolCheckpointParticipantTest {
+
+    private HikariDataSource dataSource;
+
+    private ConnectionPoolCheckpointParticipant participant;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = pool("crac-pool");
+        participant = new ConnectionPoolCheckpointParticipant(Collections.singletonList(dataSource), 200);
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name);
+        config.setUsername("sa");
+        config.setMinimumIdle(2);
+        config.setMaximumPoolSize(2);
+        config.setAllowPoolSuspension(true);
+        return new HikariDataSource(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Should close every connection before the checkpoint and serve connections again after the restore")
+    void beforeCheckpoint_shouldDrainPool() throws Exception {
+        // Arrange
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        // Act
+        participant.beforeCheckpoint();
+
+        // Assert
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isZero();
+
+        // Act
+        participant.afterRestore();
+
+        // Assert
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should abort and resume the pool when a connection is not returned in time")
+    void beforeCheckpoint_withBorrowedConnection_shouldAbort() throws Exception {
+        try (Connection borrowed = dataSource.getConnection()) {
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> participant.beforeCheckpoint());
+        }
+
+        // Assert
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should drain every pool, including those behind a wrapping data source, once each")
+    void beforeCheckpoint_withSeveralPools_shouldDrainEach() throws Exception {
+        // Arrange
+        HikariDataSource replica = pool("crac-replica");
+        try {
+            participant = new ConnectionPoolCheckpointParticipant(
+                    Arrays.asList(new DelegatingDataSource(dataSource), dataSource, replica), 200);
+            try (Connection connection = replica.getConnection()) {
+                assertThat(connection.isValid(1)).isTrue();
+            }
+
+            // Act
+            participant.beforeCheckpoint();
+
+            // Assert
+            assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isZero();
+            assertThat(replica.getHikariPoolMXBean().getTotalConnections()).isZero();
+            participant.afterRestore();
+        } finally {
+            replica.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse at startup a pool that cannot be suspended")
+    void constructor_withUnsuspendablePool_shouldFail() {
+        // Arrange
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:crac-unsuspendable");
+        config.setUsername("sa");
+        config.setPoolName("unsuspendable");
+        HikariDataSource unsuspendable = new HikariDataSource(config);
+        try {
+            // Act & Assert
+            assertThatThrownBy(() -> new ConnectionPoolCheckpointParticipant(
+                    Collections.singletonList(unsuspendable), 200))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("unsuspendable");
+        } finally {
+            unsuspendable.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CircuitBreakerDataSource Unit Tests")
+class CircuitBreakerDataSourceTest {
+
+    private EmbeddedDatabase database;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    private DatabaseFaults faults;
+    private CircuitBreakerDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker("database", 10, 4, 50, 2000, 60000, meterRegistry);
+        faults = new DatabaseFaults(0, 0);
+        dataSource = new CircuitBreakerDataSource(
+                new FaultInjectingDataSource(database, faults), circuitBreaker, "database");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get(CircuitBreaker.CALLS_METRIC).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should record a success when the connection is closed")
+    void close_shouldRecordSuccessOnce() throws SQLException {
+        // Act
+        Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("SELECT 1");
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertThat(calls("success")).isEqualTo(1);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should open on failed borrows, then refuse connections without reaching the database")
+    void getConnection_withInjectedFailures_shouldOpenAndFailFast() {
+        // Arrange
+        faults.setFailureRate(1.0);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class)
+                    .isNotInstanceOf(CircuitBreakerOpenException.class);
+        }
+        faults.clear();
+
+        // Act & Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(calls("failure")).isEqualTo(4);
+        assertThat(calls("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not count ordinary SQL errors against the database")
+    void statement_withSqlError_shouldNotRecordFailure() throws SQLException {
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            assertThatThrownBy(() -> connection.createStatement().execute("SELECT * FROM missing_table"))
+                    .isInstanceOf(SQLException.class);
+        }
+
+        // Assert
+        assertThat(calls("failure")).isZero();
+        assertThat(calls("success")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not count a connection held longer than the slow call threshold as slow")
+    void close_afterLongHold_shouldRecordSuccess() throws Exception {
+        // Arrange
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker("database", 10, 4, 50, 50, 60000, meterRegistry);
+        dataSource = new CircuitBreakerDataSource(database, circuitBreaker, "database");
+
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            Thread.sleep(100);
+            connection.createStatement().execute("SELECT 1");
+        }
+
+        // Assert
+        assertThat(calls("slow")).isZero();
+        assertThat(calls("success")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CircuitBreaker Unit Tests")
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker("database", 10, 4, 50, 100, 1000, meterRegistry, clock::get);
+    }
+
+    private void calls(int count, boolean failed) {
+        for (int i = 0; i < count; i++) {
+            circuitBreaker.tryAcquire().release(FAST, failed);
+        }
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get(CircuitBreaker.CALLS_METRIC).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should open once the failure rate is reached over the minimum number of calls")
+    void release_shouldOpenAtFailureRate() {
+        // Act
+        calls(1, false);
+        calls(2, true);
+        CircuitBreaker.State belowMinimum = circuitBreaker.getState();
+        calls(1, false);
+
+        // Assert
+        assertThat(belowMinimum).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get(CircuitBreaker.STATE_METRIC).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count slow calls as failures")
+    void release_shouldCountSlowCalls() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.tryAcquire().release(TimeUnit.MILLISECONDS.toNanos(150), false);
+        }
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(calls("slow")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should refuse calls while open and count them")
+    void tryAcquire_shouldRejectWhileOpen() {
+        // Arrange
+        calls(4, true);
+
+        // Act
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+
+        // Assert
+        assertThat(permit).isNull();
+        assertThat(circuitBreaker.isCallPermitted()).isFalse();
+        assertThat(calls("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let a single probe through once the open period elapses, and close on its success")
+    void tryAcquire_shouldProbeThenClose() {
+        // Arrange
+        calls(4, true);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // Act
+        CircuitBreaker.Permit probe = circuitBreaker.tryAcquire();
+        CircuitBreaker.Permit second = circuitBreaker.tryAcquire();
+        probe.release(FAST, false);
+
+        // Assert
+        assertThat(probe).isNotNull();
+        assertThat(second).isNull();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should open again for another period when the probe fails")
+    void tryAcquire_shouldReopenOnFailedProbe() {
+        // Arrange
+        calls(4, true);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // Act
+        circuitBreaker.tryAcquire().release(FAST, true);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThat(circuitBreaker.isCallPermitted()).isFalse();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(circuitBreaker.isCallPermitted()).isTrue();
+    }
+}
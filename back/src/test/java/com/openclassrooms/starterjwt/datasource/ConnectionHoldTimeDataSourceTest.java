@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConnectionHoldTimeDataSource Unit Tests")
+class ConnectionHoldTimeDataSourceTest {
+
+    private EmbeddedDatabase database;
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionHoldTimeDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConnectionHoldTimeDataSource(database, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should record the hold time under the matched endpoint pattern")
+    void close_insideRequest_shouldRecordEndpoint() throws SQLException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/12");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/session/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("SELECT 1");
+        }
+
+        // Assert
+        Timer timer = meterRegistry.find(ConnectionHoldTimeDataSource.METRIC)
+                .tag("endpoint", "GET /api/session/{id}")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record connections borrowed outside a request once, even if closed twice")
+    void close_outsideRequest_shouldRecordOnce() throws SQLException {
+        // Act
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        // Assert
+        Timer timer = meterRegistry.find(ConnectionHoldTimeDataSource.METRIC).tag("endpoint", "none").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(connection.isClosed()).isTrue();
+    }
+}
@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class DatabaseOutageIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private DatabaseFaults faults;
+
+    @Autowired
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        teacherRepository.save(Teacher.builder()
+                .lastName("DELAHAYE")
+                .firstName("Margot")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        faults.clear();
+        circuitBreaker.reset();
+        teacherRepository.deleteAll();
+    }
+
+    @Test
+    void outage_shouldOpenBreakerThenServeStaleTeachersAndFailFastElsewhere() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/teacher")).andExpect(status().isOk());
+        faults.setFailureRate(1.0);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/api/user/999"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        }
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("Margot"));
+        mockMvc.perform(get("/api/user/999"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,66 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReplicaRoutingConfig Unit Tests")
+class ReplicaRoutingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(ReplicaRoutingConfig.class)
+            .withPropertyValues(
+                    "oc.app.datasource.routing.enabled=true",
+                    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.hikari.pool-name=yoga-pool",
+                    "spring.datasource.hikari.maximum-pool-size=4",
+                    "spring.datasource.hikari.allow-pool-suspension=true",
+                    "spring.datasource.hikari.data-source-properties.cachePrepStmts=true",
+                    "oc.app.datasource.routing.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+                    "oc.app.datasource.routing.replicas[0].username=sa");
+
+    @Test
+    @DisplayName("Should bind the primary and replica pools to the Hikari settings")
+    void pools_shouldBeBoundToHikariSettings() {
+        contextRunner.run(context -> {
+            HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+            HikariDataSource replica = context.getBean("replicaDataSource0", HikariDataSource.class);
+
+            assertThat(primary.getPoolName()).isEqualTo("yoga-pool");
+            assertThat(primary.getMaximumPoolSize()).isEqualTo(4);
+            assertThat(primary.isAllowPoolSuspension()).isTrue();
+            assertThat(primary.getDataSourceProperties()).containsEntry("cachePrepStmts", "true");
+
+            assertThat(replica.getPoolName()).isEqualTo("yoga-pool-replica-0");
+            assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1");
+            assertThat(replica.getMaximumPoolSize()).isEqualTo(4);
+            assertThat(replica.isAllowPoolSuspension()).isTrue();
+
+            assertThat(context.getBean(ReplicaLagMonitor.class).getReplicas()).containsExactly(replica);
+            assertThat(context.getBean("dataSource")).isNotInstanceOf(HikariDataSource.class);
+        });
+    }
+
+    @Test
+    @DisplayName("Should close every pool on shutdown")
+    void pools_shouldBeClosedOnShutdown() {
+        AtomicReference<HikariDataSource> primary = new AtomicReference<>();
+        AtomicReference<HikariDataSource> replica = new AtomicReference<>();
+
+        contextRunner.run(context -> {
+            primary.set(context.getBean("primaryDataSource", HikariDataSource.class));
+            replica.set(context.getBean("replicaDataSource0", HikariDataSource.class));
+        });
+
+        assertThat(primary.get().isClosed()).isTrue();
+        assertThat(replica.get().isClosed()).isTrue();
+    }
+}
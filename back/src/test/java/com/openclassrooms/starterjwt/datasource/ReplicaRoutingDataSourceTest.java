@@ -0,0 +1,122 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReplicaRoutingDataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private AtomicLong replicaLag;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE NODE (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO NODE (name) VALUES (?)", name);
+        return database;
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        replicaLag = new AtomicLong(0);
+        lagMonitor = new ReplicaLagMonitor(Collections.<DataSource>singletonList(replica), ds -> replicaLag.get(), 1000);
+        lagMonitor.probe();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, lagMonitor.getReplicas(), lagMonitor, new ReadYourWritesTracker(60000)));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    private String node(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM NODE", String.class));
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica")
+    void readOnlyTransaction_shouldUseReplica() {
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should send read-write transactions to the primary")
+    void readWriteTransaction_shouldUsePrimary() {
+        assertThat(node(readWriteTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should read from the primary when the replica lags too much")
+    void readOnlyTransaction_withLaggingReplica_shouldUsePrimary() {
+        // Arrange
+        replicaLag.set(5000);
+        lagMonitor.probe();
+
+        // Act & Assert
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+
+        // Replica catches up
+        replicaLag.set(200);
+        lagMonitor.probe();
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should keep the reads of a user on the primary after that user wrote")
+    void readOnlyTransaction_afterOwnWrite_shouldUsePrimary() {
+        // Arrange
+        authenticate("yoga@studio.com");
+        readWriteTransaction.execute(status -> jdbcTemplate.update("UPDATE NODE SET name = name"));
+
+        // Act & Assert
+        assertThat(node(readOnlyTransaction)).isEqualTo("primary");
+
+        authenticate("other@studio.com");
+        assertThat(node(readOnlyTransaction)).isEqualTo("replica");
+    }
+}
@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxEventSink sink;
+
+    @Test
+    void sessionChanges_areRecordedInOrderAndRelayed() {
+        // Arrange
+        User user = userRepository.save(new User("outbox@test.com", "Doe", "John", "password", false));
+
+        // Act
+        Session session = sessionService.create(new Session()
+                .setName("Outbox")
+                .setDescription("Outbox")
+                .setDate(new Date())
+                .setUsers(new ArrayList<>()));
+        sessionService.participate(session.getId(), user.getId());
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+        outboxRelay.relay();
+
+        // Assert
+        assertThat(outboxEventRepository.findByAggregateTypeAndAggregateIdOrderById(OutboxWriter.SESSION_AGGREGATE, session.getId()))
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly("CREATED", "PARTICIPANT_JOINED", "PARTICIPANT_LEFT");
+        assertThat(sink.getEvents())
+                .filteredOn(event -> event.getAggregateId().equals(session.getId()))
+                .extracting(OutboxEvent::getPayload)
+                .contains("{\"sessionId\":" + session.getId() + ",\"change\":\"PARTICIPANT_JOINED\",\"userId\":" + user.getId() + "}");
+    }
+
+    @Test
+    void rolledBackChange_leavesNoEvent() {
+        // Arrange
+        long before = outboxEventRepository.count();
+
+        // Act & Assert: participating with an unknown user fails and records nothing
+        Session session = sessionService.create(new Session()
+                .setName("Rollback")
+                .setDescription("Rollback")
+                .setDate(new Date())
+                .setUsers(new ArrayList<>()));
+        assertThatThrownBy(() -> sessionService.participate(session.getId(), -1L));
+
+        assertThat(outboxEventRepository.count()).isEqualTo(before + 1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxEvent;
+import com.openclassrooms.starterjwt.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxEventSink sink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, sink, new TransactionTemplate(transactionManager), 2, 24);
+    }
+
+    private OutboxEvent event(long id) {
+        return new OutboxEvent().setId(id).setAggregateType("Session").setAggregateId(1L)
+                .setEventType("UPDATED").setPayload("{}").setCreatedAt(LocalDateTime.now());
+    }
+
+    @Test
+    void testRelay_SendsFullBatchesUntilDrainedThenMarksThemPublished() throws Exception {
+        // Arrange
+        List<OutboxEvent> first = Arrays.asList(event(1), event(2));
+        List<OutboxEvent> second = Collections.singletonList(event(3));
+        when(outboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(first, second);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        InOrder order = inOrder(sink, outboxEventRepository);
+        order.verify(sink).publish(first);
+        order.verify(outboxEventRepository).markPublished(eq(Arrays.asList(1L, 2L)), any(LocalDateTime.class));
+        order.verify(sink).publish(second);
+        order.verify(outboxEventRepository).markPublished(eq(Collections.singletonList(3L)), any(LocalDateTime.class));
+        verify(outboxEventRepository, times(2)).findUnpublished(any(Pageable.class));
+    }
+
+    @Test
+    void testRelay_SinkFailure_StopsWithoutMarkingAndRollsBack() throws Exception {
+        // Arrange
+        List<OutboxEvent> batch = Arrays.asList(event(1), event(2));
+        when(outboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(batch);
+        doThrow(new IOException("disk full")).when(sink).publish(batch);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository, never()).markPublished(anyList(), any(LocalDateTime.class));
+        verify(outboxEventRepository, times(1)).findUnpublished(any(Pageable.class));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testRelay_NothingToSend() throws Exception {
+        // Arrange
+        when(outboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(sink, never()).publish(anyList());
+    }
+}
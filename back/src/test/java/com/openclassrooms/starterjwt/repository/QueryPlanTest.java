@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations and checks that the hot queries are answered from an index.
+ * H2 reports a full scan as {@code tableScan} in its plans.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("Query plans of the hot queries")
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    @Test
+    @DisplayName("Sessions attended by a user should use the user index")
+    void sessionsOfUser_shouldUseIndex() {
+        String plan = plan("SELECT s.* FROM PARTICIPATE p JOIN SESSIONS s ON s.id = p.session_id WHERE p.user_id = 1");
+
+        assertThat(plan).doesNotContain("tableScan").contains("idx_participate_user_session");
+    }
+
+    @Test
+    @DisplayName("Participants of a session should use the primary key")
+    void participantsOfSession_shouldUsePrimaryKey() {
+        String plan = plan("SELECT user_id FROM PARTICIPATE WHERE session_id = 1");
+
+        assertThat(plan).doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Participation check should use the primary key")
+    void participationCheck_shouldUsePrimaryKey() {
+        String plan = plan("SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = 1 AND user_id = 1");
+
+        assertThat(plan).doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Date-range listing should use the date index")
+    void sessionsInDateRange_shouldUseIndex() {
+        String plan = plan("SELECT * FROM SESSIONS WHERE date >= TIMESTAMP '2024-01-01 00:00:00' AND date < TIMESTAMP '2024-01-08 00:00:00'");
+
+        assertThat(plan).doesNotContain("tableScan").contains("idx_sessions_date");
+    }
+
+    @Test
+    @DisplayName("Teacher agenda should use the teacher/date index")
+    void sessionsOfTeacher_shouldUseIndex() {
+        String plan = plan("SELECT * FROM SESSIONS WHERE teacher_id = 1 AND date >= TIMESTAMP '2024-01-01 00:00:00'");
+
+        assertThat(plan).doesNotContain("tableScan").contains("idx_sessions_teacher_date");
+    }
+
+    @Test
+    @DisplayName("Login lookup should use the email index")
+    void userByEmail_shouldUseIndex() {
+        String plan = plan("SELECT * FROM USERS WHERE email = 'yoga@studio.com'");
+
+        assertThat(plan).doesNotContain("tableScan").contains("uk_users_email");
+    }
+}
@@ -0,0 +1,223 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("SessionRepository custom queries")
+class SessionRepositoryTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User attendee;
+    private Date now;
+
+    @BeforeEach
+    void setUp() {
+        now = new Date();
+        attendee = userRepository.save(new User("attendee@test.com", "Doe", "John", "password", false));
+        User other = userRepository.save(new User("other@test.com", "Roe", "Jane", "password", false));
+
+        saveSession("Past", -2, attendee);
+        saveSession("Next", 1, attendee);
+        saveSession("Later", 3, attendee);
+        saveSession("Not attended", 2, other);
+    }
+
+    private void saveSession(String name, int daysFromNow, User participant) {
+        saveSession(name, name, daysFromNow, participant);
+    }
+
+    private Session saveSession(String name, String description, int daysFromNow, User participant) {
+        Session session = new Session()
+                .setName(name)
+                .setDescription(description)
+                .setDate(new Date(now.getTime() + TimeUnit.DAYS.toMillis(daysFromNow)))
+                .setUsers(new ArrayList<>(Collections.singletonList(participant)));
+        return sessionRepository.save(session);
+    }
+
+    @Test
+    @DisplayName("Upcoming sessions of a user are paged soonest first")
+    void findByUserIdAndDateFrom_shouldReturnUpcomingSessionsOfUser() {
+        // Act
+        Page<Session> page = sessionRepository.findByUserIdAndDateFrom(attendee.getId(), now,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "date")));
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(Session::getName).containsExactly("Next");
+    }
+
+    @Test
+    @DisplayName("Past sessions of a user exclude upcoming ones")
+    void findByUserIdAndDateBefore_shouldReturnPastSessionsOfUser() {
+        // Act
+        Page<Session> page = sessionRepository.findByUserIdAndDateBefore(attendee.getId(), now,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "date")));
+
+        // Assert
+        assertThat(page.getContent()).extracting(Session::getName).containsExactly("Past");
+    }
+
+    @Test
+    @DisplayName("All sessions of a user exclude sessions of other users")
+    void findByUserId_shouldReturnOnlySessionsOfUser() {
+        // Act
+        Page<Session> page = sessionRepository.findByUserId(attendee.getId(),
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "date")));
+
+        // Assert
+        assertThat(page.getContent()).extracting(Session::getName).containsExactly("Later", "Next", "Past");
+    }
+
+    @Test
+    @DisplayName("Participations are paged in primary key order")
+    void findParticipationsAfter_shouldPageInKeyOrder() {
+        // Arrange
+        List<Object[]> all = sessionRepository.findParticipationsAfter(0, 0, 100);
+
+        // Act
+        List<Object[]> first = sessionRepository.findParticipationsAfter(0, 0, 2);
+        Object[] last = first.get(1);
+        List<Object[]> rest = sessionRepository.findParticipationsAfter(
+                ((Number) last[0]).intValue(), ((Number) last[1]).intValue(), 100);
+
+        // Assert
+        assertThat(all).hasSize(4);
+        assertThat(first).hasSize(2);
+        assertThat(rest).hasSize(2);
+        assertThat(((Number) rest.get(0)[0]).longValue()).isGreaterThan(((Number) last[0]).longValue());
+        assertThat(sessionRepository.existsParticipant(((Number) last[0]).longValue(), ((Number) last[1]).longValue())).isTrue();
+        assertThat(sessionRepository.existsParticipant(((Number) last[0]).longValue(), -1L)).isFalse();
+        assertThat(sessionRepository.findIdsByUserId(attendee.getId())).hasSize(3).isSorted();
+    }
+
+    @Test
+    @DisplayName("Summaries carry the listed columns only")
+    void findAllSummaries_shouldProjectSessionRows() {
+        // Arrange
+        Session session = saveSession("Summarized", "A long description", 6, attendee);
+        sessionRepository.recountParticipants(session.getId());
+
+        // Act
+        SessionSummaryDto summary = sessionRepository.findSummaryById(session.getId()).orElse(null);
+        List<SessionSummaryDto> summaries = sessionRepository.findAllSummaries();
+
+        // Assert
+        assertThat(summary).isNotNull();
+        assertThat(summary.getName()).isEqualTo("Summarized");
+        assertThat(summary.getId()).isEqualTo(session.getId());
+        assertThat(summary.getParticipantCount()).isEqualTo(1);
+        assertThat(summaries).extracting(SessionSummaryDto::getName)
+                .containsExactlyInAnyOrder("Past", "Next", "Later", "Not attended", "Summarized");
+    }
+
+    @Test
+    @DisplayName("Calendar queries bound sessions by date and teacher")
+    void calendarQueries_shouldFilterByDateAndTeacher() {
+        // Arrange
+        Teacher teacher = entityManager.persist(new Teacher().setFirstName("Margot").setLastName("Delahaye"));
+        Session taught = saveSession("Taught", "Taught", 1, attendee).setTeacher(teacher);
+        sessionRepository.saveAndFlush(taught);
+        Date from = new Date(now.getTime() + TimeUnit.HOURS.toMillis(12));
+        Date to = new Date(now.getTime() + TimeUnit.DAYS.toMillis(3));
+
+        // Act
+        List<SessionSummaryDto> between = sessionRepository.findSummariesBetween(from, to);
+        List<SessionSummaryDto> ofTeacher = sessionRepository.findTeacherSummariesBetween(teacher.getId(), from, to);
+
+        // Assert
+        assertThat(between).extracting(SessionSummaryDto::getName)
+                .containsExactlyInAnyOrder("Next", "Taught", "Not attended");
+        assertThat(ofTeacher).extracting(SessionSummaryDto::getId).containsExactly(taught.getId());
+        assertThat(sessionRepository.existsTeacherSessionBetween(teacher.getId(), from, to, 0L)).isTrue();
+        assertThat(sessionRepository.existsTeacherSessionBetween(teacher.getId(), from, to, taught.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Search ranks name matches above description matches")
+    void search_shouldRankNameMatchesFirst() {
+        // Arrange
+        saveSession("Morning stretch", "Gentle vinyasa flow", 4, attendee);
+        saveSession("Vinyasa flow", "Dynamic class", 5, attendee);
+
+        // Act
+        List<Session> sessions = sessionRepository.search("Vinyasa", 10);
+
+        // Assert
+        assertThat(sessions).extracting(Session::getName).containsExactly("Vinyasa flow", "Morning stretch");
+    }
+
+    @Test
+    @DisplayName("Search treats LIKE wildcards literally")
+    void search_shouldEscapeWildcards() {
+        // Act
+        List<Session> sessions = sessionRepository.search("%", 10);
+
+        // Assert
+        assertThat(sessions).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Entity saves leave the participant counter to the counter queries")
+    void participantCount_shouldOnlyChangeThroughCounterQueries() {
+        // Arrange
+        Session session = saveSession("Counted", "Counted", 6, attendee);
+
+        // Act
+        sessionRepository.recountParticipants(session.getId());
+        sessionRepository.adjustParticipantCount(session.getId(), 2);
+        entityManager.clear();
+
+        // Assert
+        assertThat(sessionRepository.findById(session.getId()).get().getParticipantCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Drift detection reports sessions whose counter differs from PARTICIPATE")
+    void findIdsWithParticipantCountDrift_shouldReportMismatches() {
+        // Arrange: saves do not write the counter, so every attended session drifted
+        Session session = saveSession("Drifted", "Drifted", 6, attendee);
+
+        // Act
+        List<Number> drifted = sessionRepository.findIdsWithParticipantCountDrift();
+        sessionRepository.recountParticipants(session.getId());
+        List<Number> afterRepair = sessionRepository.findIdsWithParticipantCountDrift();
+
+        // Assert
+        assertThat(drifted).extracting(Number::longValue).contains(session.getId());
+        assertThat(afterRepair).extracting(Number::longValue).doesNotContain(session.getId());
+    }
+}
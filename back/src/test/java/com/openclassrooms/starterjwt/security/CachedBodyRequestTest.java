@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CachedBodyRequest Unit Tests")
+class CachedBodyRequestTest {
+
+    private static CachedBodyRequest read(String body) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/register");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return CachedBodyRequest.read(request, 4096);
+    }
+
+    @Test
+    @DisplayName("Should hand the whole body to a read listener, then report it read")
+    void setReadListener_shouldNotifyDataThenEnd() throws IOException {
+        // Arrange
+        ServletInputStream in = read("{\"email\":\"yoga@studio.com\"}").getInputStream();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        // Act
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                byte[] buffer = new byte[8];
+                int read;
+                while (in.isReady() && (read = in.read(buffer)) != -1) {
+                    received.write(buffer, 0, read);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("end");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        // Assert
+        assertThat(events).containsExactly("data", "end");
+        assertThat(received.toString("UTF-8")).isEqualTo("{\"email\":\"yoga@studio.com\"}");
+    }
+
+    @Test
+    @DisplayName("Should report an empty body read at once")
+    void setReadListener_emptyBody_shouldOnlyReportEnd() throws IOException {
+        // Arrange
+        ServletInputStream in = read("").getInputStream();
+        List<String> events = new ArrayList<>();
+
+        // Act
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+                events.add("data");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("end");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        // Assert
+        assertThat(events).containsExactly("end");
+    }
+
+    @Test
+    @DisplayName("Should refuse a body larger than the limit")
+    void read_overLimit_shouldReturnNull() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContent(new byte[5000]);
+
+        // Act & Assert
+        assertThat(CachedBodyRequest.read(request, 4096)).isNull();
+    }
+}
@@ -0,0 +1,119 @@
+package com.openclassrooms.starterjwt.security.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BulkheadFilter Unit Tests")
+class BulkheadFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BulkheadFilter bulkheadFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheadFilter = new BulkheadFilter();
+        ReflectionTestUtils.setField(bulkheadFilter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(bulkheadFilter, "authMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheadFilter, "sessionReadsMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheadFilter, "bookingWritesMaxConcurrent", 1);
+        ReflectionTestUtils.setField(bulkheadFilter, "maxWaitMs", 0L);
+        bulkheadFilter.initFilterBean();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        bulkheadFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+    /**
+     * Performs {@code inner} while {@code outer} holds its permit.
+     */
+    private MockHttpServletResponse performDuring(MockHttpServletRequest outer, MockHttpServletRequest inner)
+            throws ServletException, IOException {
+        Map<String, MockHttpServletResponse> responses = new HashMap<>();
+        perform(outer, (request, response) -> responses.put("inner", perform(inner, new MockFilterChain())));
+        return responses.get("inner");
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 and Retry-After when the session reads bulkhead is full")
+    void doFilter_sessionReadsFull_shouldReject() throws ServletException, IOException {
+        // Act
+        MockHttpServletResponse response = performDuring(
+                new MockHttpServletRequest("GET", "/api/session"),
+                new MockHttpServletRequest("GET", "/api/session/3"));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("sessionReads");
+        assertThat(meterRegistry.get("yoga.bulkhead.rejected").tag("bulkhead", "sessionReads").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep endpoint classes apart and leave other endpoints unbounded")
+    void doFilter_otherClasses_shouldNotBeAffected() throws ServletException, IOException {
+        // Act
+        MockHttpServletResponse booking = performDuring(
+                new MockHttpServletRequest("GET", "/api/session"),
+                new MockHttpServletRequest("POST", "/api/session/3/participate/4"));
+        MockHttpServletResponse teachers = performDuring(
+                new MockHttpServletRequest("GET", "/api/session"),
+                new MockHttpServletRequest("GET", "/api/teacher"));
+        MockHttpServletResponse login = performDuring(
+                new MockHttpServletRequest("GET", "/api/session"),
+                new MockHttpServletRequest("POST", "/api/auth/login"));
+
+        // Assert
+        assertThat(booking.getStatus()).isEqualTo(200);
+        assertThat(teachers.getStatus()).isEqualTo(200);
+        assertThat(login.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should route authentication requests to the auth bulkhead")
+    void doFilter_authFull_shouldReject() throws ServletException, IOException {
+        // Act
+        MockHttpServletResponse response = performDuring(
+                new MockHttpServletRequest("POST", "/api/auth/login"),
+                new MockHttpServletRequest("POST", "/api/auth/register"));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getContentAsString()).contains("auth");
+    }
+
+    @Test
+    @DisplayName("Should release the permit once the request completes")
+    void doFilter_afterCompletion_shouldReleasePermit() throws ServletException, IOException {
+        // Arrange
+        perform(new MockHttpServletRequest("GET", "/api/session"), new MockFilterChain());
+
+        // Act
+        MockHttpServletResponse response = perform(new MockHttpServletRequest("GET", "/api/session"),
+                new MockFilterChain());
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("yoga.bulkhead.available").tag("bulkhead", "sessionReads").gauge().value())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,248 @@
+package com.openclassrooms.starterjwt.security.idempotency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("IdempotencyFilter Unit Tests")
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"name\":\"Yoga\"}";
+
+    private IdempotencyFilter idempotencyFilter;
+
+    private AtomicInteger executions;
+
+    private int status;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyFilter = new IdempotencyFilter();
+        ReflectionTestUtils.setField(idempotencyFilter, "idempotencyStore", new InMemoryIdempotencyStore(1000));
+        ReflectionTestUtils.setField(idempotencyFilter, "ttlMs", 60000L);
+        ReflectionTestUtils.setField(idempotencyFilter, "lockTtlMs", 60000L);
+        ReflectionTestUtils.setField(idempotencyFilter, "maxBodyBytes", 4096);
+        ReflectionTestUtils.setField(idempotencyFilter, "maxResponseBytes", 4096);
+        executions = new AtomicInteger();
+        status = 200;
+        authenticate("yoga@studio.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    private MockHttpServletRequest request(String key, String body) {
+        return request("POST", "/api/session", key, body);
+    }
+
+    private MockHttpServletRequest request(String method, String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /** Echoes the body back with a per-execution counter, standing in for the controller. */
+    private final FilterChain controller = (request, response) -> {
+        int execution = executions.incrementAndGet();
+        String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+        ((javax.servlet.http.HttpServletResponse) response).setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"execution\":" + execution + ",\"echo\":" + body + "}");
+    };
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, controller);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response to a retry without running the request again")
+    void retry_shouldReplayStoredResponse() throws Exception {
+        // Arrange
+        MockHttpServletResponse first = perform(request("key-1", BODY));
+
+        // Act
+        MockHttpServletResponse retry = perform(request("key-1", BODY));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(first.getContentAsString()).isEqualTo("{\"execution\":1,\"echo\":" + BODY + "}");
+        assertThat(retry.getStatus()).isEqualTo(200);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENCY_REPLAYED)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.IDEMPOTENCY_REPLAYED)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should replay client errors too")
+    void retry_afterClientError_shouldReplayError() throws Exception {
+        // Arrange
+        status = 400;
+        perform(request("key-1", BODY));
+
+        // Act
+        MockHttpServletResponse retry = perform(request("key-1", BODY));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(retry.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Should run the request again after a server error")
+    void retry_afterServerError_shouldRunAgain() throws Exception {
+        // Arrange
+        status = 500;
+        perform(request("key-1", BODY));
+        status = 200;
+
+        // Act
+        MockHttpServletResponse retry = perform(request("key-1", BODY));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(retry.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request with 422")
+    void reuse_withDifferentBody_shouldBeRejected() throws Exception {
+        // Arrange
+        perform(request("key-1", BODY));
+
+        // Act
+        MockHttpServletResponse response = perform(request("key-1", "{\"name\":\"Pilates\"}"));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the keys of different users apart")
+    void sameKey_forAnotherUser_shouldRunAgain() throws Exception {
+        // Arrange
+        perform(request("key-1", BODY));
+        authenticate("other@studio.com");
+
+        // Act
+        MockHttpServletResponse response = perform(request("key-1", BODY));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(response.getHeader(IdempotencyFilter.IDEMPOTENCY_REPLAYED)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should answer 409 while the first request is still running")
+    void retry_whileInFlight_shouldConflict() throws Exception {
+        // Arrange
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1000);
+        ReflectionTestUtils.setField(idempotencyFilter, "idempotencyStore", store);
+        MockHttpServletResponse[] retry = new MockHttpServletResponse[1];
+        FilterChain retryingController = (request, response) -> retry[0] = perform(request("key-1", BODY));
+
+        // Act
+        idempotencyFilter.doFilter(request("key-1", BODY), new MockHttpServletResponse(), retryingController);
+
+        // Assert
+        assertThat(retry[0].getStatus()).isEqualTo(409);
+        assertThat(retry[0].getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Should leave requests without a key untouched")
+    void noKey_shouldRunEveryTime() throws Exception {
+        // Act
+        perform(request(null, BODY));
+        perform(request(null, BODY));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject an oversized key with 400")
+    void oversizedKey_shouldBeRejected() throws Exception {
+        // Act
+        MockHttpServletResponse response = perform(request(new String(new char[256]).replace('\0', 'k'), BODY));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(executions.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should replay a retried participation")
+    void retry_onParticipate_shouldReplayStoredResponse() throws Exception {
+        // Arrange
+        perform(request("POST", "/api/session/1/participate/2", "key-1", ""));
+
+        // Act
+        MockHttpServletResponse retry = perform(request("POST", "/api/session/1/participate/2", "key-1", ""));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENCY_REPLAYED)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("Should leave login, refresh and the other endpoints untouched")
+    void otherEndpoints_shouldRunEveryTime() throws Exception {
+        // Act
+        perform(request("POST", "/api/auth/login", "key-1", BODY));
+        perform(request("POST", "/api/auth/login", "key-1", BODY));
+        perform(request("POST", "/api/auth/refresh", "key-2", BODY));
+        perform(request("POST", "/api/auth/refresh", "key-2", BODY));
+        perform(request("PUT", "/api/session/1", "key-3", BODY));
+        perform(request("PUT", "/api/session/1", "key-3", BODY));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should not store a response carrying a token")
+    void responseWithToken_shouldNotBeStored() throws Exception {
+        // Arrange
+        String body = "{\"token\":\"secret\"}";
+        perform(request("POST", "/api/auth/register", "key-1", body));
+
+        // Act
+        MockHttpServletResponse retry = perform(request("POST", "/api/auth/register", "key-1", body));
+
+        // Assert
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENCY_REPLAYED)).isNull();
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.security.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InMemoryIdempotencyStore Unit Tests")
+class InMemoryIdempotencyStoreTest {
+
+    private AtomicLong clock;
+    private InMemoryIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0);
+        store = new InMemoryIdempotencyStore(1000, clock::get);
+    }
+
+    private IdempotentResponse created() {
+        return IdempotentResponse.completed("fp", 200, "application/json", null,
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should hand the key to the first request and report it in flight to the next ones")
+    void reserve_shouldClaimKeyOnce() {
+        // Act
+        IdempotentResponse first = store.reserve("user:a:key", "fp", 1000);
+        IdempotentResponse second = store.reserve("user:a:key", "fp", 1000);
+
+        // Assert
+        assertThat(first).isNull();
+        assertThat(second).isNotNull();
+        assertThat(second.isCompleted()).isFalse();
+        assertThat(second.getFingerprint()).isEqualTo("fp");
+    }
+
+    @Test
+    @DisplayName("Should return the completed response until it expires")
+    void complete_shouldBeReplayedUntilExpiry() {
+        // Arrange
+        store.reserve("user:a:key", "fp", 1000);
+        store.complete("user:a:key", created(), 5000);
+
+        // Act & Assert
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(4999));
+        IdempotentResponse stored = store.reserve("user:a:key", "fp", 1000);
+        assertThat(stored.isCompleted()).isTrue();
+        assertThat(stored.getStatus()).isEqualTo(200);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(store.reserve("user:a:key", "fp", 1000)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should free the key of a released or abandoned request")
+    void release_andLockExpiry_shouldFreeKey() {
+        // Arrange
+        store.reserve("released", "fp", 1000);
+        store.reserve("abandoned", "fp", 1000);
+
+        // Act
+        store.release("released");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+
+        // Assert
+        assertThat(store.reserve("released", "fp", 1000)).isNull();
+        assertThat(store.reserve("abandoned", "fp", 1000)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used keys beyond the maximum")
+    void reserve_shouldStayBounded() {
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            store.reserve("key-" + i, "fp", 1000);
+        }
+
+        // Assert
+        assertThat(store.size()).isLessThanOrEqualTo(1000);
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.datasource.CircuitBreakerOpenException;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,12 +14,19 @@ import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,12 +42,19 @@ class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @Mock
     private FilterChain filterChain;
 
     private MockHttpServletRequest request;
     private MockHttpServletResponse response;
 
+    private Claims claims(String tokenId, String username) {
+        return Jwts.claims().setId(tokenId).setSubject(username).setIssuedAt(new Date());
+    }
+
     @BeforeEach
     void setUp() {
         request = new MockHttpServletRequest();
@@ -56,8 +71,8 @@ class AuthTokenFilterTest {
         UserDetails userDetails = new UserDetailsImpl(1L, username, "Test", "User", false, "password");
 
         request.addHeader("Authorization", "Bearer " + jwt);
-        when(jwtUtils.validateJwtToken(jwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(jwt)).thenReturn(username);
+        when(jwtUtils.parseJwtClaims(jwt)).thenReturn(claims("jti-1", username));
+        when(tokenRevocationList.isRevoked(eq("jti-1"), eq(username), anyLong())).thenReturn(false);
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         // Act
@@ -76,7 +91,7 @@ class AuthTokenFilterTest {
         // Arrange
         String jwt = "invalidJwtToken";
         request.addHeader("Authorization", "Bearer " + jwt);
-        when(jwtUtils.validateJwtToken(jwt)).thenReturn(false);
+        when(jwtUtils.parseJwtClaims(jwt)).thenReturn(null);
 
         // Act
         authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -96,9 +111,46 @@ class AuthTokenFilterTest {
 
         // Assert
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtUtils, never()).parseJwtClaims(anyString());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Should not set authentication when the token was revoked")
+    void doFilterInternal_withRevokedJwt_shouldNotSetAuthentication() throws ServletException, IOException {
+        // Arrange
+        String jwt = "revokedJwtToken";
+        request.addHeader("Authorization", "Bearer " + jwt);
+        when(jwtUtils.parseJwtClaims(jwt)).thenReturn(claims("jti-2", "deleted@test.com"));
+        when(tokenRevocationList.isRevoked(eq("jti-2"), eq("deleted@test.com"), anyLong())).thenReturn(true);
+
+        // Act
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should answer 503 instead of going on anonymously when the database is unavailable")
+    void doFilterInternal_withDatabaseDown_shouldAnswerServiceUnavailable() throws ServletException, IOException {
+        // Arrange
+        String jwt = "validJwtToken";
+        request.addHeader("Authorization", "Bearer " + jwt);
+        when(jwtUtils.parseJwtClaims(jwt)).thenReturn(claims("jti-3", "user@test.com"));
+        when(tokenRevocationList.isRevoked(eq("jti-3"), eq("user@test.com"), anyLong())).thenReturn(false);
+        when(userDetailsService.loadUserByUsername("user@test.com")).thenThrow(new CannotCreateTransactionException(
+                "Could not open JPA EntityManager", new CircuitBreakerOpenException("database")));
+
+        // Act
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        verify(filterChain, never()).doFilter(request, response);
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("JwtSigningKeys Unit Tests")
+class JwtSigningKeysTest {
+
+    private JwtSigningKeys signingKeys;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKeys = new JwtSigningKeys("", "", "", true, 0);
+    }
+
+    private String sign(JwtSigningKeys.SigningKey key) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.getId())
+                .setSubject("user@test.com")
+                .signWith(SignatureAlgorithm.ES256, key.getPrivateKey())
+                .compact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> publishedKeyIds() {
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) signingKeys.publicJwks().get("keys");
+        return keys.stream().map(jwk -> (String) jwk.get("kid")).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should publish the active key and the next one as P-256 JWKs")
+    void publicJwks_shouldPublishActiveAndNextKeys() {
+        // Act
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) signingKeys.publicJwks().get("keys");
+
+        // Assert
+        assertThat(keys).hasSize(2);
+        assertThat(publishedKeyIds()).contains(signingKeys.active().getId());
+        Map<String, Object> jwk = keys.get(0);
+        assertThat(jwk).containsEntry("kty", "EC").containsEntry("crv", "P-256").containsEntry("alg", "ES256");
+        assertThat(Base64.getUrlDecoder().decode((String) jwk.get("x"))).hasSize(32);
+        assertThat(Base64.getUrlDecoder().decode((String) jwk.get("y"))).hasSize(32);
+        assertThat(jwk).doesNotContainKey("d");
+    }
+
+    @Test
+    @DisplayName("Should sign with the published next key after a rotation and keep verifying older tokens")
+    void rotate_shouldPromoteNextKey() throws GeneralSecurityException {
+        // Arrange
+        JwtSigningKeys.SigningKey previous = signingKeys.active();
+        String token = sign(previous);
+        List<String> publishedBefore = publishedKeyIds();
+
+        // Act
+        signingKeys.rotate();
+
+        // Assert
+        assertThat(signingKeys.active().getId()).isNotEqualTo(previous.getId());
+        assertThat(publishedBefore).contains(signingKeys.active().getId());
+        assertThat(Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(token).getBody().getSubject())
+                .isEqualTo("user@test.com");
+    }
+
+    @Test
+    @DisplayName("Should drop a retired key once the tokens it signed have expired")
+    void rotate_shouldDropExpiredRetiredKeys() throws Exception {
+        // Arrange
+        String token = sign(signingKeys.active());
+        signingKeys.rotate();
+        Thread.sleep(5);
+
+        // Act
+        signingKeys.rotate();
+
+        // Assert
+        assertThat(publishedKeyIds()).hasSize(3);
+        assertThrows(SignatureException.class,
+                () -> Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(token));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start without a key store unless generated keys are enabled")
+    void constructor_shouldRequireKeyStore() {
+        // Act & Assert
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new JwtSigningKeys("", "", "", false, 0));
+        assertThat(e).hasMessageContaining("oc.app.jwtKeyStore");
+    }
+}
@@ -1,7 +1,11 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,6 +17,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,12 +36,14 @@ class JwtUtilsTest {
     @Mock
     private Authentication authentication;
 
-    private final String jwtSecret = "testSecretKeyForJwtUtilsTest1234567890Test"; // Must be long enough for HS512
     private final int jwtExpirationMs = 3600000;
 
+    private JwtSigningKeys signingKeys;
+
     @BeforeEach
-    void setUp() {
-        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", jwtSecret);
+    void setUp() throws GeneralSecurityException, IOException {
+        signingKeys = new JwtSigningKeys("", "", "", true, jwtExpirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "signingKeys", signingKeys);
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", jwtExpirationMs);
     }
 
@@ -65,8 +74,23 @@ class JwtUtilsTest {
 
             // Assert
             assertThat(token).isNotNull().isNotEmpty();
-            String username = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
-            assertThat(username).isEqualTo(userDetails.getUsername());
+            Jws<Claims> jws = Jwts.parser().setSigningKey(signingKeys.active().getPublicKey()).parseClaimsJws(token);
+            assertThat(jws.getHeader().getAlgorithm()).isEqualTo("ES256");
+            assertThat(jws.getHeader().getKeyId()).isEqualTo(signingKeys.active().getId());
+            assertThat(jws.getBody().getSubject()).isEqualTo(userDetails.getUsername());
+        }
+
+        @Test
+        @DisplayName("Should give every token its own id")
+        void testGenerateTokenFromUsername_UniqueIds() {
+            // Act
+            Claims first = jwtUtils.parseJwtClaims(jwtUtils.generateTokenFromUsername("testuser@test.com"));
+            Claims second = jwtUtils.parseJwtClaims(jwtUtils.generateTokenFromUsername("testuser@test.com"));
+
+            // Assert
+            assertThat(first.getId()).isNotBlank().isNotEqualTo(second.getId());
+            assertThat(first.getSubject()).isEqualTo("testuser@test.com");
+            assertThat(first.getExpiration().getTime() - first.getIssuedAt().getTime()).isEqualTo(jwtExpirationMs);
         }
     }
 
@@ -94,12 +118,13 @@ class JwtUtilsTest {
     @DisplayName("Token Validation")
     class ValidateTokenTests {
 
-        private String generateTestToken(String username, Date expiration, String secret) {
+        private String generateTestToken(String username, Date expiration, String keyId, PrivateKey key) {
            return Jwts.builder()
+                   .setHeaderParam(JwsHeader.KEY_ID, keyId)
                    .setSubject(username)
                    .setIssuedAt(new Date())
                    .setExpiration(expiration)
-                   .signWith(io.jsonwebtoken.SignatureAlgorithm.HS512, secret)
+                   .signWith(SignatureAlgorithm.ES256, key)
                    .compact();
         }
 
@@ -120,9 +145,44 @@ class JwtUtilsTest {
 
         @Test
         @DisplayName("Should return false for an invalid signature")
-        void testValidateJwtToken_InvalidSignature() {
+        void testValidateJwtToken_InvalidSignature() throws GeneralSecurityException, IOException {
+            // Arrange
+            PrivateKey otherKey = new JwtSigningKeys("", "", "", true, jwtExpirationMs).active().getPrivateKey();
+            String token = generateTestToken("user", new Date(System.currentTimeMillis() + jwtExpirationMs),
+                    signingKeys.active().getId(), otherKey);
+
+            // Act
+            boolean isValid = jwtUtils.validateJwtToken(token);
+
+            // Assert
+            assertFalse(isValid);
+        }
+
+        @Test
+        @DisplayName("Should return false for a token signed with an unknown key id")
+        void testValidateJwtToken_UnknownKeyId() throws GeneralSecurityException, IOException {
+            // Arrange
+            JwtSigningKeys.SigningKey otherKey = new JwtSigningKeys("", "", "", true, jwtExpirationMs).active();
+            String token = generateTestToken("user", new Date(System.currentTimeMillis() + jwtExpirationMs),
+                    otherKey.getId(), otherKey.getPrivateKey());
+
+            // Act
+            boolean isValid = jwtUtils.validateJwtToken(token);
+
+            // Assert
+            assertFalse(isValid);
+        }
+
+        @Test
+        @DisplayName("Should return false for a token signed with a shared secret")
+        void testValidateJwtToken_HmacToken() {
             // Arrange
-            String token = generateTestToken("user", new Date(System.currentTimeMillis() + jwtExpirationMs), "wrongSecret");
+            String token = Jwts.builder()
+                    .setHeaderParam(JwsHeader.KEY_ID, signingKeys.active().getId())
+                    .setSubject("user")
+                    .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                    .signWith(SignatureAlgorithm.HS512, "testSecretKeyForJwtUtilsTest1234567890Test")
+                    .compact();
 
             // Act
             boolean isValid = jwtUtils.validateJwtToken(token);
@@ -148,7 +208,8 @@ class JwtUtilsTest {
         @DisplayName("Should return false for an expired token")
         void testValidateJwtToken_Expired() {
              // Arrange
-             String token = generateTestToken("user", new Date(System.currentTimeMillis() - 1000), jwtSecret); // Expired 1 second ago
+             String token = generateTestToken("user", new Date(System.currentTimeMillis() - 1000),
+                     signingKeys.active().getId(), signingKeys.active().getPrivateKey()); // Expired 1 second ago
 
             // Act
             boolean isValid = jwtUtils.validateJwtToken(token);
@@ -178,7 +239,7 @@ class JwtUtilsTest {
 
              // Assert preliminary check (Jwts parser)
              assertThrows(IllegalArgumentException.class, () -> {
-                 Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
+                 Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(token);
              });
 
              // Act & Assert (JwtUtils method)
@@ -191,7 +252,7 @@ class JwtUtilsTest {
         void testValidateJwtToken_NullToken() {
             // Assert preliminary check (Jwts parser)
             assertThrows(IllegalArgumentException.class, () -> {
-                Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(null);
+                Jwts.parser().setSigningKeyResolver(signingKeys).parseClaimsJws(null);
             });
 
             // Act & Assert (JwtUtils method)
@@ -0,0 +1,94 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.cache.LocalCacheInvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TokenRevocationList Unit Tests")
+class TokenRevocationListTest {
+
+    private LocalCacheInvalidationBus bus;
+    private TokenRevocationList revocationList;
+
+    private TokenRevocationList node() {
+        TokenRevocationList node = new TokenRevocationList();
+        ReflectionTestUtils.setField(node, "jwtExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(node, "bus", bus);
+        node.subscribe();
+        return node;
+    }
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalCacheInvalidationBus();
+        revocationList = node();
+    }
+
+    @Test
+    @DisplayName("Should revoke a single token by its id")
+    void revoke_shouldRevokeOnlyThatToken() {
+        // Arrange
+        long now = System.currentTimeMillis();
+
+        // Act
+        revocationList.revoke("jti-1", now + 60_000);
+
+        // Assert
+        assertThat(revocationList.isRevoked("jti-1", "user@test.com", now)).isTrue();
+        assertThat(revocationList.isRevoked("jti-2", "user@test.com", now)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should revoke every token of a subject issued up to the revocation")
+    void revokeAllFor_shouldRevokeOlderTokensOnly() {
+        // Arrange
+        long before = System.currentTimeMillis() - 1000;
+
+        // Act
+        revocationList.revokeAllFor("user@test.com");
+
+        // Assert
+        assertThat(revocationList.isRevoked("jti-1", "user@test.com", before)).isTrue();
+        assertThat(revocationList.isRevoked("jti-1", "other@test.com", before)).isFalse();
+        assertThat(revocationList.isRevoked("jti-1", "user@test.com", System.currentTimeMillis() + 2000)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should forget revocations once the tokens they cover have expired")
+    void purge_shouldDropExpiredEntries() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        revocationList.revoke("expired", now - 1);
+        revocationList.revoke("live", now + 60_000);
+        revocationList.revokeAllFor("user@test.com");
+
+        // Act
+        revocationList.purge();
+
+        // Assert
+        assertThat(revocationList.size()).isEqualTo(2);
+        assertThat(revocationList.isRevoked("expired", "nobody", now)).isFalse();
+        assertThat(revocationList.isRevoked("live", "nobody", now)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should apply the revocations made on another node")
+    void revocations_shouldReachEveryNode() {
+        // Arrange
+        TokenRevocationList otherNode = node();
+        long before = System.currentTimeMillis() - 1000;
+
+        // Act
+        otherNode.revokeAllFor("user@test.com");
+        otherNode.revoke("jti-1", before + 60_000);
+
+        // Assert
+        assertThat(revocationList.isRevoked("jti-2", "user@test.com", before)).isTrue();
+        assertThat(revocationList.isRevoked("jti-1", "other@test.com", before)).isTrue();
+        assertThat(revocationList.isRevoked("jti-2", "other@test.com", before)).isFalse();
+    }
+}
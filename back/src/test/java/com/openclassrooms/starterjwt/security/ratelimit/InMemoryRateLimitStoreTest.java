@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InMemoryRateLimitStore Unit Tests")
+class InMemoryRateLimitStoreTest {
+
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(60);
+
+    private AtomicLong clock;
+    private InMemoryRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0);
+        store = new InMemoryRateLimitStore(1000, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should grant tokens up to the bucket capacity")
+    void tryConsume_withinCapacity_shouldGrant() {
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("ip:1.2.3.4", 3, PERIOD)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the wait time once the bucket is empty")
+    void tryConsume_overCapacity_shouldReturnWaitTime() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("ip:1.2.3.4", 3, PERIOD);
+        }
+
+        // Act
+        long wait = store.tryConsume("ip:1.2.3.4", 3, PERIOD);
+
+        // Assert
+        assertThat(wait).isEqualTo(PERIOD / 3);
+    }
+
+    @Test
+    @DisplayName("Should refill the bucket over time")
+    void tryConsume_afterRefill_shouldGrantAgain() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("ip:1.2.3.4", 3, PERIOD);
+        }
+
+        // Act
+        clock.addAndGet(PERIOD / 3);
+
+        // Assert
+        assertThat(store.tryConsume("ip:1.2.3.4", 3, PERIOD)).isZero();
+        assertThat(store.tryConsume("ip:1.2.3.4", 3, PERIOD)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep buckets of different keys independent")
+    void tryConsume_differentKeys_shouldBeIndependent() {
+        // Arrange
+        store.tryConsume("email:a@test.com", 1, PERIOD);
+
+        // Act & Assert
+        assertThat(store.tryConsume("email:a@test.com", 1, PERIOD)).isPositive();
+        assertThat(store.tryConsume("email:b@test.com", 1, PERIOD)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used keys beyond the configured size")
+    void tryConsume_manyKeys_shouldStayBounded() {
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            store.tryConsume("ip:" + i, 5, PERIOD);
+        }
+
+        // Assert
+        assertThat(store.size()).isLessThanOrEqualTo(1000);
+    }
+}
@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitFilter Unit Tests")
+class RateLimitFilterTest {
+
+    private static final String LOGIN_BODY = "{\"email\":\"Yoga@Studio.com\",\"password\":\"test!1234\"}";
+
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitFilter = new RateLimitFilter();
+        ReflectionTestUtils.setField(rateLimitFilter, "rateLimitStore", new InMemoryRateLimitStore(1000));
+        ReflectionTestUtils.setField(rateLimitFilter, "ipCapacity", 3);
+        ReflectionTestUtils.setField(rateLimitFilter, "ipRefillPeriodMs", 60000L);
+        ReflectionTestUtils.setField(rateLimitFilter, "emailCapacity", 2);
+        ReflectionTestUtils.setField(rateLimitFilter, "emailRefillPeriodMs", 60000L);
+        ReflectionTestUtils.setField(rateLimitFilter, "maxBodyBytes", 4096);
+        ReflectionTestUtils.setField(rateLimitFilter, "trustForwardedFor", false);
+    }
+
+    private MockHttpServletRequest loginRequest(String remoteAddr, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, MockFilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Should pass the request with its body intact when under the limit")
+    void doFilter_underLimit_shouldPassBody() throws ServletException, IOException {
+        // Arrange
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform(loginRequest("10.0.0.1", LOGIN_BODY), chain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(StreamUtils.copyToString(chain.getRequest().getInputStream(), StandardCharsets.UTF_8))
+                .isEqualTo(LOGIN_BODY);
+    }
+
+    @Test
+    @DisplayName("Should reject with 429 once the email bucket is empty, whatever the address")
+    void doFilter_sameEmail_shouldBeThrottled() throws ServletException, IOException {
+        // Arrange
+        perform(loginRequest("10.0.0.1", LOGIN_BODY), new MockFilterChain());
+        perform(loginRequest("10.0.0.2", LOGIN_BODY), new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform(
+                loginRequest("10.0.0.3", LOGIN_BODY.replace("Yoga@Studio.com", " yoga@studio.com ")), chain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("30");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject with 429 once the address bucket is empty, whatever the email")
+    void doFilter_sameAddress_shouldBeThrottled() throws ServletException, IOException {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            perform(loginRequest("10.0.0.1", "{\"email\":\"user" + i + "@test.com\"}"), new MockFilterChain());
+        }
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform(loginRequest("10.0.0.1", "{\"email\":\"other@test.com\"}"), chain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getContentAsString()).contains("Too Many Requests");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject oversized bodies without parsing them")
+    void doFilter_oversizedBody_shouldBeRejected() throws ServletException, IOException {
+        // Arrange
+        StringBuilder body = new StringBuilder("{\"email\":\"");
+        for (int i = 0; i < 5000; i++) {
+            body.append('a');
+        }
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform(loginRequest("10.0.0.1", body.append("\"}").toString()), chain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not throttle endpoints outside /api/auth")
+    void doFilter_otherEndpoint_shouldNotBeThrottled() throws ServletException, IOException {
+        for (int i = 0; i < 10; i++) {
+            // Arrange
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+            request.setRemoteAddr("10.0.0.1");
+            MockFilterChain chain = new MockFilterChain();
+
+            // Act
+            MockHttpServletResponse response = perform(request, chain);
+
+            // Assert
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(chain.getRequest()).isSameAs(request);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Unit Tests")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, tokenRevocationList, 60_000);
+        user = new User();
+        user.setId(1L);
+        user.setEmail("user@test.com");
+    }
+
+    private RefreshToken stored(String token, boolean revoked, LocalDateTime expiresAt) {
+        RefreshToken refreshToken = new RefreshToken()
+                .setId(5L)
+                .setUser(user)
+                .setTokenHash(RefreshTokenService.hash(token))
+                .setFamilyId("family-1")
+                .setRevoked(revoked)
+                .setCreatedAt(LocalDateTime.now())
+                .setExpiresAt(expiresAt);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(token))).thenReturn(Optional.of(refreshToken));
+        return refreshToken;
+    }
+
+    @Test
+    @DisplayName("Should store only the hash of an issued token")
+    void issue_shouldStoreHash() {
+        // Act
+        String token = refreshTokenService.issue(user);
+
+        // Assert
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getTokenHash()).isEqualTo(RefreshTokenService.hash(token)).isNotEqualTo(token);
+        assertThat(captor.getValue().getExpiresAt()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should revoke the presented token and issue one in the same family")
+    void rotate_shouldRotateWithinFamily() {
+        // Arrange
+        RefreshToken current = stored("current", false, LocalDateTime.now().plusMinutes(1));
+
+        // Act
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate("current");
+
+        // Assert
+        assertThat(rotation).isPresent();
+        assertThat(rotation.get().getUser()).isEqualTo(user);
+        assertThat(rotation.get().getRefreshToken()).isNotEqualTo("current");
+        assertThat(current.isRevoked()).isTrue();
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getFamilyId()).isEqualTo("family-1");
+    }
+
+    @Test
+    @DisplayName("Should revoke the family and the access tokens when a rotated token is reused")
+    void rotate_withReusedToken_shouldRevokeEverything() {
+        // Arrange
+        stored("stolen", true, LocalDateTime.now().plusMinutes(1));
+
+        // Act
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate("stolen");
+
+        // Assert
+        assertThat(rotation).isEmpty();
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(tokenRevocationList).revokeAllFor("user@test.com");
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse an expired token")
+    void rotate_withExpiredToken_shouldFail() {
+        // Arrange
+        stored("expired", false, LocalDateTime.now().minusSeconds(1));
+
+        // Act & Assert
+        assertThat(refreshTokenService.rotate("expired")).isEmpty();
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse an unknown token")
+    void rotate_withUnknownToken_shouldFail() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThat(refreshTokenService.rotate("unknown")).isEmpty();
+    }
+}
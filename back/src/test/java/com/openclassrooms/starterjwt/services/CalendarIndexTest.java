@@ -0,0 +1,190 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.LocalCacheInvalidationBus;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CalendarIndex Unit Tests")
+class CalendarIndexTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private LocalCacheInvalidationBus bus;
+
+    private CalendarIndex calendarIndex;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalCacheInvalidationBus();
+        calendarIndex = new CalendarIndex(sessionRepository, bus, 60000, HOUR);
+    }
+
+    private static Date at(long hours) {
+        return new Date(hours * HOUR);
+    }
+
+    /** Teacher 1 teaches sessions 1 (10h) and 3 (14h), teacher 2 session 2 (10h), session 4 (12h) has no teacher. */
+    private void load() {
+        load(calendarIndex);
+    }
+
+    private void load(CalendarIndex index) {
+        when(sessionRepository.findCalendarEntries()).thenReturn(Arrays.asList(
+                new Object[]{3L, at(14), 1L},
+                new Object[]{1L, at(10), 1L},
+                new Object[]{2L, at(10), 2L},
+                new Object[]{4L, at(12), null}));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should list the sessions of a range, earliest first")
+    void between_shouldReturnSessionsInStartOrder() {
+        // Arrange
+        assertThat(calendarIndex.isReady()).isFalse();
+
+        // Act
+        load();
+
+        // Assert
+        assertThat(calendarIndex.isReady()).isTrue();
+        assertThat(calendarIndex.between(at(10), at(14))).containsExactly(1L, 2L, 4L);
+        assertThat(calendarIndex.between(at(14), at(10))).isEmpty();
+        assertThat(calendarIndex.ofTeacherBetween(1L, at(0), at(24))).containsExactly(1L, 3L);
+        assertThat(calendarIndex.ofTeacherBetween(3L, at(0), at(24))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave out the sessions without a date")
+    void rebuild_shouldSkipSessionsWithoutDate() {
+        // Arrange
+        when(sessionRepository.findCalendarEntries()).thenReturn(Arrays.asList(
+                new Object[]{1L, null, 1L},
+                new Object[]{2L, at(10), 1L}));
+        when(sessionRepository.findCalendarEntry(3L)).thenReturn(Collections.singletonList(new Object[]{3L, null, 1L}));
+
+        // Act
+        calendarIndex.rebuild();
+        calendarIndex.onSessionChanged(new SessionChangedEvent(3L, SessionChange.CREATED, null));
+
+        // Assert
+        assertThat(calendarIndex.isReady()).isTrue();
+        assertThat(calendarIndex.ofTeacherBetween(1L, at(0), at(24))).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should follow committed moves and deletions")
+    void onSessionChanged_shouldReloadChangedSessions() {
+        // Arrange
+        load();
+        when(sessionRepository.findCalendarEntry(1L)).thenReturn(Collections.singletonList(new Object[]{1L, at(20), 2L}));
+
+        // Act
+        calendarIndex.onSessionChanged(new SessionChangedEvent(1L, SessionChange.UPDATED, null));
+        calendarIndex.onSessionChanged(new SessionChangedEvent(3L, SessionChange.DELETED, null));
+        calendarIndex.onSessionChanged(new SessionChangedEvent(4L, SessionChange.PARTICIPANT_JOINED, 10L));
+
+        // Assert
+        assertThat(calendarIndex.ofTeacherBetween(1L, at(0), at(24))).isEmpty();
+        assertThat(calendarIndex.ofTeacherBetween(2L, at(0), at(24))).containsExactly(2L, 1L);
+        assertThat(calendarIndex.between(at(0), at(24))).containsExactly(2L, 4L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should replay the changes committed while it was loading")
+    void rebuild_shouldReplayConcurrentChanges() {
+        // Arrange: session 1 is deleted after the load has read it
+        when(sessionRepository.findCalendarEntries()).thenAnswer(invocation -> {
+            calendarIndex.onSessionChanged(new SessionChangedEvent(1L, SessionChange.DELETED, null));
+            return Collections.singletonList(new Object[]{1L, at(10), 1L});
+        });
+
+        // Act
+        calendarIndex.rebuild();
+
+        // Assert
+        assertThat(calendarIndex.between(at(0), at(24))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should read a changed session without holding the lock")
+    void onSessionChanged_shouldQueryOutsideTheLock() {
+        // Arrange
+        load();
+        Object lock = ReflectionTestUtils.getField(calendarIndex, "lock");
+        when(sessionRepository.findCalendarEntry(5L)).thenAnswer(invocation -> {
+            assertThat(Thread.holdsLock(lock)).isFalse();
+            return Collections.singletonList(new Object[]{5L, at(16), 1L});
+        });
+
+        // Act
+        calendarIndex.onSessionChanged(new SessionChangedEvent(5L, SessionChange.CREATED, null));
+
+        // Assert
+        assertThat(calendarIndex.ofTeacherBetween(1L, at(0), at(24))).containsExactly(1L, 3L, 5L);
+    }
+
+    @Test
+    @DisplayName("Should apply the sessions changed on another node")
+    void onSessionChanged_shouldReachTheOtherNodes() {
+        // Arrange
+        CalendarIndex otherNode = new CalendarIndex(sessionRepository, bus, 60000, HOUR);
+        load();
+        load(otherNode);
+        when(sessionRepository.findCalendarEntry(5L)).thenReturn(Collections.singletonList(new Object[]{5L, at(16), 2L}));
+
+        // Act
+        otherNode.onSessionChanged(new SessionChangedEvent(5L, SessionChange.CREATED, null));
+        otherNode.onSessionChanged(new SessionChangedEvent(3L, SessionChange.DELETED, null));
+
+        // Assert
+        assertThat(calendarIndex.between(at(0), at(24))).containsExactly(1L, 2L, 4L, 5L);
+        assertThat(calendarIndex.ofTeacherBetween(2L, at(0), at(24))).containsExactly(2L, 5L);
+        assertThat(otherNode.between(at(0), at(24))).containsExactly(1L, 2L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("Should stay empty from a checkpoint until it is reloaded after the restore")
+    void suspend_shouldEmptyTheCalendarUntilResumed() throws InterruptedException {
+        // Arrange
+        load();
+
+        // Act
+        calendarIndex.suspend();
+        calendarIndex.rebuild();
+
+        // Assert
+        assertThat(calendarIndex.isReady()).isFalse();
+        assertThat(calendarIndex.between(at(0), at(24))).isEmpty();
+
+        // Act
+        calendarIndex.resume();
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!calendarIndex.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        calendarIndex.shutdown();
+        assertThat(calendarIndex.isReady()).isTrue();
+        assertThat(calendarIndex.between(at(0), at(24))).containsExactly(1L, 2L, 4L, 3L);
+    }
+}
@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParticipantCountReconcilerTest {
+
+    @Mock
+    private SessionService sessionService;
+
+    @InjectMocks
+    private ParticipantCountReconciler reconciler;
+
+    @Test
+    void testReconcile_RepairsEveryDriftedSession() {
+        // Arrange
+        when(sessionService.findParticipantCountDrift()).thenReturn(Arrays.asList(1L, 2L));
+        doThrow(new IllegalStateException("locked")).when(sessionService).repairParticipantCount(1L);
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(sessionService).repairParticipantCount(1L);
+        verify(sessionService).repairParticipantCount(2L);
+    }
+
+    @Test
+    void testReconcile_NoDrift() {
+        // Arrange
+        when(sessionService.findParticipantCountDrift()).thenReturn(Collections.emptyList());
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(sessionService, never()).repairParticipantCount(anyLong());
+    }
+}
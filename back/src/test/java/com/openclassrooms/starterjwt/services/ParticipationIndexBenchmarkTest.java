@@ -0,0 +1,110 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.LocalCacheInvalidationBus;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Memory and lookup throughput of the index over 10M participations (200k sessions of 50 users out of 1M),
+ * against scanning the participant id list as the entity path does. Opt-in:
+ * <pre>
+ *   mvn test -Dtest=ParticipationIndexBenchmarkTest -Dbenchmark=true -DargLine=-Xmx4g
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("ParticipationIndex benchmark")
+@Log4j2
+class ParticipationIndexBenchmarkTest {
+    private static final int SESSIONS = 200_000;
+    private static final int USERS_PER_SESSION = 50;
+    private static final int USERS = 1_000_000;
+    private static final int BATCH = 100_000;
+    private static final int LOOKUPS = 10_000_000;
+
+    @Test
+    void benchmark() {
+        // Arrange: PARTICIPATE in primary key order, served in pages like the database would
+        int[][] participants = new int[SESSIONS + 1][];
+        Random random = new Random(42);
+        for (int session = 1; session <= SESSIONS; session++) {
+            participants[session] = random.ints(1, USERS + 1).distinct().limit(USERS_PER_SESSION).sorted().toArray();
+        }
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.findParticipationsAfter(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int session = invocation.getArgument(0);
+            int user = invocation.getArgument(1);
+            List<Object[]> page = new ArrayList<>(BATCH);
+            for (int s = Math.max(session, 1); s <= SESSIONS && page.size() < BATCH; s++) {
+                for (int u : participants[s]) {
+                    if ((s > session || u > user) && page.size() < BATCH) {
+                        page.add(new Object[]{s, u});
+                    }
+                }
+            }
+            return page;
+        });
+        ParticipationIndex index = new ParticipationIndex(sessionRepository, new LocalCacheInvalidationBus(), 60000, BATCH);
+
+        // Act
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        index.rebuild();
+        long loadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long heapAfter = usedHeap();
+
+        List<List<Long>> lists = new ArrayList<>(1000);
+        for (int session = 1; session <= 1000; session++) {
+            List<Long> ids = new ArrayList<>();
+            for (int u : participants[session]) {
+                ids.add((long) u);
+            }
+            lists.add(ids);
+        }
+        long hits = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            long userId = participants[1 + i % 1000][i % USERS_PER_SESSION] + (i & 1);
+            if (index.isParticipant(1 + i % 1000, userId)) {
+                hits++;
+            }
+        }
+        long indexNs = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            long userId = participants[1 + i % 1000][i % USERS_PER_SESSION] + (i & 1);
+            if (lists.get(i % 1000).stream().anyMatch(id -> id == userId)) {
+                hits--;
+            }
+        }
+        long scanNs = System.nanoTime() - start;
+
+        // Assert
+        log.info("participation index: {} rows loaded in {} ms, bitmaps {} MiB, heap +{} MiB",
+                (long) SESSIONS * USERS_PER_SESSION, loadMs, index.sizeInBytes() >> 20, (heapAfter - heapBefore) >> 20);
+        log.info("isParticipant {} ns/op, list anyMatch {} ns/op",
+                String.format("%.1f", (double) indexNs / LOOKUPS), String.format("%.1f", (double) scanNs / LOOKUPS));
+        assertThat(hits).isZero();
+        assertThat(index.participantCount(SESSIONS)).isEqualTo(USERS_PER_SESSION);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,226 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.cache.LocalCacheInvalidationBus;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ParticipationIndex Unit Tests")
+class ParticipationIndexTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private LocalCacheInvalidationBus bus;
+
+    private ParticipationIndex participationIndex;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalCacheInvalidationBus();
+        participationIndex = new ParticipationIndex(sessionRepository, bus, 60000, 2);
+    }
+
+    private static List<Object[]> rows(int... sessionAndUserIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < sessionAndUserIds.length; i += 2) {
+            rows.add(new Object[]{sessionAndUserIds[i], sessionAndUserIds[i + 1]});
+        }
+        return rows;
+    }
+
+    /** Sessions 1 and 2 attended by user 10, session 1 also by user 11, loaded in two pages. */
+    private void load() {
+        load(participationIndex);
+    }
+
+    private void load(ParticipationIndex index) {
+        when(sessionRepository.findParticipationsAfter(0, 0, 2)).thenReturn(rows(1, 10, 1, 11));
+        when(sessionRepository.findParticipationsAfter(1, 11, 2)).thenReturn(rows(2, 10));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should answer from PARTICIPATE once loaded")
+    void rebuild_shouldLoadEveryPage() {
+        // Arrange
+        assertThat(participationIndex.isReady()).isFalse();
+
+        // Act
+        load();
+
+        // Assert
+        assertThat(participationIndex.isReady()).isTrue();
+        assertThat(participationIndex.isParticipant(1, 11)).isTrue();
+        assertThat(participationIndex.isParticipant(2, 11)).isFalse();
+        assertThat(participationIndex.isParticipant(99, 10)).isFalse();
+        assertThat(participationIndex.participantCount(1)).isEqualTo(2);
+        assertThat(participationIndex.sessionsOf(10)).containsExactly(1L, 2L);
+        assertThat(participationIndex.sessionsOf(12)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should follow committed joins and departures")
+    void onSessionChanged_shouldApplyParticipationChanges() {
+        // Arrange
+        load();
+
+        // Act
+        participationIndex.onSessionChanged(new SessionChangedEvent(2L, SessionChange.PARTICIPANT_JOINED, 5000L));
+        participationIndex.onSessionChanged(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_LEFT, 10L));
+        participationIndex.onSessionChanged(new SessionChangedEvent(2L, SessionChange.WAITLIST_JOINED, 11L));
+
+        // Assert
+        assertThat(participationIndex.isParticipant(2, 5000)).isTrue();
+        assertThat(participationIndex.sessionsOf(5000)).containsExactly(2L);
+        assertThat(participationIndex.isParticipant(1, 10)).isFalse();
+        assertThat(participationIndex.sessionsOf(10)).containsExactly(2L);
+        assertThat(participationIndex.isParticipant(2, 11)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reload the participants of an updated session and forget a deleted one")
+    void onSessionChanged_shouldReplaceWholeSessions() {
+        // Arrange
+        load();
+        when(sessionRepository.findParticipantIds(1L)).thenReturn(Arrays.<Number>asList(11, 12));
+
+        // Act
+        participationIndex.onSessionChanged(new SessionChangedEvent(1L, SessionChange.UPDATED, null));
+        participationIndex.onSessionChanged(new SessionChangedEvent(2L, SessionChange.DELETED, null));
+
+        // Assert
+        assertThat(participationIndex.isParticipant(1, 12)).isTrue();
+        assertThat(participationIndex.participantCount(1)).isEqualTo(2);
+        assertThat(participationIndex.sessionsOf(10)).isEmpty();
+        assertThat(participationIndex.participantCount(2)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should replay the changes committed while it was loading")
+    void rebuild_shouldReplayConcurrentChanges() {
+        // Arrange: user 10 leaves session 1 after the load has read that row
+        when(sessionRepository.findParticipationsAfter(0, 0, 2)).thenAnswer(invocation -> {
+            participationIndex.onSessionChanged(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_LEFT, 10L));
+            return rows(1, 10);
+        });
+
+        // Act
+        participationIndex.rebuild();
+
+        // Assert
+        assertThat(participationIndex.isParticipant(1, 10)).isFalse();
+        assertThat(participationIndex.sessionsOf(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the previous index when a reload fails")
+    void rebuild_shouldKeepPreviousIndexOnFailure() {
+        // Arrange
+        load();
+        when(sessionRepository.findParticipationsAfter(0, 0, 2)).thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        participationIndex.rebuild();
+
+        // Assert
+        assertThat(participationIndex.isReady()).isTrue();
+        assertThat(participationIndex.isParticipant(1, 10)).isTrue();
+        assertThat(participationIndex.sizeInBytes()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should read the participants of a changed session without holding the lock")
+    void onSessionChanged_shouldQueryOutsideTheLock() {
+        // Arrange
+        load();
+        Object lock = ReflectionTestUtils.getField(participationIndex, "lock");
+        when(sessionRepository.findParticipantIds(1L)).thenAnswer(invocation -> {
+            assertThat(Thread.holdsLock(lock)).isFalse();
+            return Arrays.<Number>asList(12);
+        });
+
+        // Act
+        participationIndex.onSessionChanged(new SessionChangedEvent(1L, SessionChange.UPDATED, null));
+
+        // Assert
+        assertThat(participationIndex.isParticipant(1, 12)).isTrue();
+        assertThat(participationIndex.isParticipant(1, 10)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should forget the participations of a deleted user")
+    void onUserDeleted_shouldRemoveTheUser() {
+        // Arrange
+        load();
+
+        // Act
+        participationIndex.onUserDeleted(new UserDeletedEvent(10L));
+
+        // Assert
+        assertThat(participationIndex.sessionsOf(10)).isEmpty();
+        assertThat(participationIndex.isParticipant(1, 10)).isFalse();
+        assertThat(participationIndex.isParticipant(2, 10)).isFalse();
+        assertThat(participationIndex.participantCount(1)).isEqualTo(1);
+        assertThat(participationIndex.participantCount(2)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should apply the changes committed on another node")
+    void onSessionChanged_shouldReachTheOtherNodes() {
+        // Arrange
+        ParticipationIndex otherNode = new ParticipationIndex(sessionRepository, bus, 60000, 2);
+        load();
+        load(otherNode);
+
+        // Act
+        otherNode.onSessionChanged(new SessionChangedEvent(2L, SessionChange.PARTICIPANT_JOINED, 11L));
+        otherNode.onUserDeleted(new UserDeletedEvent(10L));
+
+        // Assert
+        assertThat(participationIndex.isParticipant(2, 11)).isTrue();
+        assertThat(participationIndex.sessionsOf(10)).isEmpty();
+        assertThat(otherNode.sessionsOf(11)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should stay empty from a checkpoint until it is reloaded after the restore")
+    void suspend_shouldEmptyTheIndexUntilResumed() throws InterruptedException {
+        // Arrange
+        load();
+
+        // Act
+        participationIndex.suspend();
+        participationIndex.rebuild();
+
+        // Assert
+        assertThat(participationIndex.isReady()).isFalse();
+        assertThat(participationIndex.sizeInBytes()).isZero();
+
+        // Act
+        participationIndex.resume();
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!participationIndex.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        participationIndex.shutdown();
+        assertThat(participationIndex.isReady()).isTrue();
+        assertThat(participationIndex.sessionsOf(10)).containsExactly(1L, 2L);
+    }
+}
@@ -1,18 +1,32 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.CacheCoordinator;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,6 +39,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -44,8 +60,26 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private CacheCoordinator cacheCoordinator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     // Inject the mocks (sessionRepository, userRepository) into this instance of SessionService.
     // This automatically handles the constructor injection for SessionService.
+    @Mock
+    private ParticipationIndex participationIndex;
+
+    @Mock
+    private CalendarIndex calendarIndex;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -132,6 +166,8 @@ class SessionServiceTest {
 
         // Assert
         verify(sessionRepository, times(1)).deleteById(sessionIdToDelete);
+        verify(cacheCoordinator).evict(CacheNames.SESSION, sessionIdToDelete);
+        verify(cacheCoordinator).clear(CacheNames.SESSIONS);
     }
 
     // Test case for the findAll method
@@ -195,7 +231,7 @@ class SessionServiceTest {
         mockSession.setUsers(new ArrayList<>());
 
         // Mock repository calls
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
         when(userRepository.findById(userId)).thenReturn(Optional.of(mockUser));
         when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
 
@@ -203,13 +239,17 @@ class SessionServiceTest {
         sessionService.participate(sessionId, userId);
 
         // Assert
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         verify(userRepository, times(1)).findById(userId);
         ArgumentCaptor<Session> sessionCaptor = ArgumentCaptor.forClass(Session.class);
         verify(sessionRepository, times(1)).save(sessionCaptor.capture());
 
         Session savedSession = sessionCaptor.getValue();
         assertThat(savedSession.getUsers()).contains(mockUser);
+        verify(cacheCoordinator).evict(CacheNames.SESSION, sessionId);
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(sessionId, SessionChange.PARTICIPANT_JOINED, userId));
+        verify(sessionRepository).adjustParticipantCount(sessionId, 1);
+        assertThat(savedSession.getParticipantCount()).isEqualTo(1);
     }
 
     @Test
@@ -218,17 +258,17 @@ class SessionServiceTest {
         Long sessionId = 2L; // Non-existent session ID
         Long userId = 10L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.empty());
         // Mock userRepository.findById because it's called before the null check in the service
         when(userRepository.findById(userId)).thenReturn(Optional.empty()); // Mocking with the specific userId
 
         // Act & Assert
-        // Expect NotFoundException because sessionRepository.findById returns empty
+        // Expect NotFoundException because sessionRepository.findForUpdate returns empty
         assertThatThrownBy(() -> sessionService.participate(sessionId, userId))
                 .isInstanceOf(NotFoundException.class);
 
         // Verify interactions
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         // Verify userRepository.findById is indeed called once, as per the service logic
         verify(userRepository, times(1)).findById(userId);
         // Verify save is never called when participation fails
@@ -241,14 +281,14 @@ class SessionServiceTest {
         Long sessionId = 1L;
         Long userId = 20L; // Use an ID that will not be found for the user
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> sessionService.participate(sessionId, userId))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         verify(userRepository, times(1)).findById(userId);
         verify(sessionRepository, never()).save(any(Session.class));
     }
@@ -262,14 +302,14 @@ class SessionServiceTest {
         // Add the mock user to the session's user list to simulate they are already participating
         mockSession.setUsers(new ArrayList<>(Collections.singletonList(mockUser)));
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
         when(userRepository.findById(userId)).thenReturn(Optional.of(mockUser));
 
         // Act & Assert
         assertThatThrownBy(() -> sessionService.participate(sessionId, userId))
                 .isInstanceOf(BadRequestException.class);
 
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         verify(userRepository, times(1)).findById(userId);
         verify(sessionRepository, never()).save(any(Session.class));
     }
@@ -285,14 +325,14 @@ class SessionServiceTest {
         users.add(mockUser);
         mockSession.setUsers(users);
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
 
         // Act
         sessionService.noLongerParticipate(sessionId, userId);
 
         // Assert
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         ArgumentCaptor<Session> sessionCaptor = ArgumentCaptor.forClass(Session.class);
         verify(sessionRepository, times(1)).save(sessionCaptor.capture());
 
@@ -307,13 +347,13 @@ class SessionServiceTest {
         Long sessionId = 2L; // Non-existent session ID
         Long userId = 10L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, userId))
                 .isInstanceOf(NotFoundException.class);
 
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         verify(sessionRepository, never()).save(any(Session.class));
     }
 
@@ -326,13 +366,13 @@ class SessionServiceTest {
         // Session initially has no users, or users other than userId 20L
         mockSession.setUsers(new ArrayList<>()); // Ensure user list is empty
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
 
         // Act & Assert
         assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, userId))
                 .isInstanceOf(BadRequestException.class);
 
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         verify(sessionRepository, never()).save(any(Session.class));
     }
 
@@ -352,13 +392,13 @@ class SessionServiceTest {
         users.add(participatingUser);
         mockSession.setUsers(users);
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
 
         // Act & Assert
         assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, nonParticipatingUserId))
                 .isInstanceOf(BadRequestException.class);
 
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         verify(sessionRepository, never()).save(any(Session.class));
     }
 
@@ -380,14 +420,14 @@ class SessionServiceTest {
         mockSession.setUsers(users);
 
         // Mock repository calls
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.findForUpdate(sessionId)).thenReturn(Optional.of(mockSession));
         when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
 
         // Act
         sessionService.noLongerParticipate(sessionId, userIdToRemove);
 
         // Assert
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findForUpdate(sessionId);
         ArgumentCaptor<Session> sessionCaptor = ArgumentCaptor.forClass(Session.class);
         verify(sessionRepository, times(1)).save(sessionCaptor.capture());
 
@@ -396,4 +436,265 @@ class SessionServiceTest {
         assertThat(savedSession.getUsers()).doesNotContain(userToRemove);
         assertThat(savedSession.getUsers().size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindByUser_Upcoming_SortsSoonestFirst() {
+        // Arrange
+        Page<Session> page = new PageImpl<>(Collections.singletonList(mockSession));
+        when(sessionRepository.findByUserIdAndDateFrom(eq(10L), any(Date.class), any(Pageable.class))).thenReturn(page);
+
+        // Act
+        Page<Session> result = sessionService.findByUser(10L, SessionPeriod.UPCOMING, 2, 5);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(mockSession);
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(sessionRepository).findByUserIdAndDateFrom(eq(10L), any(Date.class), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageableCaptor.getValue().getPageSize()).isEqualTo(5);
+        assertThat(pageableCaptor.getValue().getSort().getOrderFor("date").getDirection()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void testFindByUser_Past_SortsLatestFirst() {
+        // Arrange
+        when(sessionRepository.findByUserIdAndDateBefore(eq(10L), any(Date.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Collections.emptyList()));
+
+        // Act
+        sessionService.findByUser(10L, SessionPeriod.PAST, 0, 20);
+
+        // Assert
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(sessionRepository).findByUserIdAndDateBefore(eq(10L), any(Date.class), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getSort().getOrderFor("date").getDirection()).isEqualTo(Sort.Direction.DESC);
+        verify(sessionRepository, never()).findByUserIdAndDateFrom(anyLong(), any(Date.class), any(Pageable.class));
+    }
+
+    @Test
+    void testParticipate_SessionFull_JoinsWaitlist() {
+        // Arrange
+        User participant = new User();
+        participant.setId(11L);
+        mockSession.setCapacity(1);
+        mockSession.setUsers(new ArrayList<>(Collections.singletonList(participant)));
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+        when(userRepository.findById(10L)).thenReturn(Optional.of(mockUser));
+
+        // Act
+        ParticipationStatus status = sessionService.participate(1L, 10L);
+
+        // Assert
+        assertThat(status).isEqualTo(ParticipationStatus.WAITLISTED);
+        ArgumentCaptor<WaitlistEntry> entryCaptor = ArgumentCaptor.forClass(WaitlistEntry.class);
+        verify(waitlistEntryRepository).save(entryCaptor.capture());
+        assertThat(entryCaptor.getValue().getSessionId()).isEqualTo(1L);
+        assertThat(entryCaptor.getValue().getUser()).isEqualTo(mockUser);
+        assertThat(mockSession.getUsers()).containsExactly(participant);
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    void testParticipate_FreeSeatButWaitlistNotEmpty_JoinsWaitlist() {
+        // Arrange
+        mockSession.setCapacity(5);
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+        when(userRepository.findById(10L)).thenReturn(Optional.of(mockUser));
+        when(waitlistEntryRepository.existsBySessionId(1L)).thenReturn(true);
+
+        // Act
+        ParticipationStatus status = sessionService.participate(1L, 10L);
+
+        // Assert
+        assertThat(status).isEqualTo(ParticipationStatus.WAITLISTED);
+        assertThat(mockSession.getUsers()).isEmpty();
+    }
+
+    @Test
+    void testParticipate_AlreadyWaitlisted() {
+        // Arrange
+        mockSession.setCapacity(0);
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+        when(userRepository.findById(10L)).thenReturn(Optional.of(mockUser));
+        when(waitlistEntryRepository.findBySessionIdAndUserId(1L, 10L)).thenReturn(Optional.of(new WaitlistEntry()));
+
+        // Act & Assert
+        assertThatThrownBy(() -> sessionService.participate(1L, 10L))
+                .isInstanceOf(BadRequestException.class);
+        verify(waitlistEntryRepository, never()).save(any(WaitlistEntry.class));
+    }
+
+    @Test
+    void testNoLongerParticipate_LimitedSession_PublishesSeatsReleased() {
+        // Arrange
+        mockSession.setCapacity(1);
+        mockSession.setUsers(new ArrayList<>(Collections.singletonList(mockUser)));
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+
+        // Act
+        sessionService.noLongerParticipate(1L, 10L);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_LEFT, 10L));
+        verify(sessionRepository).adjustParticipantCount(1L, -1);
+        verify(eventPublisher).publishEvent(new SeatsReleasedEvent(1L));
+    }
+
+    @Test
+    void testNoLongerParticipate_Waitlisted_LeavesWaitlist() {
+        // Arrange
+        WaitlistEntry entry = new WaitlistEntry().setId(3L).setSessionId(1L).setUser(mockUser);
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+        when(waitlistEntryRepository.findBySessionIdAndUserId(1L, 10L)).thenReturn(Optional.of(entry));
+
+        // Act
+        sessionService.noLongerParticipate(1L, 10L);
+
+        // Assert
+        verify(waitlistEntryRepository).delete(entry);
+        verify(sessionRepository, never()).save(any(Session.class));
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(1L, SessionChange.WAITLIST_LEFT, 10L));
+        verify(eventPublisher, never()).publishEvent(any(SeatsReleasedEvent.class));
+    }
+
+    @Test
+    void testPromoteWaitlist_FillsFreeSeatsOldestFirst() {
+        // Arrange
+        User waiting = new User();
+        waiting.setId(12L);
+        WaitlistEntry entry = new WaitlistEntry().setId(3L).setSessionId(1L).setUser(waiting);
+        mockSession.setCapacity(2);
+        mockSession.setUsers(new ArrayList<>(Collections.singletonList(mockUser)));
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+        when(waitlistEntryRepository.findNext(eq(1L), any(Pageable.class))).thenReturn(Collections.singletonList(entry));
+
+        // Act
+        int promoted = sessionService.promoteWaitlist(1L);
+
+        // Assert
+        assertThat(promoted).isEqualTo(1);
+        assertThat(mockSession.getUsers()).containsExactly(mockUser, waiting);
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(waitlistEntryRepository).findNext(eq(1L), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getPageSize()).isEqualTo(1);
+        verify(waitlistEntryRepository).deleteAllInBatch(Collections.singletonList(entry));
+        verify(sessionRepository).save(mockSession);
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_JOINED, 12L));
+        verify(sessionRepository).adjustParticipantCount(1L, 1);
+    }
+
+    @Test
+    void testPromoteWaitlist_SessionFull_PromotesNobody() {
+        // Arrange
+        mockSession.setCapacity(1);
+        mockSession.setUsers(new ArrayList<>(Collections.singletonList(mockUser)));
+        when(sessionRepository.findForUpdate(1L)).thenReturn(Optional.of(mockSession));
+
+        // Act
+        int promoted = sessionService.promoteWaitlist(1L);
+
+        // Assert
+        assertThat(promoted).isZero();
+        verify(waitlistEntryRepository, never()).findNext(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void testIsParticipating_UsesIndexOnceLoaded() {
+        // Arrange
+        when(participationIndex.isReady()).thenReturn(true);
+        when(participationIndex.isParticipant(1L, 10L)).thenReturn(true);
+
+        // Act & Assert
+        assertThat(sessionService.isParticipating(1L, 10L)).isTrue();
+        verify(sessionRepository, never()).existsParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    void testFindSessionIdsByUser_FallsBackToDatabaseBeforeIndexLoaded() {
+        // Arrange
+        when(participationIndex.isReady()).thenReturn(false);
+        when(sessionRepository.findIdsByUserId(10L)).thenReturn(Arrays.asList(1L, 2L));
+
+        // Act & Assert
+        assertThat(sessionService.findSessionIdsByUser(10L)).containsExactly(1L, 2L);
+        verify(participationIndex, never()).sessionsOf(anyLong());
+    }
+
+    @Test
+    void testCreate_TeacherAlreadyBooked_Conflict() {
+        // Arrange
+        Teacher teacher = new Teacher();
+        teacher.setId(5L);
+        Session sessionToCreate = new Session().setName("Overlap").setDate(mockSession.getDate()).setTeacher(teacher);
+        when(calendarIndex.getSessionDurationMs()).thenReturn(3600000L);
+        when(sessionRepository.existsTeacherSessionBetween(eq(5L), any(Date.class), any(Date.class), eq(0L))).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> sessionService.create(sessionToCreate)).isInstanceOf(ConflictException.class);
+        verify(sessionRepository, never()).save(any(Session.class));
+    }
+
+    @Test
+    void testUpdate_LocksTeacherThenChecksDatabase() {
+        // Arrange
+        Teacher teacher = new Teacher();
+        teacher.setId(5L);
+        mockSession.setTeacher(teacher);
+        when(calendarIndex.getSessionDurationMs()).thenReturn(3600000L);
+        when(sessionRepository.save(mockSession)).thenReturn(mockSession);
+
+        // Act
+        sessionService.update(1L, mockSession);
+
+        // Assert
+        InOrder inOrder = inOrder(teacherRepository, sessionRepository);
+        inOrder.verify(teacherRepository).findForUpdate(5L);
+        inOrder.verify(sessionRepository).existsTeacherSessionBetween(eq(5L), any(Date.class), any(Date.class), eq(1L));
+        inOrder.verify(sessionRepository).save(mockSession);
+    }
+
+    @Test
+    void testFindBetween_FallsBackToDatabaseBeforeIndexLoaded() {
+        // Arrange
+        Date from = new Date(0);
+        Date to = new Date(1000);
+        SessionSummaryDto summary = new SessionSummaryDto(1L, "Yoga", new Date(500), 1L, null, 0);
+        when(calendarIndex.isReady()).thenReturn(false);
+        when(sessionRepository.findTeacherSummariesBetween(1L, from, to)).thenReturn(Collections.singletonList(summary));
+
+        // Act & Assert
+        assertThat(sessionService.findBetween(from, to, 1L)).containsExactly(summary);
+    }
+
+    @Test
+    void testFindBetween_KeepsIndexOrder() {
+        // Arrange
+        Date from = new Date(0);
+        Date to = new Date(1000);
+        SessionSummaryDto first = new SessionSummaryDto(2L, "Early", new Date(100), 1L, null, 0);
+        SessionSummaryDto second = new SessionSummaryDto(1L, "Late", new Date(900), 1L, null, 0);
+        when(calendarIndex.isReady()).thenReturn(true);
+        when(calendarIndex.between(from, to)).thenReturn(Arrays.asList(2L, 1L));
+        when(sessionRepository.findSummariesByIdIn(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(second, first));
+
+        // Act & Assert
+        assertThat(sessionService.findBetween(from, to, null)).containsExactly(first, second);
+    }
+
+    @Test
+    void testFindBetween_DropsStaleIndexedSessions() {
+        // Arrange
+        Date from = new Date(0);
+        Date to = new Date(1000);
+        SessionSummaryDto inRange = new SessionSummaryDto(1L, "Kept", new Date(500), 1L, null, 0);
+        SessionSummaryDto moved = new SessionSummaryDto(2L, "Moved", new Date(1000), 1L, null, 0);
+        SessionSummaryDto reassigned = new SessionSummaryDto(3L, "Reassigned", new Date(600), 2L, null, 0);
+        when(calendarIndex.isReady()).thenReturn(true);
+        when(calendarIndex.ofTeacherBetween(1L, from, to)).thenReturn(Arrays.asList(1L, 2L, 3L));
+        when(sessionRepository.findSummariesByIdIn(Arrays.asList(1L, 2L, 3L)))
+                .thenReturn(Arrays.asList(inRange, moved, reassigned));
+
+        // Act & Assert
+        assertThat(sessionService.findBetween(from, to, 1L)).containsExactly(inRange);
+    }
+}
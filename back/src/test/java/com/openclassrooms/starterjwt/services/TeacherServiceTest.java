@@ -85,4 +85,18 @@ class TeacherServiceTest {
         assertThat(result).isNull();
         verify(teacherRepository, times(1)).findById(teacherId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAllById_KeepsRequestedOrder() {
+        // Arrange
+        List<Long> ids = Arrays.asList(2L, 3L, 1L);
+        when(teacherRepository.findAllById(ids)).thenReturn(Arrays.asList(teacher1, teacher2));
+
+        // Act
+        List<Teacher> result = teacherService.findAllById(ids);
+
+        // Assert
+        assertThat(result).containsExactly(teacher2, teacher1);
+        verify(teacherRepository, times(1)).findAllById(ids);
+    }
+}
@@ -1,7 +1,11 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.CacheCoordinator;
+import com.openclassrooms.starterjwt.cache.CacheNames;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,7 +14,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +32,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CacheCoordinator cacheCoordinator;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -42,6 +60,13 @@ class UserServiceTest {
         user.setAdmin(false);
     }
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Nested
     @DisplayName("Find By ID")
     class FindByIdTests {
@@ -75,6 +100,27 @@ class UserServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Find All By ID")
+    class FindAllByIdTests {
+
+        @Test
+        @DisplayName("Should return the found users in the requested order")
+        void testFindAllById() {
+            // Arrange
+            User other = new User();
+            other.setId(2L);
+            when(userRepository.findAllById(Arrays.asList(2L, nonExistentUserId, userId)))
+                    .thenReturn(Arrays.asList(user, other));
+
+            // Act
+            List<User> users = userService.findAllById(Arrays.asList(2L, nonExistentUserId, userId));
+
+            // Assert
+            assertThat(users).containsExactly(other, user);
+        }
+    }
+
     @Nested
     @DisplayName("Delete User")
     class DeleteTests {
@@ -89,6 +135,41 @@ class UserServiceTest {
 
             // Assert
             verify(userRepository).deleteById(userId);
+            verify(cacheCoordinator).evict(CacheNames.USER, userId);
+            verify(eventPublisher).publishEvent(new UserDeletedEvent(userId));
+        }
+
+        @Test
+        @DisplayName("Should revoke the access tokens and cached details of the deleted user")
+        void testDelete_RevokesTokens() {
+            // Arrange
+            when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+            // Act
+            userService.delete(userId);
+
+            // Assert
+            verify(tokenRevocationList).revokeAllFor(user.getEmail());
+            verify(cacheCoordinator).evict(CacheNames.USER_DETAILS, user.getEmail());
+            verify(userRepository).deleteById(userId);
+        }
+
+        @Test
+        @DisplayName("Should revoke the access tokens only once the deletion has committed")
+        void testDelete_RevokesTokensAfterCommit() {
+            // Arrange
+            when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+            TransactionSynchronizationManager.initSynchronization();
+
+            // Act
+            userService.delete(userId);
+
+            // Assert
+            verify(tokenRevocationList, never()).revokeAllFor(anyString());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            verify(tokenRevocationList).revokeAllFor(user.getEmail());
         }
 
         @Test
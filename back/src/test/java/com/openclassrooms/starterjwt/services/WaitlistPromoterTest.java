@@ -0,0 +1,70 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistPromoterTest {
+
+    @Mock
+    private SessionService sessionService;
+
+    private WaitlistPromoter waitlistPromoter;
+
+    @AfterEach
+    void tearDown() {
+        waitlistPromoter.shutdown();
+    }
+
+    @Test
+    void testSchedule_CoalescesReleasesQueuedForTheSameSession() throws Exception {
+        // Arrange: one worker, kept busy by the promotion of session 1
+        waitlistPromoter = new WaitlistPromoter(sessionService, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(sessionService.promoteWaitlist(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        when(sessionService.promoteWaitlist(2L)).thenReturn(1);
+
+        // Act
+        waitlistPromoter.schedule(1L);
+        started.await(5, TimeUnit.SECONDS);
+        waitlistPromoter.onSeatsReleased(new SeatsReleasedEvent(2L));
+        waitlistPromoter.onSeatsReleased(new SeatsReleasedEvent(2L));
+        waitlistPromoter.onSeatsReleased(new SeatsReleasedEvent(2L));
+        release.countDown();
+
+        // Assert
+        verify(sessionService, timeout(5000).times(1)).promoteWaitlist(2L);
+        verify(sessionService, times(1)).promoteWaitlist(1L);
+    }
+
+    @Test
+    void testSchedule_RunsAgainAfterAPromotionCompleted() {
+        // Arrange
+        waitlistPromoter = new WaitlistPromoter(sessionService, 2);
+        when(sessionService.promoteWaitlist(1L)).thenReturn(0);
+
+        // Act
+        waitlistPromoter.schedule(1L);
+        verify(sessionService, timeout(5000).times(1)).promoteWaitlist(1L);
+        waitlistPromoter.schedule(1L);
+
+        // Assert
+        verify(sessionService, timeout(5000).times(2)).promoteWaitlist(1L);
+    }
+}
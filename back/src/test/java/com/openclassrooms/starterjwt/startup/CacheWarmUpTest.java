@@ -0,0 +1,133 @@
+package com.openclassrooms.starterjwt.startup;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheWarmUp Unit Tests")
+class CacheWarmUpTest {
+
+    @Mock
+    private TeacherService teacherService;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private CacheWarmUp warmUp(boolean enabled, long timeoutMs) {
+        return new CacheWarmUp(teacherService, sessionService, userService, userDetailsService, refreshTokenRepository,
+                enabled, 2, timeoutMs, 7, 7, 100);
+    }
+
+    @Test
+    @DisplayName("Should load the lists, then the entries they name, before reporting up")
+    void run_shouldLoadListsThenEntries() {
+        // Arrange
+        CacheWarmUp warmUp = warmUp(true, 10000);
+        when(teacherService.findAll()).thenReturn(Collections.singletonList(new Teacher().setId(3L)));
+        when(sessionService.findBetween(any(Date.class), any(Date.class), isNull()))
+                .thenReturn(Collections.singletonList(new SessionSummaryDto(5L, "Yoga", new Date(), 3L, null, 0)));
+        when(refreshTokenRepository.findRecentlyActiveUserIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(8L));
+        when(userService.findById(8L)).thenReturn(new User().setId(8L).setEmail("active@studio.com"));
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        // Act
+        warmUp.run();
+
+        // Assert
+        verify(sessionService).findAll();
+        verify(sessionService).findAllSummaries();
+        verify(teacherService).findById(3L);
+        verify(sessionService).getById(5L);
+        verify(userService).findById(8L);
+        verify(userDetailsService).loadUserByUsername("active@studio.com");
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmUp.health().getDetails()).containsEntry("warmUp", "completed");
+    }
+
+    @Test
+    @DisplayName("Should report up when a load fails")
+    void run_shouldNotWaitForFailedLoads() {
+        // Arrange
+        CacheWarmUp warmUp = warmUp(true, 10000);
+        when(teacherService.findAll()).thenThrow(new IllegalStateException("database down"));
+        when(sessionService.findBetween(any(Date.class), any(Date.class), isNull())).thenReturn(Collections.emptyList());
+        when(refreshTokenRepository.findRecentlyActiveUserIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        warmUp.run();
+
+        // Assert
+        verify(teacherService, never()).findById(any());
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("Should give up and report up once the timeout elapses")
+    void run_shouldStopAtTimeout() {
+        // Arrange
+        CacheWarmUp warmUp = warmUp(true, 100);
+        when(teacherService.findAll()).thenAnswer(invocation -> {
+            Thread.sleep(10000);
+            return Collections.emptyList();
+        });
+
+        // Act
+        long start = System.nanoTime();
+        warmUp.run();
+
+        // Assert
+        assertThat(System.nanoTime() - start).isLessThan(5_000_000_000L);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmUp.health().getDetails()).containsEntry("warmUp", "timed_out");
+    }
+
+    @Test
+    @DisplayName("Should report up at once when disabled")
+    void start_shouldSkipWhenDisabled() {
+        // Arrange
+        CacheWarmUp warmUp = warmUp(false, 10000);
+
+        // Act
+        warmUp.start();
+
+        // Assert
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        verifyNoInteractions(teacherService, sessionService, userService, refreshTokenRepository);
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.startup;
+
+import com.openclassrooms.starterjwt.controllers.SessionController;
+import com.openclassrooms.starterjwt.outbox.OutboxRelayScheduler;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"test", "lazy"})
+@DisplayName("Lazy initialization profile")
+class LazyInitializationConfigTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    private boolean created(String beanName) {
+        return context.getBeanFactory().containsSingleton(beanName);
+    }
+
+    @Test
+    @DisplayName("Should create the persistence layer and the scheduled beans eagerly and defer the rest")
+    void lazyProfile_shouldKeepCriticalBeansEager() {
+        assertThat(created("flywayInitializer")).isTrue();
+        assertThat(created("entityManagerFactory")).isTrue();
+        assertThat(created("participantCountReconciler")).isTrue();
+        assertThat(created("tokenRevocationList")).isTrue();
+        assertThat(created("sessionController")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should only flag beans with scheduled methods")
+    void hasScheduledMethods_shouldDetectScheduledBeans() {
+        assertThat(LazyInitializationConfig.hasScheduledMethods(OutboxRelayScheduler.class)).isTrue();
+        assertThat(LazyInitializationConfig.hasScheduledMethods(TokenRevocationList.class)).isTrue();
+        assertThat(LazyInitializationConfig.hasScheduledMethods(SessionController.class)).isFalse();
+    }
+}
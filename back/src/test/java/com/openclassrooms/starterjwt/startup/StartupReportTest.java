@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.startup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StartupReport Unit Tests")
+class StartupReportTest {
+
+    private final StartupReport startupReport = new StartupReport(2, false);
+
+    private StartupTimeline.TimelineEvent event(long id, Long parentId, String name, String tagKey, String tagValue,
+                                                long millis) {
+        StartupStep.Tag tag = mock(StartupStep.Tag.class);
+        when(tag.getKey()).thenReturn(tagKey);
+        when(tag.getValue()).thenReturn(tagValue);
+        StartupStep.Tags tags = mock(StartupStep.Tags.class);
+        List<StartupStep.Tag> tagList = Collections.singletonList(tag);
+        when(tags.iterator()).thenAnswer(invocation -> tagList.iterator());
+
+        StartupStep step = mock(StartupStep.class);
+        when(step.getId()).thenReturn(id);
+        when(step.getParentId()).thenReturn(parentId);
+        when(step.getName()).thenReturn(name);
+        when(step.getTags()).thenReturn(tags);
+
+        StartupTimeline.TimelineEvent event = mock(StartupTimeline.TimelineEvent.class);
+        when(event.getStartupStep()).thenReturn(step);
+        when(event.getDuration()).thenReturn(Duration.ofMillis(millis));
+        return event;
+    }
+
+    @Test
+    @DisplayName("Should rank beans by self time and break down Hibernate, Flyway and repositories")
+    void report_shouldSummarizeTimeline() {
+        // Arrange
+        List<StartupTimeline.TimelineEvent> events = new ArrayList<>(Arrays.asList(
+                event(1, null, StartupReport.BEAN_INSTANTIATE, "beanName", StartupReport.ENTITY_MANAGER_FACTORY, 900),
+                event(2, 1L, StartupReport.BEAN_INSTANTIATE, "beanName", StartupReport.FLYWAY_INITIALIZER, 400),
+                event(3, null, StartupReport.REPOSITORY_INIT, "repository", "SessionRepository", 120),
+                event(4, null, StartupReport.REPOSITORY_INIT, "repository", "UserRepository", 80),
+                event(5, null, StartupReport.BEAN_INSTANTIATE, "beanName", "fastBean", 3)));
+        StartupTimeline timeline = mock(StartupTimeline.class);
+        when(timeline.getEvents()).thenReturn(events);
+
+        // Act
+        String report = startupReport.report(timeline, Duration.ofMillis(1234));
+
+        // Assert
+        assertThat(report)
+                .contains("1234 ms  ready")
+                .contains("400 ms  Flyway migrations")
+                .contains("500 ms  Hibernate metamodel")
+                .contains("200 ms  2 repository proxies")
+                .contains("3 beans, slowest by self time")
+                .contains("500 ms  " + StartupReport.ENTITY_MANAGER_FACTORY)
+                .contains("400 ms  " + StartupReport.FLYWAY_INITIALIZER)
+                .doesNotContain("fastBean");
+        assertThat(report.indexOf("ms  " + StartupReport.ENTITY_MANAGER_FACTORY))
+                .isLessThan(report.indexOf("ms  " + StartupReport.FLYWAY_INITIALIZER));
+    }
+}
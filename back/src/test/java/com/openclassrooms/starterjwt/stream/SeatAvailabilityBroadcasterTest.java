@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.cache.CacheInvalidation;
+import com.openclassrooms.starterjwt.cache.CacheNames;
+import com.openclassrooms.starterjwt.cache.LocalCacheInvalidationBus;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.services.ParticipationChange;
+import com.openclassrooms.starterjwt.services.SessionChange;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// start() is not called: flushes are driven by the test.
+@ExtendWith(MockitoExtension.class)
+class SeatAvailabilityBroadcasterTest {
+
+    @Mock
+    private SessionService sessionService;
+
+    private LocalCacheInvalidationBus bus;
+
+    private SeatAvailabilityBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalCacheInvalidationBus();
+        broadcaster = new SeatAvailabilityBroadcaster(sessionService, new ObjectMapper(), bus,
+                250, 15000, 60000, 2, 2, 8, 5000);
+    }
+
+    @Test
+    void testFlush_CoalescesChangesOfTheSameSession() {
+        // Arrange
+        SessionSummaryDto session = new SessionSummaryDto(1L, "Flow", null, null, 10, 1);
+        when(sessionService.getSummaryById(1L)).thenReturn(session);
+        broadcaster.subscribeAll();
+
+        // Act
+        broadcaster.onSessionChanged(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_JOINED, 10L));
+        broadcaster.onSessionChanged(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_LEFT, 10L));
+        broadcaster.onSessionChanged(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_JOINED, 11L));
+        broadcaster.flush();
+        broadcaster.flush();
+
+        // Assert
+        verify(sessionService, times(1)).getSummaryById(1L);
+    }
+
+    @Test
+    void testFlush_PushesChangesCommittedOnAnotherNode() {
+        // Arrange
+        when(sessionService.getSummaryById(1L)).thenReturn(new SessionSummaryDto(1L, "Flow", null, null, 10, 3));
+        broadcaster.subscribe(new Session().setId(1L).setCapacity(10).setUsers(new ArrayList<>()));
+
+        // Act
+        bus.publish(new CacheInvalidation("node-b", CacheNames.PARTICIPATIONS,
+                new ParticipationChange(ParticipationChange.Type.JOINED, 1L, 10L)));
+        bus.publish(new CacheInvalidation("node-b", CacheNames.PARTICIPATIONS,
+                new ParticipationChange(ParticipationChange.Type.USER_DELETED, null, 11L)));
+        broadcaster.flush();
+
+        // Assert
+        verify(sessionService).getSummaryById(1L);
+        verify(sessionService, never()).getById(anyLong());
+    }
+
+    @Test
+    void testFlush_NoSubscriber_DoesNotReadTheSession() {
+        // Act
+        broadcaster.onSessionChanged(new SessionChangedEvent(1L, SessionChange.PARTICIPANT_JOINED, 10L));
+        broadcaster.flush();
+
+        // Assert
+        verify(sessionService, never()).getSummaryById(anyLong());
+    }
+
+    @Test
+    void testFlush_DeletedSession_DoesNotFail() {
+        // Arrange
+        when(sessionService.getSummaryById(1L)).thenReturn(null);
+        broadcaster.subscribe(new Session().setId(1L).setUsers(new ArrayList<>()));
+
+        // Act
+        broadcaster.onSessionChanged(new SessionChangedEvent(1L, SessionChange.DELETED, null));
+        broadcaster.flush();
+
+        // Assert
+        verify(sessionService).getSummaryById(1L);
+    }
+
+    @Test
+    void testSubscribe_RefusesConnectionsBeyondTheLimit() {
+        // Act
+        broadcaster.subscribeAll();
+        broadcaster.subscribeAll();
+
+        // Assert
+        assertThat(broadcaster.subscribeAll()).isNull();
+        assertThat(broadcaster.getConnections()).isEqualTo(2);
+    }
+}
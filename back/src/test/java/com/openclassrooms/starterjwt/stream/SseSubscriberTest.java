@@ -0,0 +1,178 @@
+package com.openclassrooms.starterjwt.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseSubscriberTest {
+
+    private ExecutorService writers;
+
+    @BeforeEach
+    void setUp() {
+        writers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Records the events it is sent, optionally blocking each write until released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+
+        private final AtomicInteger sent = new AtomicInteger();
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+
+        private volatile Throwable completedWith;
+
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                if (release != null) {
+                    release.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            completed = true;
+            completedWith = ex;
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event() {
+        return SseEmitter.event().name("availability").data("{}");
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testSend_StalledSubscriberDoesNotHoldBackTheOthers() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        SseSubscriber stalledSubscriber = new SseSubscriber(stalled, writers, 8, () -> { });
+        SseSubscriber fastSubscriber = new SseSubscriber(fast, writers, 8, () -> { });
+
+        // Act
+        stalledSubscriber.send(event());
+        await(stalled.writing);
+        for (int i = 0; i < 5; i++) {
+            fastSubscriber.send(event());
+        }
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fast.sent.get() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(fast.sent.get()).isEqualTo(5);
+        assertThat(stalled.sent.get()).isZero();
+        release.countDown();
+    }
+
+    @Test
+    void testSend_DropsASubscriberTooFarBehind() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        AtomicInteger closed = new AtomicInteger();
+        SseSubscriber subscriber = new SseSubscriber(slow, writers, 2, closed::incrementAndGet);
+        subscriber.send(event());
+        await(slow.writing);
+
+        // Act: one event is being written, two are pending, the next one overflows
+        subscriber.send(event());
+        subscriber.send(event());
+        subscriber.send(event());
+
+        // Assert
+        assertThat(subscriber.isClosed()).isTrue();
+        assertThat(closed.get()).isEqualTo(1);
+        assertThat(slow.completed).isFalse();
+
+        // Act: the blocked write returns, and the connection is completed by the writer
+        release.countDown();
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!slow.completed && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(slow.completedWith).isInstanceOf(IllegalStateException.class);
+        assertThat(slow.sent.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testIsStalled_ReportsAWriteBlockedPastTheTimeout() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        SseSubscriber subscriber = new SseSubscriber(stalled, writers, 8, () -> { });
+
+        // Act
+        subscriber.send(event());
+        await(stalled.writing);
+
+        // Assert
+        long now = System.nanoTime();
+        assertThat(subscriber.isStalled(now, TimeUnit.SECONDS.toNanos(60))).isFalse();
+        assertThat(subscriber.isStalled(now + TimeUnit.SECONDS.toNanos(61), TimeUnit.SECONDS.toNanos(60))).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void testCompleteAfterPending_WritesQueuedEventsFirst() throws Exception {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        SseSubscriber subscriber = new SseSubscriber(emitter, writers, 8, () -> { });
+
+        // Act
+        subscriber.send(event());
+        subscriber.send(event());
+        subscriber.completeAfterPending();
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!emitter.completed && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(emitter.sent.get()).isEqualTo(2);
+        assertThat(emitter.completedWith).isNull();
+    }
+}